@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of {@link LogViewerPanel#appendLogs(List)} on the Event Dispatch
+ * Thread as the retained log grows, up to a full store that evicts on every
+ * append. It includes one hop to the EDT, as the handler does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AppendBenchmark {
+
+    @Param({"0", "100000", "1000000"})
+    public int retained;
+
+    @Param({"1", "1000"})
+    public int batchSize;
+
+    private final LogStore store = LogStore.getDefault();
+    private LogViewerPanel panel;
+    private List<LogEntry> batch;
+
+    @Setup
+    public void setup() throws Exception {
+        EventQueue.invokeAndWait(() -> {
+            store.clear();
+            panel = new LogViewerPanel();
+        });
+
+        final List<LogEntry> fill = batch(10_000);
+        for (int n = 0; n < retained; n += fill.size()) {
+            EventQueue.invokeAndWait(() -> panel.appendLogs(fill));
+        }
+        batch = batch(batchSize);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        EventQueue.invokeAndWait(store::clear);
+    }
+
+    @Benchmark
+    public void append() throws Exception {
+        EventQueue.invokeAndWait(() -> panel.appendLogs(batch));
+    }
+
+    private static List<LogEntry> batch(final int size) {
+        final List<LogEntry> ret = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            ret.add(LogEntry.of(Level.INFO, "benchmark entry " + i));
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.awt.EventQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency from {@link LogViewerHandler#publish(LogRecord)} to the record
+ * being in the model of a {@link LogViewerPanel}, through the drain task and
+ * the Event Dispatch Thread. Sampled, so the JSON results carry the
+ * percentiles; the batch latency is what the handler waits on purpose to
+ * coalesce records, the rest is overhead.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeliveryBenchmark {
+
+    private static final String LOGGER = "ste.netbeans.logging.benchmark";
+
+    @Param({"0", "25"})
+    public int batchLatency;
+
+    private final LogRecord record = new LogRecord(Level.INFO, "message");
+    private final LogStore store = LogStore.getDefault();
+    private LogViewerPanel panel;
+    private LogViewerHandler handler;
+
+    @Setup
+    public void setup() throws Exception {
+        RateLimits.getDefault().setLimit(LOGGER, 0, 0, 1);
+        record.setLoggerName(LOGGER);
+        EventQueue.invokeAndWait(() -> panel = new LogViewerPanel());
+
+        handler = new LogViewerHandler();
+        handler.setBatchLatency(batchLatency);
+        handler.setFoldWindow(0); // every record must reach the model
+        handler.attach(panel::appendLogs);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        handler.close();
+        RateLimits.getDefault().removeLimit(LOGGER);
+        EventQueue.invokeAndWait(store::clear);
+    }
+
+    @Benchmark
+    public long publish_to_model() {
+        final long target = store.end() + 1;
+        handler.publish(record);
+        while (store.end() < target) {
+            Thread.onSpinWait();
+        }
+        return store.end();
+    }
+}
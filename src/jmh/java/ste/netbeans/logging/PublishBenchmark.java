@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of {@link LogViewerHandler#publish(LogRecord)} with 1, 4 and 16
+ * logging threads; run it with {@code -prof gc} for the allocation per
+ * record. Records are drained as usual but delivered to a viewer that
+ * discards them, so the logging side is measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PublishBenchmark {
+
+    private static final String LOGGER = "ste.netbeans.logging.benchmark";
+
+    /**
+     * DROP_OLDEST never waits, BLOCK shows the cost of backpressure
+     */
+    @Param({"DROP_OLDEST", "BLOCK"})
+    public RecordQueue.OverflowPolicy policy;
+
+    private LogViewerHandler handler;
+
+    @State(Scope.Thread)
+    public static class Records {
+        final LogRecord record = new LogRecord(Level.INFO, "message");
+
+        @Setup
+        public void setup() {
+            record.setLoggerName(LOGGER);
+        }
+    }
+
+    @Setup
+    public void setup() {
+        RateLimits.getDefault().setLimit(LOGGER, 0, 0, 1);
+        handler = new LogViewerHandler(Runnable::run);
+        handler.setOverflowPolicy(policy);
+        handler.attach((batch) -> {});
+    }
+
+    @TearDown
+    public void tearDown() {
+        handler.close();
+        RateLimits.getDefault().removeLimit(LOGGER);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void publish_1_thread(final Records r) {
+        publish(r);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void publish_4_threads(final Records r) {
+        publish(r);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void publish_16_threads(final Records r) {
+        publish(r);
+    }
+
+    /**
+     * The same record is published over and over, so that only what the
+     * handler allocates is measured, not the record itself
+     */
+    private void publish(final Records r) {
+        handler.publish(r.record);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Folds repeated entries into the first occurrence.
+ * <p>
+ * Two entries are the same message if they have the same logger, level,
+ * source, message template (before expanding its parameters) and type of
+ * thrown exception. The folder remembers the last {@link #SLOTS} distinct
+ * messages, so that repetitions are folded even when a few different messages
+ * are interleaved, like the warning and the exception of a retry loop. A
+ * burst ends when its message does not repeat within the fold window, or
+ * when its first occurrence leaves the memory of the {@link LogStore}: once
+ * spilled to the history or evicted, the count it was saved with can not
+ * change any more.
+ * </p>
+ * <p>
+ * It is not thread safe: it is used by the single thread draining the
+ * {@link LogViewerHandler} buffer.
+ * </p>
+ */
+final class BurstFolder {
+
+    /**
+     * Number of distinct recent messages that can be folded into
+     */
+    static final int SLOTS = 16;
+
+    private final LogEntry[] heads = new LogEntry[SLOTS];
+    private final LogStore store;
+    private int next = 0;
+    private volatile long window;
+
+    /**
+     * @param window how long, in milliseconds, a message has to repeat within
+     *        to be folded; 0 to disable folding
+     */
+    BurstFolder(final long window) {
+        this(window, LogStore.getDefault());
+    }
+
+    /**
+     * @param window how long, in milliseconds, a message has to repeat within
+     *        to be folded; 0 to disable folding
+     * @param store the store the entries are appended to - NOT NULL
+     */
+    BurstFolder(final long window, final LogStore store) {
+        this.window = window;
+        this.store = store;
+    }
+
+    void setWindow(final long window) {
+        this.window = window;
+    }
+
+    long getWindow() {
+        return window;
+    }
+
+    /**
+     * Folds the given entry into an earlier occurrence of the same message,
+     * if any; otherwise the entry may be folded into by the next ones.
+     *
+     * @param entry the entry - NOT NULL
+     *
+     * @return true if the entry has been folded and should not be shown on
+     *         its own
+     */
+    boolean fold(final LogEntry entry) {
+        final long w = window;
+        if (w <= 0) {
+            return false;
+        }
+
+        //
+        // heads not appended yet are still on their way to the store
+        //
+        final long firstInMemory = store.firstInMemory();
+        for (final LogEntry head: heads) {
+            if (head != null && (head.seq < 0 || head.seq >= firstInMemory)
+                && sameMessage(head, entry)
+                && entry.millis - head.getLastMillis() <= w
+                && entry.millis >= head.millis) {
+                head.fold(entry);
+                return true;
+            }
+        }
+
+        //
+        // a newer burst of the same message replaces the expired or spilled
+        // one
+        //
+        for (int i = 0; i < SLOTS; ++i) {
+            if (heads[i] != null && sameMessage(heads[i], entry)) {
+                heads[i] = entry;
+                return false;
+            }
+        }
+        heads[next] = entry;
+        next = (next + 1) % SLOTS;
+
+        return false;
+    }
+
+    /**
+     * Forgets all bursts, so that the next entries start new ones.
+     */
+    void clear() {
+        Arrays.fill(heads, null);
+    }
+
+    static boolean sameMessage(final LogEntry a, final LogEntry b) {
+        return a.loggerId == b.loggerId
+            && a.level.equals(b.level)
+            && Objects.equals(a.message, b.message)
+            && Objects.equals(a.source, b.source)
+            && a.bundle == b.bundle
+            && Objects.equals(thrownType(a.thrown), thrownType(b.thrown));
+    }
+
+    /**
+     * @return the class name of the exception; for entries received from
+     *         other processes or read back from the history, where only the
+     *         stack trace text is available, the name it starts with
+     */
+    private static String thrownType(final Throwable thrown) {
+        if (thrown == null) {
+            return null;
+        }
+        if (thrown instanceof StackTrace) {
+            final String s = thrown.toString();
+            final int colon = s.indexOf(':');
+            return (colon < 0) ? s : s.substring(0, colon);
+        }
+        return thrown.getClass().getName();
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * The minimum level the viewer displays for each logger.
+ * <p>
+ * Levels are set on logger subtrees, like JUL levels: a level set for
+ * {@code org.netbeans.modules} applies to all loggers below it unless a more
+ * specific one is set. Resolving the level of a logger walks its name, so the
+ * result is cached in an array indexed by the {@link LoggerRegistry} id of
+ * the logger; once cached, rejecting a record is one array load and one
+ * compare, see {@link #rejects(int, Level)}.
+ * </p>
+ * <p>
+ * The cache is dropped as a whole whenever a level changes. Reads are
+ * lock-free; changes are rare and synchronized.
+ * </p>
+ */
+public final class DisplayLevels {
+
+    private static final int UNKNOWN = Integer.MIN_VALUE;
+    private static final int SHOW_ALL = Level.ALL.intValue();
+
+    private static final DisplayLevels DEFAULT = new DisplayLevels(LoggerRegistry.getDefault());
+
+    private final LoggerRegistry registry;
+
+    private volatile Map<String, Integer> levels = new HashMap<>();
+    private volatile int[] cache = new int[0];
+
+    /**
+     * @param registry the registry the logger ids come from - NOT NULL
+     */
+    public DisplayLevels(final LoggerRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * @return the display levels used by the handler and the viewer
+     */
+    public static DisplayLevels getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Tells if a record of the given logger and level shall not be displayed.
+     *
+     * @param loggerId the {@link LoggerRegistry} id of the logger
+     * @param level the level of the record - NOT NULL
+     *
+     * @return true if the record is below the display level of its logger
+     */
+    public boolean rejects(final int loggerId, final Level level) {
+        final int[] levels = cache;
+
+        int min = (loggerId < levels.length) ? levels[loggerId] : UNKNOWN;
+        if (min == UNKNOWN) {
+            min = resolve(loggerId, levels);
+        }
+
+        return level.intValue() < min;
+    }
+
+    /**
+     * Sets the minimum level displayed for the given logger and its
+     * descendants.
+     *
+     * @param loggerName the logger name - NOT NULL
+     * @param level the level, null to remove the one set before
+     */
+    public synchronized void setLevel(final String loggerName, final Level level) {
+        final Map<String, Integer> newLevels = new HashMap<>(levels);
+        if (level == null) {
+            newLevels.remove(loggerName);
+        } else {
+            newLevels.put(loggerName, level.intValue());
+        }
+        levels = newLevels;
+        invalidate();
+    }
+
+    /**
+     * Drops all cached levels; they are resolved again on first use.
+     */
+    public synchronized void invalidate() {
+        cache = new int[0];
+    }
+
+    // --------------------------------------------------------- private methods
+
+    /**
+     * Resolves the display level of a logger and caches it. The result is
+     * stored in the array the caller read, so if the cache is invalidated in
+     * the meantime the value lands in the discarded array and is not seen.
+     */
+    private int resolve(final int loggerId, int[] levels) {
+        final Map<String, Integer> rules = this.levels;
+
+        int min = SHOW_ALL;
+        if (!rules.isEmpty()) {
+            String name = registry.nameOf(loggerId);
+            while (true) {
+                final Integer level = rules.get(name);
+                if (level != null) {
+                    min = level;
+                    break;
+                }
+                if (name.isEmpty()) {
+                    break;
+                }
+                final int dot = name.lastIndexOf('.');
+                name = (dot < 0) ? "" : name.substring(0, dot);
+            }
+        }
+
+        if (loggerId >= levels.length) {
+            synchronized (this) {
+                if (cache != levels) {
+                    return min;
+                }
+                levels = Arrays.copyOf(levels, Math.max(registry.size(), loggerId + 1) + 64);
+                Arrays.fill(levels, cache.length, levels.length, UNKNOWN);
+                cache = levels;
+            }
+        }
+        levels[loggerId] = min;
+
+        return min;
+    }
+}
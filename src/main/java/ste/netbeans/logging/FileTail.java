@@ -0,0 +1,447 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.openide.util.RequestProcessor;
+
+/**
+ * Follows a text file that is being appended to, like {@code messages.log}.
+ * <p>
+ * The file is never loaded: it is read with positional reads, a chunk at a
+ * time, to find where lines start. Only one line every {@link #INDEX_STEP} is
+ * remembered, so the index takes a fraction of a byte per line; a line is
+ * read by decoding the group of lines it belongs to, and the most recently
+ * read groups are cached. Scanning starts in the background as soon as the
+ * tail is started and lines become available while it proceeds, so even huge
+ * files can be shown immediately.
+ * </p>
+ * <p>
+ * Once the end is reached, the file is scanned again every
+ * {@link #POLL_INTERVAL} milliseconds and as soon as a file watcher reports
+ * a change in its directory; only the appended data is scanned. No thread is
+ * held while waiting: scans are scheduled tasks and a single watcher thread
+ * serves all tails. If the file shrinks, or a different file appears at the
+ * same path (for example because it has been rotated by renaming it), it is
+ * opened again and scanned from the beginning.
+ * </p>
+ * <p>
+ * Only complete lines are shown: a last line without a line terminator is
+ * shown once it is terminated.
+ * </p>
+ */
+public class FileTail implements Closeable {
+
+    /**
+     * Number of lines between two entries of the line index.
+     */
+    public static final int INDEX_STEP = 64;
+
+    /**
+     * Longer lines are truncated when read
+     */
+    public static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    /**
+     * Receives the changes of a tail, on the scanning thread.
+     */
+    public interface Listener {
+        /**
+         * Lines from {@code from} (included) to {@code to} (excluded) have
+         * been found.
+         */
+        void linesAdded(int from, int to);
+
+        /**
+         * The file has been truncated and it is being scanned again; all
+         * previous lines are gone.
+         */
+        void reset();
+    }
+
+    private static final Logger LOG = Logger.getLogger(FileTail.class.getName());
+    private static final RequestProcessor RP = new RequestProcessor(FileTail.class.getName(), 4);
+
+    /**
+     * Milliseconds between two scans when no change is reported, as some
+     * platforms report changes late or not at all
+     */
+    public static final int POLL_INTERVAL = 1000;
+
+    private static final int CHUNK_SIZE = 1 << 20;
+    private static final int CACHE_SIZE = 64;
+
+    private final Path file;
+    private final Listener listener;
+
+    //
+    // one scan at a time; the chunk is only used while scanning
+    //
+    private final Object scanning = new Object();
+    private final ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_SIZE);
+
+    //
+    // guarded by this
+    //
+    private FileChannel channel;
+    private Object fileKey;
+    private final LongList checkpoints = new LongList();
+    private int lines = 0;
+    private long scanned = 0;
+    private final Map<Integer, String[]> cache = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, String[]> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private volatile boolean closed = false;
+    private final RequestProcessor.Task scanner = RP.create(this::poll);
+    private boolean unreadable = false;
+
+    /**
+     * @param file the file to follow - NOT NULL
+     * @param listener receives the lines found - NOT NULL
+     */
+    public FileTail(final Path file, final Listener listener) {
+        this.file = file;
+        this.listener = listener;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Starts scanning and following the file in the background.
+     */
+    public void start() {
+        scanner.schedule(0);
+        Watcher.watch(this);
+    }
+
+    /**
+     * @return the number of lines found so far
+     */
+    public synchronized int getLineCount() {
+        return lines;
+    }
+
+    /**
+     * Returns a line; it can be called from any thread.
+     *
+     * @param index the line index, from 0
+     *
+     * @return the line text, without terminator; null if the line is not
+     *         available (any more)
+     */
+    public String line(final int index) {
+        final int group = index / INDEX_STEP;
+        synchronized (this) {
+            if (index < 0 || index >= lines) {
+                return null;
+            }
+            String[] block = cache.get(group);
+            if (block == null) {
+                try {
+                    block = readGroup(group);
+                } catch (IOException x) {
+                    return null;
+                }
+                cache.put(group, block);
+            }
+            final int i = index % INDEX_STEP;
+            return (i < block.length) ? block[i] : null;
+        }
+    }
+
+    /**
+     * Scans what has been appended since the last scan; normally called by
+     * the file watcher, it can be called from any thread. The file is read
+     * without holding the lock {@link #line(int)} needs, which is taken only
+     * to publish the lines found in each chunk.
+     *
+     * @throws IOException if the file can not be read
+     */
+    public void scan() throws IOException {
+        synchronized (scanning) {
+            scanAppended();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        scanner.cancel();
+        Watcher.unwatch(this);
+        synchronized (this) {
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            } catch (IOException x) {
+                // nothing to do
+            }
+            cache.clear();
+        }
+    }
+
+    // --------------------------------------------------------- private methods
+
+    /**
+     * Scans from where the last scan stopped, or from the beginning if the
+     * file has been truncated or replaced.
+     */
+    private void scanAppended() throws IOException {
+        boolean reset = false;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            //
+            // a file rotated by renaming it is replaced by a new one
+            //
+            final Object key = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+            final boolean replaced = channel != null && key != null && !key.equals(fileKey);
+            if (channel == null || replaced) {
+                if (channel != null) {
+                    channel.close();
+                }
+                channel = FileChannel.open(file, StandardOpenOption.READ);
+                fileKey = key;
+            }
+            if (replaced || channel.size() < scanned) {
+                checkpoints.clear();
+                cache.clear();
+                lines = 0;
+                scanned = 0;
+                reset = true;
+            }
+        }
+        if (reset) {
+            listener.reset();
+        }
+
+        //
+        // a chunk at a time, so that lines become available while scanning;
+        // only this scan changes channel, lines and scanned, so they can be
+        // read once and updated when publishing
+        //
+        final FileChannel c;
+        int count;
+        long position;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (checkpoints.isEmpty()) {
+                checkpoints.add(0);
+            }
+            c = channel;
+            count = lines;
+            position = scanned;
+        }
+        final LongList found = new LongList();
+        while (true) {
+            chunk.clear();
+            final int n = c.read(chunk, position);
+            if (n <= 0) {
+                return;
+            }
+            final int from = count;
+            found.clear();
+            for (int i = 0; i < n; ++i) {
+                if (chunk.get(i) == '\n' && ++count % INDEX_STEP == 0) {
+                    found.add(position + i + 1);
+                }
+            }
+            position += n;
+
+            synchronized (this) {
+                if (closed || channel != c) {
+                    return;
+                }
+                checkpoints.addAll(found);
+                lines = count;
+                scanned = position;
+
+                //
+                // the group of the last lines may have been cached incomplete
+                //
+                cache.remove(from / INDEX_STEP);
+            }
+            if (count > from) {
+                listener.linesAdded(from, count);
+            }
+        }
+    }
+
+    /**
+     * Scans the file and schedules the next scan, until closed. A file that
+     * can not be read, for example while it is being rotated, is tried again
+     * at the next scan.
+     */
+    private void poll() {
+        if (closed) {
+            return;
+        }
+        try {
+            scan();
+            unreadable = false;
+        } catch (IOException x) {
+            if (!closed && !unreadable) {
+                unreadable = true;
+                LOG.log(Level.INFO, "unable to read " + file + ", trying again", x);
+            }
+        }
+        if (!closed) {
+            scanner.schedule(POLL_INTERVAL);
+        }
+    }
+
+    /**
+     * Reads the complete lines of a group.
+     */
+    private String[] readGroup(final int group) throws IOException {
+        final long start = checkpoints.get(group);
+        final int count = Math.min(INDEX_STEP, lines - group * INDEX_STEP);
+        final String[] ret = new String[count];
+
+        final ByteBuffer buf = ByteBuffer.allocate(8192);
+        long position = start;
+        byte[] line = new byte[256];
+        int length = 0, found = 0;
+        while (found < count) {
+            buf.clear();
+            final int n = channel.read(buf, position);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n && found < count; ++i) {
+                final byte b = buf.get(i);
+                if (b == '\n') {
+                    ret[found++] = decode(line, length);
+                    length = 0;
+                } else if (length < MAX_LINE_LENGTH) {
+                    if (length == line.length) {
+                        line = Arrays.copyOf(line, Math.min(MAX_LINE_LENGTH, length * 2));
+                    }
+                    line[length++] = b;
+                }
+            }
+            position += n;
+        }
+
+        return ret;
+    }
+
+    private static String decode(final byte[] line, int length) {
+        if (length > 0 && line[length - 1] == '\r') {
+            --length;
+        }
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // ---------------------------------------------------------------- Watcher
+
+    /**
+     * The single file watcher of all tails: a change in a directory triggers
+     * a scan of the tails of the files in it. Tails of files the watcher can
+     * not watch rely on the periodic scans.
+     */
+    private static final class Watcher {
+
+        private static final RequestProcessor THREAD = new RequestProcessor(Watcher.class.getName(), 1);
+
+        private static WatchService service;
+        private static final Map<WatchKey, List<FileTail>> tails = new HashMap<>();
+
+        private Watcher() {}
+
+        static synchronized void watch(final FileTail tail) {
+            try {
+                final Path dir = tail.file.toAbsolutePath().getParent();
+                if (service == null) {
+                    service = FileSystems.getDefault().newWatchService();
+                    final WatchService s = service;
+                    THREAD.post(() -> run(s));
+                }
+                if (dir.getFileSystem() != FileSystems.getDefault()) {
+                    return;
+                }
+                final WatchKey key = dir.register(
+                    service, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE
+                );
+                tails.computeIfAbsent(key, (k) -> new ArrayList<>()).add(tail);
+            } catch (IOException | UnsupportedOperationException x) {
+                LOG.log(Level.FINE, "not watching " + tail.file, x);
+            }
+        }
+
+        static synchronized void unwatch(final FileTail tail) {
+            final Iterator<Map.Entry<WatchKey, List<FileTail>>> i = tails.entrySet().iterator();
+            while (i.hasNext()) {
+                final Map.Entry<WatchKey, List<FileTail>> e = i.next();
+                if (e.getValue().remove(tail) && e.getValue().isEmpty()) {
+                    e.getKey().cancel();
+                    i.remove();
+                }
+            }
+        }
+
+        private static void run(final WatchService service) {
+            try {
+                while (true) {
+                    final WatchKey key = service.take();
+                    key.pollEvents();
+                    key.reset();
+                    synchronized (Watcher.class) {
+                        final List<FileTail> watching = tails.get(key);
+                        if (watching != null) {
+                            for (FileTail tail: watching) {
+                                tail.scanner.schedule(0);
+                            }
+                        }
+                    }
+                }
+            } catch (ClosedWatchServiceException | InterruptedException x) {
+                // stopped
+            }
+        }
+    }
+}
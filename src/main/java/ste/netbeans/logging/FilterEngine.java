@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Evaluates a {@link LogFilter} over the entries retained by a
+ * {@link LogStore}, off the Event Dispatch Thread.
+ * <p>
+ * The range of entries is split in chunks of {@link #CHUNK_SIZE} entries
+ * evaluated in parallel on a dedicated fork/join pool; the matching sequence
+ * numbers of each chunk are handed to the receiver as soon as the chunk and
+ * all the chunks before it are done, so results come progressively and in
+ * ascending order. A running evaluation can be cancelled, for example because
+ * the filter changed again.
+ * </p>
+ */
+public final class FilterEngine {
+
+    /**
+     * Number of entries evaluated by each task.
+     */
+    public static final int CHUNK_SIZE = 16384;
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(
+        Math.max(1, Runtime.getRuntime().availableProcessors() - 1)
+    );
+
+    /**
+     * Receives the results of an evaluation.
+     */
+    public interface Receiver {
+        /**
+         * Called once per chunk, in order.
+         *
+         * @param seqs the sequence numbers of the matching entries, ascending
+         * @param done true if this is the last chunk
+         */
+        void matched(long[] seqs, boolean done);
+    }
+
+    /**
+     * A running evaluation.
+     */
+    public static final class Task {
+        private final long[][] results;
+        private final Executor executor;
+        private final Receiver receiver;
+
+        private volatile boolean cancelled = false;
+        private int next = 0;
+
+        private Task(final int chunks, final Executor executor, final Receiver receiver) {
+            this.results = new long[chunks][];
+            this.executor = executor;
+            this.receiver = receiver;
+        }
+
+        /**
+         * Stops the evaluation; chunks not yet delivered are discarded.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        private synchronized void done(final int chunk, final long[] seqs) {
+            results[chunk] = seqs;
+            while (next < results.length && results[next] != null) {
+                final long[] ready = results[next];
+                results[next] = null;
+                final boolean last = (++next == results.length);
+                executor.execute(() -> {
+                    if (!cancelled) {
+                        receiver.matched(ready, last);
+                    }
+                });
+            }
+        }
+    }
+
+    private FilterEngine() {}
+
+    /**
+     * Starts evaluating the given filter over the entries from {@code from}
+     * (included) to {@code to} (excluded).
+     *
+     * @param store the entries - NOT NULL
+     * @param filter the filter - NOT NULL
+     * @param from the first sequence number
+     * @param to the sequence number after the last one
+     * @param executor where the receiver is called, e.g. {@code EventQueue::invokeLater}
+     * @param receiver the receiver of the results - NOT NULL
+     *
+     * @return the running evaluation
+     */
+    public static Task filter(
+        final LogStore store, final LogFilter filter, final long from, final long to,
+        final Executor executor, final Receiver receiver
+    ) {
+        final long count = Math.max(0, to - from);
+        final int chunks = (int) Math.max(1, (count + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        final Task task = new Task(chunks, executor, receiver);
+
+        for (int c = 0; c < chunks; ++c) {
+            final int chunk = c;
+            final long chunkFrom = from + (long) c * CHUNK_SIZE;
+            final long chunkTo = Math.min(to, chunkFrom + CHUNK_SIZE);
+            POOL.execute(() -> {
+                task.done(chunk, task.cancelled ? new long[0] : scan(store, filter, chunkFrom, chunkTo, task));
+            });
+        }
+
+        return task;
+    }
+
+    /**
+     * Evaluates the filter on a single entry; an entry whose message can not
+     * be formatted does not match.
+     *
+     * @param filter the filter - NOT NULL
+     * @param entry the entry - MAY BE NULL
+     *
+     * @return true if the entry is not null and matches the filter
+     */
+    public static boolean matches(final LogFilter filter, final LogEntry entry) {
+        if (entry == null) {
+            return false;
+        }
+        try {
+            return filter.matches(entry);
+        } catch (RuntimeException x) {
+            return false;
+        }
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private static long[] scan(
+        final LogStore store, final LogFilter filter, final long from, final long to,
+        final Task task
+    ) {
+        final LongList matches = new LongList((int) Math.min(to - from, 1024));
+        for (long seq = from; seq < to; ++seq) {
+            if (((seq - from) & 1023) == 0 && task.cancelled) {
+                break;
+            }
+            if (matches(filter, store.get(seq))) {
+                matches.add(seq);
+            }
+        }
+        return matches.toArray();
+    }
+}
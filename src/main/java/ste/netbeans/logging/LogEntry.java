@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * A compact, immutable snapshot of a {@link LogRecord}.
+ * <p>
+ * Taking a snapshot copies references only: no message expansion, date
+ * formatting or stack trace printing happens on the logging thread, and the
+ * logger is referenced by its {@link LoggerRegistry} id. Entries
+ * are formatted lazily by {@link LogEntryFormatter}, and only when they are
+ * actually displayed.
+ * </p>
+ * <p>
+ * The only mutable part is the burst: when the same message is repeated,
+ * later occurrences are folded into the first one (see {@link BurstFolder}),
+ * which counts them and keeps the last {@value #MAX_OCCURRENCES} to show them
+ * on demand. Burst methods are thread safe.
+ * </p>
+ */
+public final class LogEntry {
+
+    /**
+     * Number of folded occurrences kept by a burst
+     */
+    public static final int MAX_OCCURRENCES = 100;
+
+    public final Level level;
+    public final long millis;
+    public final int loggerId;
+    public final long threadId;
+    public final String message;
+    public final Object[] parameters;
+    public final ResourceBundle bundle;
+    public final Throwable thrown;
+
+    /**
+     * The process the entry comes from, null for the IDE itself
+     */
+    public final String source;
+
+    /**
+     * The sequence number the entry got in the {@link LogStore} it has been
+     * appended to, -1 until then
+     */
+    volatile long seq = -1;
+
+    private volatile Burst burst;
+
+    public LogEntry(
+        final Level level, final long millis, final int loggerId,
+        final long threadId, final String message, final Object[] parameters,
+        final ResourceBundle bundle, final Throwable thrown
+    ) {
+        this(level, millis, loggerId, threadId, message, parameters, bundle, thrown, null);
+    }
+
+    public LogEntry(
+        final Level level, final long millis, final int loggerId,
+        final long threadId, final String message, final Object[] parameters,
+        final ResourceBundle bundle, final Throwable thrown, final String source
+    ) {
+        this.level = (level == null) ? Level.INFO : level;
+        this.millis = millis;
+        this.loggerId = loggerId;
+        this.threadId = threadId;
+        this.message = message;
+        this.parameters = parameters;
+        this.bundle = bundle;
+        this.thrown = thrown;
+        this.source = source;
+    }
+
+    /**
+     * @return how many times this entry occurred, 1 if nothing was folded
+     *         into it
+     */
+    public int getCount() {
+        final Burst b = burst;
+        return (b == null) ? 1 : b.count;
+    }
+
+    /**
+     * @return the time of the last occurrence of this entry
+     */
+    public long getLastMillis() {
+        final Burst b = burst;
+        return (b == null) ? millis : b.lastMillis;
+    }
+
+    /**
+     * @return the most recent occurrences folded into this entry, oldest
+     *         first; at most {@value #MAX_OCCURRENCES}
+     */
+    public List<LogEntry> getOccurrences() {
+        final Burst b = burst;
+        if (b == null) {
+            return List.of();
+        }
+        synchronized (b) {
+            final List<LogEntry> ret = new ArrayList<>(b.size);
+            for (int i = 0; i < b.size; ++i) {
+                ret.add(b.occurrences[(b.next - b.size + i + MAX_OCCURRENCES) % MAX_OCCURRENCES]);
+            }
+            return ret;
+        }
+    }
+
+    /**
+     * Folds another occurrence of the same message into this entry.
+     *
+     * @param occurrence the occurrence - NOT NULL
+     */
+    synchronized void fold(final LogEntry occurrence) {
+        if (burst == null) {
+            burst = new Burst(millis);
+        }
+        final Burst b = burst;
+        synchronized (b) {
+            b.occurrences[b.next] = occurrence;
+            b.next = (b.next + 1) % MAX_OCCURRENCES;
+            b.size = Math.min(b.size + 1, MAX_OCCURRENCES);
+            b.lastMillis = Math.max(b.lastMillis, occurrence.millis);
+            ++b.count;
+        }
+    }
+
+    /**
+     * Restores the counters of a burst whose occurrences are gone, for
+     * example because it has been spilled.
+     */
+    synchronized void setRepeats(final int count, final long lastMillis) {
+        if (count > 1) {
+            burst = new Burst(lastMillis);
+            burst.count = count;
+        }
+    }
+
+    /**
+     * @return the name of the logger that produced this entry
+     */
+    public String loggerName() {
+        return LoggerRegistry.getDefault().nameOf(loggerId);
+    }
+
+    /**
+     * Takes a snapshot of the given record.
+     *
+     * @param record the record - NOT NULL
+     *
+     * @return the snapshot
+     */
+    public static LogEntry of(final LogRecord record) {
+        return of(record, LoggerRegistry.getDefault().idOf(record.getLoggerName()));
+    }
+
+    /**
+     * Takes a snapshot of the given record whose logger has already been
+     * interned.
+     *
+     * @param record the record - NOT NULL
+     * @param loggerId the {@link LoggerRegistry} id of the record's logger
+     *
+     * @return the snapshot
+     */
+    public static LogEntry of(final LogRecord record, final int loggerId) {
+        return new LogEntry(
+            record.getLevel(), record.getMillis(), loggerId,
+            record.getLongThreadID(), record.getMessage(), record.getParameters(),
+            record.getResourceBundle(), record.getThrown()
+        );
+    }
+
+    /**
+     * Creates an entry for a message produced by the viewer itself.
+     *
+     * @param level the level of the message
+     * @param message the message text
+     *
+     * @return the new entry
+     */
+    public static LogEntry of(final Level level, final String message) {
+        return new LogEntry(
+            level, System.currentTimeMillis(),
+            LoggerRegistry.getDefault().idOf(LogEntry.class.getPackageName()),
+            Thread.currentThread().getId(), message, null, null, null
+        );
+    }
+
+    // ------------------------------------------------------------------ Burst
+
+    private static final class Burst {
+        volatile int count = 1;
+        volatile long lastMillis;
+        final LogEntry[] occurrences = new LogEntry[MAX_OCCURRENCES];
+        int next = 0, size = 0;
+
+        Burst(final long lastMillis) {
+            this.lastMillis = lastMillis;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Turns {@link LogEntry}s into text.
+ * <p>
+ * A row is a single line made of timestamp, level, thread, logger and the
+ * first line of the message; the full text adds the whole message and the
+ * stack trace of the thrown exception, if any. Messages are localized and
+ * their parameters expanded the same way {@link java.util.logging.Formatter#formatMessage}
+ * does.
+ * </p>
+ * <p>
+ * The count of a folded entry is not part of the row, as it changes while
+ * the burst goes on; see {@link #formatRepeats(LogEntry)}.
+ * </p>
+ * <p>
+ * All methods can be called from any thread. Parsed message templates are
+ * cached, see {@link MessageTemplates}, and so is the formatted date and
+ * time of the latest seconds, so that rows of the same second only append
+ * their milliseconds.
+ * </p>
+ */
+public final class LogEntryFormatter {
+
+    private static final DateTimeFormatter TIMESTAMP =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    /**
+     * The last formatted seconds, indexed by the second modulo the length;
+     * a slot is replaced as a whole, so threads racing on it at most format
+     * the same second twice
+     */
+    private static final Second[] SECONDS = new Second[64];
+
+    /**
+     * Length of a formatted timestamp
+     */
+    private static final int TIMESTAMP_LENGTH = 23;
+
+    //
+    // indexes of the offsets returned by columns()
+    //
+    static final int LEVEL = 0;
+    static final int THREAD = 2;
+    static final int LOGGER = 4;
+    static final int THROWN = 6;
+
+    private LogEntryFormatter() {}
+
+    /**
+     * Formats the given entry as a single line.
+     *
+     * @param entry the entry - NOT NULL
+     *
+     * @return the row text
+     */
+    public static String formatRow(final LogEntry entry) {
+        final StringBuilder sb = header(entry);
+
+        final String msg = formatMessage(entry);
+        final int nl = msg.indexOf('\n');
+        if (nl < 0) {
+            sb.append(msg);
+        } else {
+            sb.append(msg, 0, (nl > 0 && msg.charAt(nl - 1) == '\r') ? nl - 1 : nl).append(" …");
+        }
+        if (entry.thrown != null) {
+            sb.append(" [").append(entry.thrown).append(']');
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Locates the columns of the row of the given entry, as formatted by
+     * {@link #formatRow(LogEntry)}, without formatting it again: the start
+     * and end offsets of the level ({@link #LEVEL}), of the thread and source
+     * between brackets ({@link #THREAD}) and of the logger ({@link #LOGGER}),
+     * then the offset where the exception starts ({@link #THROWN}), the row
+     * length if there is none.
+     *
+     * @param entry the entry - NOT NULL
+     * @param row the row of the entry - NOT NULL
+     *
+     * @return the offsets
+     */
+    static int[] columns(final LogEntry entry, final String row) {
+        final int[] columns = new int[THROWN + 1];
+
+        columns[LEVEL] = TIMESTAMP_LENGTH + 1;
+        columns[LEVEL + 1] = columns[LEVEL] + entry.level.getName().length();
+        columns[THREAD] = columns[LEVEL + 1] + 1;
+        columns[THREAD + 1] = columns[THREAD] + 2 + Long.toString(entry.threadId).length()
+                            + ((entry.source == null) ? 0 : entry.source.length() + 1);
+        columns[LOGGER] = columns[THREAD + 1] + 1;
+        columns[LOGGER + 1] = columns[LOGGER] + entry.loggerName().length();
+        columns[THROWN] = (entry.thrown == null)
+                        ? row.length()
+                        : row.length() - entry.thrown.toString().length() - 3;
+
+        return columns;
+    }
+
+    /**
+     * Formats the given entry with its whole message and stack trace.
+     *
+     * @param entry the entry - NOT NULL
+     *
+     * @return the full text
+     */
+    public static String formatFull(final LogEntry entry) {
+        final StringBuilder sb = header(entry).append(formatMessage(entry));
+        if (entry.thrown != null) {
+            sb.append('\n').append(formatThrown(entry));
+        }
+        if (entry.getCount() > 1) {
+            sb.append('\n').append(formatRepeats(entry).strip());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Formats the full text of the given entry followed by the rows of the
+     * occurrences folded into it, if any.
+     *
+     * @param entry the entry - NOT NULL
+     *
+     * @return the full text and the occurrences
+     */
+    public static String formatBurst(final LogEntry entry) {
+        final List<LogEntry> occurrences = entry.getOccurrences();
+        final StringBuilder sb = new StringBuilder(formatFull(entry));
+        if (!occurrences.isEmpty()) {
+            sb.append("\n\n");
+            if (entry.getCount() - 1 > occurrences.size()) {
+                sb.append("last ").append(occurrences.size()).append(" occurrences:\n");
+            }
+            for (LogEntry occurrence: occurrences) {
+                sb.append(formatRow(occurrence)).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param entry the entry - NOT NULL
+     *
+     * @return how many times a folded entry occurred and when it last did,
+     *         empty if nothing was folded into it
+     */
+    public static String formatRepeats(final LogEntry entry) {
+        final int count = entry.getCount();
+        if (count <= 1) {
+            return "";
+        }
+        final StringBuilder sb = new StringBuilder(" (x").append(count).append(", last ");
+        appendTimestamp(entry.getLastMillis(), sb);
+        return sb.append(')').toString();
+    }
+
+    /**
+     * Localizes the message of the given entry and expands its parameters.
+     *
+     * @param entry the entry - NOT NULL
+     *
+     * @return the message text, empty if the entry has no message
+     */
+    public static String formatMessage(final LogEntry entry) {
+        final String message = MessageTemplates.format(entry.message, entry.bundle, entry.parameters);
+        return (message == null) ? "" : message;
+    }
+
+    /**
+     * @param entry the entry - NOT NULL
+     *
+     * @return the stack trace of the entry's thrown exception, empty if none
+     */
+    public static String formatThrown(final LogEntry entry) {
+        if (entry.thrown == null) {
+            return "";
+        }
+        final StringWriter sw = new StringWriter();
+        try (PrintWriter pw = new PrintWriter(sw)) {
+            entry.thrown.printStackTrace(pw);
+        }
+        return sw.toString();
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private static StringBuilder header(final LogEntry entry) {
+        final StringBuilder sb = new StringBuilder(128);
+
+        appendTimestamp(entry.millis, sb);
+        sb.append(' ').append(entry.level.getName()).append(" [");
+        if (entry.source != null) {
+            sb.append(entry.source).append(':');
+        }
+        sb.append(entry.threadId).append("] ");
+        final String loggerName = entry.loggerName();
+        if (!loggerName.isEmpty()) {
+            sb.append(loggerName).append(" - ");
+        }
+
+        return sb;
+    }
+
+    /**
+     * Appends the timestamp of the given time; the date and time up to the
+     * second are formatted once per second, the milliseconds appended.
+     */
+    private static void appendTimestamp(final long millis, final StringBuilder sb) {
+        final long second = Math.floorDiv(millis, 1000);
+        final int slot = (int) (second & (SECONDS.length - 1));
+
+        Second s = SECONDS[slot];
+        if (s == null || s.second != second) {
+            s = new Second(second, TIMESTAMP.format(Instant.ofEpochSecond(second)));
+            SECONDS[slot] = s;
+        }
+
+        final int ms = Math.floorMod(millis, 1000);
+        sb.append(s.text).append('.')
+          .append((char) ('0' + ms / 100))
+          .append((char) ('0' + ms / 10 % 10))
+          .append((char) ('0' + ms % 10));
+    }
+
+    private static final class Second {
+        final long second;
+        final String text;
+
+        Second(final long second, final String text) {
+            this.second = second;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.EventQueue;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Insets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongPredicate;
+import java.util.logging.Level;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.JList;
+
+/**
+ * Renders {@link LogEntry} rows formatting them on demand.
+ * <p>
+ * Only the rows the list actually paints are formatted; the most recently
+ * painted ones are kept in a small LRU cache so that scrolling back and forth
+ * around the viewport does not format the same entries again. The count of
+ * folded entries is appended when painting, as it changes.
+ * </p>
+ * <p>
+ * Rows are painted as runs of colors: the level column (and the whole
+ * message of warnings and errors) in the color of the level, thread and
+ * logger columns and the exception summary in their own colors. Runs are
+ * computed once, when the row is formatted, and cached with it; painting a
+ * row draws a few runs of its characters and never measures or formats
+ * text. Exceptions stay on the row as their one line summary; the stack
+ * trace is formatted only when the entry is selected, in the detail pane.
+ * </p>
+ */
+public class LogEntryRenderer extends DefaultListCellRenderer {
+
+    /**
+     * Number of formatted rows kept; a few viewports worth of rows.
+     */
+    public static final int CACHE_SIZE = 2048;
+
+    /**
+     * Background of highlighted rows; translucent so that it works with both
+     * light and dark look and feels.
+     */
+    public static final Color HIGHLIGHT = new Color(255, 200, 0, 96);
+
+    //
+    // mid tones, readable with both light and dark look and feels
+    //
+    public static final Color SEVERE = new Color(220, 50, 50);
+    public static final Color WARNING = new Color(210, 130, 0);
+    public static final Color FINE = new Color(128, 128, 128);
+    public static final Color THREAD = new Color(0, 150, 150);
+    public static final Color LOGGER = new Color(90, 110, 210);
+
+    private final Map<LogEntry, Row> cache = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<LogEntry, Row> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * The row being painted, null if it is not an entry
+     */
+    private Row row;
+    private String repeats;
+    private boolean selected;
+
+    /**
+     * A formatted row and its color runs; a null color is the foreground
+     */
+    private static final class Row {
+        final String text;
+        final char[] chars;
+        final int[] ends;
+        final Color[] colors;
+
+        Row(final String text, final int[] ends, final Color[] colors) {
+            this.text = text;
+            this.chars = text.toCharArray();
+            this.ends = ends;
+            this.colors = colors;
+        }
+    }
+
+    private int maxLength = 0;
+    private boolean widerPending = false;
+    private Runnable onWider;
+    private LongPredicate highlighted;
+
+    /**
+     * Sets the action run, later on the Event Dispatch Thread, when a row
+     * longer than all rows formatted before is found; views use it to resize
+     * their rows.
+     *
+     * @param onWider the action - may be null
+     */
+    public void setOnWider(final Runnable onWider) {
+        this.onWider = onWider;
+    }
+
+    /**
+     * Sets which rows are highlighted, for example the hits of a search.
+     * Rows are identified by the sequence number they have in the list's
+     * {@link LogListModel}.
+     *
+     * @param highlighted the rows to highlight - may be null
+     */
+    public void setHighlighted(final LongPredicate highlighted) {
+        this.highlighted = highlighted;
+    }
+
+    @Override
+    public Component getListCellRendererComponent(
+        JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus
+    ) {
+        if (value instanceof LogEntry) {
+            final LogEntry entry = (LogEntry) value;
+            row = row(entry);
+            repeats = LogEntryFormatter.formatRepeats(entry);
+            selected = isSelected;
+            super.getListCellRendererComponent(
+                list, repeats.isEmpty() ? row.text : row.text + repeats, index, isSelected, cellHasFocus
+            );
+        } else {
+            row = null;
+            super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+        }
+        if (!isSelected && highlighted != null
+            && list.getModel() instanceof LogListModel
+            && highlighted.test(((LogListModel) list.getModel()).seqAt(index))) {
+            setBackground(HIGHLIGHT);
+        }
+        return this;
+    }
+
+    /**
+     * Paints the runs of the row, if it is an entry; selected rows are
+     * painted in the selection foreground only.
+     */
+    @Override
+    protected void paintComponent(final Graphics g) {
+        final Row r = row;
+        if (r == null) {
+            super.paintComponent(g);
+            return;
+        }
+
+        if (isOpaque()) {
+            g.setColor(getBackground());
+            g.fillRect(0, 0, getWidth(), getHeight());
+        }
+        g.setFont(getFont());
+        final FontMetrics fm = g.getFontMetrics();
+        final Insets insets = getInsets();
+        final int y = insets.top + fm.getAscent();
+        int x = insets.left;
+        int start = 0;
+        for (int i = 0; i < r.ends.length; ++i) {
+            final int length = r.ends[i] - start;
+            if (length > 0) {
+                g.setColor((selected || r.colors[i] == null) ? getForeground() : r.colors[i]);
+                g.drawChars(r.chars, start, length, x, y);
+                x += fm.charsWidth(r.chars, start, length);
+            }
+            start = r.ends[i];
+        }
+        if (!repeats.isEmpty()) {
+            g.setColor(getForeground());
+            g.drawString(repeats, x, y);
+        }
+    }
+
+    /**
+     * Returns the row text of the given entry, formatting it only if it is not
+     * in the cache.
+     *
+     * @param entry the entry - NOT NULL
+     *
+     * @return the row text
+     */
+    public String text(final LogEntry entry) {
+        return row(entry).text;
+    }
+
+    /**
+     * @return the row of the given entry, formatting it and computing its
+     *         runs only if it is not in the cache
+     */
+    private Row row(final LogEntry entry) {
+        Row r = cache.get(entry);
+        if (r == null) {
+            r = style(entry, LogEntryFormatter.formatRow(entry));
+            cache.put(entry, r);
+            if (r.text.length() > maxLength) {
+                maxLength = r.text.length();
+                if (onWider != null && !widerPending) {
+                    widerPending = true;
+                    EventQueue.invokeLater(() -> {
+                        widerPending = false;
+                        onWider.run();
+                    });
+                }
+            }
+        }
+        return r;
+    }
+
+    /**
+     * @return the length of the longest row formatted so far; views use it to
+     *         size their rows without measuring every entry
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * @param level a level - NOT NULL
+     *
+     * @return the color of the given level, null for the foreground
+     */
+    public static Color colorOf(final Level level) {
+        final int value = level.intValue();
+        if (value >= Level.SEVERE.intValue()) {
+            return SEVERE;
+        } else if (value >= Level.WARNING.intValue()) {
+            return WARNING;
+        } else if (value < Level.CONFIG.intValue()) {
+            return FINE;
+        }
+        return null;
+    }
+
+    /**
+     * Splits a row in runs: timestamp, level, thread, logger, message and
+     * exception summary.
+     */
+    private static Row style(final LogEntry entry, final String text) {
+        final int[] columns = LogEntryFormatter.columns(entry, text);
+        final Color level = colorOf(entry.level);
+        final Color message = (entry.level.intValue() >= Level.WARNING.intValue()) ? level : null;
+
+        final int[] ends = {
+            columns[LogEntryFormatter.LEVEL],
+            columns[LogEntryFormatter.LEVEL + 1],
+            columns[LogEntryFormatter.THREAD],
+            columns[LogEntryFormatter.THREAD + 1],
+            columns[LogEntryFormatter.LOGGER],
+            columns[LogEntryFormatter.LOGGER + 1],
+            columns[LogEntryFormatter.THROWN],
+            text.length()
+        };
+        for (int i = 0, end = 0; i < ends.length; ++i) {
+            ends[i] = end = Math.min(Math.max(ends[i], end), text.length());
+        }
+
+        return new Row(text, ends, new Color[] {null, level, null, THREAD, null, LOGGER, message, SEVERE});
+    }
+
+    /**
+     * Forgets all formatted rows.
+     */
+    public void clear() {
+        cache.clear();
+        maxLength = 0;
+    }
+}
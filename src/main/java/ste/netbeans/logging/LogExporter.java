@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes log entries to a file.
+ * <p>
+ * Entries are read from the store one at a time, formatted into a reused
+ * buffer and encoded straight into a fixed size byte buffer that is written
+ * to a file channel when full: memory does not depend on how many entries are
+ * exported. It runs on the calling thread, which should not be the Event
+ * Dispatch Thread.
+ * </p>
+ */
+public final class LogExporter {
+
+    /**
+     * Number of entries between two progress notifications.
+     */
+    public static final int PROGRESS_STEP = 4096;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public enum Format {
+        /**
+         * The full text of each entry, as shown in the detail pane
+         */
+        TEXT(".log"),
+        /**
+         * Same as {@link #TEXT}, gzip compressed
+         */
+        GZIP(".log.gz"),
+        /**
+         * One JSON object per line
+         */
+        JSON_LINES(".jsonl");
+
+        public final String extension;
+
+        Format(final String extension) {
+            this.extension = extension;
+        }
+
+        /**
+         * @param file a file name
+         *
+         * @return the format matching the extension of the given file, plain
+         *         text if none does
+         */
+        public static Format of(final String file) {
+            for (Format f: new Format[] { GZIP, JSON_LINES }) {
+                if (file.endsWith(f.extension)) {
+                    return f;
+                }
+            }
+            return TEXT;
+        }
+    }
+
+    private LogExporter() {}
+
+    /**
+     * Exports the entries matching a filter in a range of sequence numbers.
+     * Entries no longer available when they are reached are skipped. If the
+     * export is cancelled or fails, the file is deleted.
+     *
+     * @param store the store to read - NOT NULL
+     * @param filter the entries to export - NOT NULL
+     * @param from the first sequence number
+     * @param to the sequence number after the last one
+     * @param file the file to write; it is replaced if it exists - NOT NULL
+     * @param format the file format - NOT NULL
+     * @param cancelled tells if the export must stop - NOT NULL
+     * @param progress receives the number of entries read so far, every
+     *        {@link #PROGRESS_STEP} entries - NOT NULL
+     *
+     * @return the number of entries written
+     *
+     * @throws IOException if the file can not be written
+     */
+    public static long export(
+        final LogStore store, final LogFilter filter, final long from, final long to,
+        final Path file, final Format format,
+        final BooleanSupplier cancelled, final LongConsumer progress
+    ) throws IOException {
+        long written = 0;
+        boolean complete = false;
+        try (
+            FileChannel channel = FileChannel.open(
+                file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE
+            );
+            Sink sink = new Sink(
+                (format == Format.GZIP)
+                ? Channels.newChannel(new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE))
+                : channel
+            )
+        ) {
+            final StringBuilder sb = new StringBuilder(1024);
+            for (long seq = from; seq < to; ++seq) {
+                if ((seq - from) % PROGRESS_STEP == 0) {
+                    if (cancelled.getAsBoolean()) {
+                        return written;
+                    }
+                    progress.accept(seq - from);
+                }
+
+                final LogEntry entry = store.get(seq);
+                if (entry == null || !FilterEngine.matches(filter, entry)) {
+                    continue;
+                }
+
+                sb.setLength(0);
+                if (format == Format.JSON_LINES) {
+                    json(entry, sb);
+                } else {
+                    sb.append(LogEntryFormatter.formatFull(entry));
+                }
+                sink.write(sb.append('\n'));
+                ++written;
+            }
+            progress.accept(to - from);
+            complete = true;
+        } finally {
+            if (!complete) {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        return written;
+    }
+
+    /**
+     * Appends the given entry as a JSON object.
+     *
+     * @param entry the entry - NOT NULL
+     * @param sb where to append the object - NOT NULL
+     *
+     * @return the given string builder
+     */
+    public static StringBuilder json(final LogEntry entry, final StringBuilder sb) {
+        sb.append("{\"time\":\"");
+        DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(entry.millis), sb);
+        sb.append("\",\"level\":");
+        string(entry.level.getName(), sb);
+        sb.append(",\"logger\":");
+        string(entry.loggerName(), sb);
+        sb.append(",\"thread\":").append(entry.threadId);
+        if (entry.source != null) {
+            sb.append(",\"source\":");
+            string(entry.source, sb);
+        }
+        sb.append(",\"message\":");
+        string(LogEntryFormatter.formatMessage(entry), sb);
+        if (entry.thrown != null) {
+            sb.append(",\"thrown\":");
+            string(LogEntryFormatter.formatThrown(entry), sb);
+        }
+        if (entry.getCount() > 1) {
+            sb.append(",\"count\":").append(entry.getCount()).append(",\"last\":\"");
+            DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(entry.getLastMillis()), sb);
+            sb.append('"');
+        }
+        return sb.append('}');
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private static void string(final String s, final StringBuilder sb) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); ++i) {
+            final char c = s.charAt(i);
+            switch (c) {
+                case '"':  sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * Encodes text in UTF-8 into a fixed buffer, writing it to the channel
+     * every time it is full.
+     */
+    private static final class Sink implements AutoCloseable {
+        private final WritableByteChannel channel;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        Sink(final WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        void write(final CharSequence text) throws IOException {
+            final CharBuffer chars = CharBuffer.wrap(text);
+            while (true) {
+                final CoderResult result = encoder.encode(chars, buffer, false);
+                if (result.isOverflow()) {
+                    drain();
+                } else if (result.isUnderflow()) {
+                    return;
+                } else {
+                    result.throwException();
+                }
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            encoder.encode(CharBuffer.allocate(0), buffer, true);
+            encoder.flush(buffer);
+            drain();
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.awt.EventQueue;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+import javax.swing.AbstractListModel;
+
+/**
+ * A list model showing the lines of a {@link FileTail followed} file.
+ * <p>
+ * The model size follows the lines found by the tail, updated on the Event
+ * Dispatch Thread; lines are read from the file only when a row asks for
+ * them.
+ * </p>
+ */
+public class LogFileModel extends AbstractListModel<String> implements FileTail.Listener {
+
+    private final FileTail tail;
+    private final Executor edt;
+    private int size = 0;
+
+    public LogFileModel(final Path file) {
+        this(file, EventQueue::invokeLater);
+    }
+
+    /**
+     * @param file the file to show - NOT NULL
+     * @param edt how to run model changes on the thread that uses the model
+     */
+    public LogFileModel(final Path file, final Executor edt) {
+        this.tail = new FileTail(file, this);
+        this.edt = edt;
+    }
+
+    public Path getFile() {
+        return tail.getFile();
+    }
+
+    /**
+     * Starts reading and following the file.
+     */
+    public void start() {
+        tail.start();
+    }
+
+    /**
+     * Stops following the file.
+     */
+    public void dispose() {
+        tail.close();
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public String getElementAt(final int index) {
+        final String line = tail.line(index);
+        return (line == null) ? "" : line;
+    }
+
+    // ------------------------------------------------------ FileTail.Listener
+
+    @Override
+    public void linesAdded(final int from, final int to) {
+        edt.execute(() -> {
+            if (to > size) {
+                final int oldSize = size;
+                size = to;
+                fireIntervalAdded(this, oldSize, to - 1);
+            }
+        });
+    }
+
+    @Override
+    public void reset() {
+        edt.execute(() -> {
+            final int oldSize = size;
+            size = 0;
+            if (oldSize > 0) {
+                fireIntervalRemoved(this, 0, oldSize - 1);
+            }
+        });
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.EventQueue;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.nio.file.Path;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+/**
+ * Shows an external log file, following what is appended to it.
+ * <p>
+ * Like the live log, lines are shown in a list with fixed cell sizes, so only
+ * the rows in the viewport are read and painted. The view keeps showing the
+ * last line as long as the user has not scrolled away from the end.
+ * </p>
+ */
+public class LogFilePanel extends JPanel {
+
+    public final LogFileModel model;
+
+    public final JList<String> lineList;
+
+    private int charWidth;
+    private int maxLength = 0;
+    private boolean widerPending = false;
+
+    /**
+     * Creates the panel and starts following the given file.
+     *
+     * @param file the file to show - NOT NULL
+     */
+    public LogFilePanel(final Path file) {
+        model = new LogFileModel(file);
+        lineList = new JList<>(model);
+        initComponents();
+        model.start();
+    }
+
+    public Path getFile() {
+        return model.getFile();
+    }
+
+    /**
+     * Stops following the file.
+     */
+    public void close() {
+        model.dispose();
+    }
+
+    private void initComponents() {
+        setLayout(new BorderLayout());
+
+        lineList.setName("lineList"); // NOI18N
+        lineList.setFont(new Font(Font.MONOSPACED, Font.PLAIN, lineList.getFont().getSize()));
+        final FontMetrics fm = lineList.getFontMetrics(lineList.getFont());
+        charWidth = fm.charWidth('m');
+        lineList.setFixedCellHeight(fm.getHeight());
+        lineList.setFixedCellWidth(charWidth);
+        lineList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(
+                JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus
+            ) {
+                final int length = String.valueOf(value).length();
+                if (length > maxLength) {
+                    maxLength = length;
+                    updateCellWidth();
+                }
+                return super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+            }
+        });
+
+        model.addListDataListener(new ListDataListener() {
+            @Override
+            public void intervalAdded(ListDataEvent e) {
+                //
+                // follow the end only if it was visible
+                //
+                if (lineList.getLastVisibleIndex() >= e.getIndex0() - 1) {
+                    lineList.ensureIndexIsVisible(e.getIndex1());
+                }
+            }
+
+            @Override
+            public void intervalRemoved(ListDataEvent e) {
+            }
+
+            @Override
+            public void contentsChanged(ListDataEvent e) {
+            }
+        });
+
+        add(new JScrollPane(lineList), BorderLayout.CENTER);
+    }
+
+    /**
+     * Makes rows wide enough for the longest line painted so far; it is done
+     * later as it can not be done while painting.
+     */
+    private void updateCellWidth() {
+        if (!widerPending) {
+            widerPending = true;
+            EventQueue.invokeLater(() -> {
+                widerPending = false;
+                lineList.setFixedCellWidth((maxLength + 1) * charWidth);
+            });
+        }
+    }
+}
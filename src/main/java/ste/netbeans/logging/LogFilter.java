@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.regex.Pattern;
+
+/**
+ * An immutable view filter over retained log entries: an entry matches if
+ * its logger name starts with the logger prefix, its level is at least the
+ * minimum level, it was logged by the given thread and its message contains
+ * a match of the given regular expression. Criteria left unset match
+ * everything.
+ * <p>
+ * Filters are evaluated concurrently by {@link FilterEngine}, so they must
+ * not hold mutable state.
+ * </p>
+ */
+public final class LogFilter {
+
+    /**
+     * Thread id meaning "any thread".
+     */
+    public static final long ANY_THREAD = -1;
+
+    /**
+     * The filter matching all entries.
+     */
+    public static final LogFilter ALL = new LogFilter(null, null, ANY_THREAD, null);
+
+    public final String loggerPrefix;
+    public final Level minLevel;
+    public final long threadId;
+    public final Pattern messagePattern;
+
+    private final int minLevelValue;
+
+    /**
+     * @param loggerPrefix the logger name prefix, null or empty for any logger
+     * @param minLevel the minimum level, null for any level
+     * @param threadId the thread id, {@link #ANY_THREAD} for any thread
+     * @param messagePattern the pattern the message must contain, null for any message
+     */
+    public LogFilter(
+        final String loggerPrefix, final Level minLevel, final long threadId,
+        final Pattern messagePattern
+    ) {
+        this.loggerPrefix = (loggerPrefix == null || loggerPrefix.isEmpty()) ? null : loggerPrefix;
+        this.minLevel = minLevel;
+        this.threadId = threadId;
+        this.messagePattern = messagePattern;
+        this.minLevelValue = (minLevel == null) ? Integer.MIN_VALUE : minLevel.intValue();
+    }
+
+    /**
+     * @return true if this filter matches all entries
+     */
+    public boolean isAll() {
+        return loggerPrefix == null && minLevel == null
+            && threadId == ANY_THREAD && messagePattern == null;
+    }
+
+    /**
+     * @param entry the entry - NOT NULL
+     *
+     * @return true if the entry satisfies all the criteria
+     */
+    public boolean matches(final LogEntry entry) {
+        //
+        // cheapest criteria first, the message is formatted only if needed
+        //
+        if (entry.level.intValue() < minLevelValue) {
+            return false;
+        }
+        if (threadId != ANY_THREAD && entry.threadId != threadId) {
+            return false;
+        }
+        if (loggerPrefix != null && !entry.loggerName().startsWith(loggerPrefix)) {
+            return false;
+        }
+        return (messagePattern == null)
+            || messagePattern.matcher(LogEntryFormatter.formatMessage(entry)).find();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (!(o instanceof LogFilter)) {
+            return false;
+        }
+        final LogFilter f = (LogFilter) o;
+        return Objects.equals(loggerPrefix, f.loggerPrefix)
+            && Objects.equals(minLevel, f.minLevel)
+            && threadId == f.threadId
+            && Objects.equals(
+                (messagePattern == null) ? null : messagePattern.pattern(),
+                (f.messagePattern == null) ? null : f.messagePattern.pattern()
+            );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+            loggerPrefix, minLevel, threadId,
+            (messagePattern == null) ? null : messagePattern.pattern()
+        );
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.awt.EventQueue;
+import java.util.concurrent.Executor;
+import javax.swing.AbstractListModel;
+
+/**
+ * A {@link javax.swing.ListModel} showing the entries of a {@link LogStore}
+ * that match a {@link LogFilter}.
+ * <p>
+ * With the {@link LogFilter#ALL} filter rows map one to one to the retained
+ * entries and the model keeps no state of its own. With any other filter the
+ * model keeps the sequence numbers of the matching entries: changing the
+ * filter re-evaluates the retained history with {@link FilterEngine}, off the
+ * Event Dispatch Thread, and rows appear progressively as chunks complete;
+ * entries appended afterwards are tested incrementally as they arrive.
+ * Either way eviction from the store is constant time.
+ * </p>
+ * <p>
+ * Entries are kept unformatted, see {@link LogEntryRenderer}. Like any Swing
+ * model, it must be used on the Event Dispatch Thread.
+ * </p>
+ * <p>
+ * Many models can show the same store, each with its own filter, keeping
+ * only the sequence numbers of their rows. A model not shown can be
+ * {@link #suspend() suspended}: it stops following the store, so that
+ * appending is not slowed down by it, and catches up with what was appended
+ * and evicted in the meantime when {@link #resume() resumed}.
+ * </p>
+ */
+public class LogListModel extends AbstractListModel<LogEntry> implements LogStore.Listener {
+
+    private final LogStore store;
+    private final Executor edt;
+
+    private LogFilter filter = LogFilter.ALL;
+    private final LongList rows = new LongList(1024);
+
+    private FilterEngine.Task refilter = null;
+    private final LongList pending = new LongList();
+
+    /**
+     * While suspended, the range of the store when it was suspended
+     */
+    private boolean suspended = false;
+    private long suspendedFirst, suspendedEnd;
+
+    public LogListModel() {
+        this(LogStore.getDefault());
+    }
+
+    /**
+     * @param store the entries to show - NOT NULL
+     */
+    public LogListModel(final LogStore store) {
+        this(store, EventQueue::invokeLater);
+    }
+
+    /**
+     * @param store the entries to show - NOT NULL
+     * @param edt how to run results of background filtering on the thread
+     *        that uses this model
+     */
+    public LogListModel(final LogStore store, final Executor edt) {
+        this.store = store;
+        this.edt = edt;
+        store.addListener(this);
+    }
+
+    public LogStore getStore() {
+        return store;
+    }
+
+    @Override
+    public int getSize() {
+        return filter.isAll() ? (int) (end() - first()) : rows.size();
+    }
+
+    @Override
+    public LogEntry getElementAt(final int index) {
+        return store.get(seqAt(index));
+    }
+
+    /**
+     * @param index a row index
+     *
+     * @return the sequence number of the entry shown at the given row
+     */
+    public long seqAt(final int index) {
+        if (index < 0 || index >= getSize()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return filter.isAll() ? first() + index : rows.get(index);
+    }
+
+    /**
+     * @param seq a sequence number
+     *
+     * @return the row showing the entry with the given sequence number or, if
+     *         the entry is not shown, {@code (-(insertion row) - 1)}
+     */
+    public int indexOf(final long seq) {
+        if (filter.isAll()) {
+            final long first = first(), end = end();
+            if (seq < first) {
+                return -1;
+            }
+            return (seq < end) ? (int) (seq - first) : (int) (first - end) - 1;
+        }
+        return rows.binarySearch(seq);
+    }
+
+    public LogFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Changes the filter. The current rows are removed right away; the rows
+     * matching the new filter are added as the re-evaluation of the retained
+     * entries progresses.
+     *
+     * @param filter the new filter - NOT NULL
+     */
+    public void setFilter(final LogFilter filter) {
+        if (filter.equals(this.filter)) {
+            return;
+        }
+
+        cancelRefilter();
+
+        final int oldSize = getSize();
+        rows.clear();
+        pending.clear();
+        this.filter = filter;
+        if (oldSize > 0) {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+
+        if (filter.isAll()) {
+            if (store.size() > 0) {
+                fireIntervalAdded(this, 0, store.size() - 1);
+            }
+            return;
+        }
+
+        final FilterEngine.Task[] task = new FilterEngine.Task[1];
+        task[0] = refilter = FilterEngine.filter(
+            store, filter, store.first(), store.end(), edt,
+            (seqs, done) -> refiltered(task[0], seqs, done)
+        );
+    }
+
+    /**
+     * @return true while the retained entries are being re-evaluated after a
+     *         filter change
+     */
+    public boolean isFiltering() {
+        return refilter != null;
+    }
+
+    /**
+     * Stops following the store; the rows stay as they are until the model
+     * is resumed, entries evicted in the meantime are shown as missing.
+     */
+    public void suspend() {
+        if (suspended) {
+            return;
+        }
+        store.removeListener(this);
+        suspendedFirst = store.first();
+        suspendedEnd = store.end();
+        suspended = true;
+    }
+
+    /**
+     * Follows the store again, removing the rows of the entries evicted and
+     * adding the matching entries appended while suspended.
+     */
+    public void resume() {
+        if (!suspended) {
+            return;
+        }
+        final long oldFirst = suspendedFirst, oldEnd = suspendedEnd;
+        final long first = store.first(), end = store.end();
+        suspended = false;
+        store.addListener(this);
+
+        if (filter.isAll()) {
+            final long kept = Math.min(first, oldEnd);
+            if (kept > oldFirst) {
+                fireIntervalRemoved(this, 0, (int) (kept - oldFirst) - 1);
+            }
+            final int from = (int) (oldEnd - kept);
+            final int added = (int) (end - Math.max(first, oldEnd));
+            if (added > 0) {
+                fireIntervalAdded(this, from, from + added - 1);
+            }
+            return;
+        }
+
+        evicted(oldFirst, first);
+        appended(Math.max(first, oldEnd), end);
+    }
+
+    public boolean isSuspended() {
+        return suspended;
+    }
+
+    /**
+     * Stops listening to the store.
+     */
+    public void dispose() {
+        cancelRefilter();
+        store.removeListener(this);
+    }
+
+    // ------------------------------------------------------ LogStore.Listener
+
+    @Override
+    public void evicted(final long first, final long end) {
+        if (filter.isAll()) {
+            final int removed = (int) (end - first);
+            if (removed > 0) {
+                fireIntervalRemoved(this, 0, removed - 1);
+            }
+            return;
+        }
+
+        pending.removeFirst(pending.countLowerThan(end));
+        final int removed = rows.countLowerThan(end);
+        if (removed > 0) {
+            rows.removeFirst(removed);
+            fireIntervalRemoved(this, 0, removed - 1);
+        }
+    }
+
+    @Override
+    public void appended(final long first, final long end) {
+        if (filter.isAll()) {
+            final int size = store.size();
+            fireIntervalAdded(this, size - (int) (end - first), size - 1);
+            return;
+        }
+
+        final LongList target = (refilter != null) ? pending : rows;
+        final int oldSize = rows.size();
+        for (long seq = first; seq < end; ++seq) {
+            if (FilterEngine.matches(filter, store.get(seq))) {
+                target.add(seq);
+            }
+        }
+        if (rows.size() > oldSize) {
+            fireIntervalAdded(this, oldSize, rows.size() - 1);
+        }
+    }
+
+    @Override
+    public void cleared(final long first, final long end) {
+        final int removed = filter.isAll() ? (int) (end - first) : rows.size();
+        rows.clear();
+        pending.clear();
+        if (removed > 0) {
+            fireIntervalRemoved(this, 0, removed - 1);
+        }
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private void refiltered(final FilterEngine.Task task, final long[] seqs, final boolean done) {
+        if (task != refilter) {
+            return;
+        }
+
+        final long first = store.first();
+        int from = 0;
+        while (from < seqs.length && seqs[from] < first) {
+            ++from;
+        }
+        final int oldSize = rows.size();
+        rows.addAll(seqs, from, seqs.length);
+
+        if (done) {
+            refilter = null;
+            pending.removeFirst(pending.countLowerThan(first));
+            rows.addAll(pending);
+            pending.clear();
+        }
+
+        if (rows.size() > oldSize) {
+            fireIntervalAdded(this, oldSize, rows.size() - 1);
+        }
+    }
+
+    private long first() {
+        return suspended ? suspendedFirst : store.first();
+    }
+
+    private long end() {
+        return suspended ? suspendedEnd : store.end();
+    }
+
+    private void cancelRefilter() {
+        if (refilter != null) {
+            refilter.cancel();
+            refilter = null;
+        }
+    }
+}
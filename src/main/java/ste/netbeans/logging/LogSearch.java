@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.awt.EventQueue;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.function.LongPredicate;
+import org.openide.util.RequestProcessor;
+
+/**
+ * The hits of a text search over a {@link LogStore}.
+ * <p>
+ * Setting a query looks up the retained entries through the store's
+ * {@link SearchIndex} in the background; entries appended afterwards are
+ * checked as they arrive and hits follow the store evictions, so the hit
+ * list is always current. Hits are kept as ascending sequence numbers: no
+ * text is materialized beyond the entries being checked.
+ * </p>
+ * <p>
+ * A search not shown can be {@link #suspend() suspended}, so that appended
+ * entries are not checked for it; when resumed, the entries appended in the
+ * meantime are looked up in the background like a new query.
+ * </p>
+ * <p>
+ * Apart from the background lookup, it must be used on the Event Dispatch
+ * Thread.
+ * </p>
+ */
+public class LogSearch implements LogStore.Listener {
+
+    private static final RequestProcessor RP = new RequestProcessor(LogSearch.class);
+
+    private final SearchIndex index;
+    private final LogStore store;
+    private final Executor edt;
+
+    private String query = "";
+    private LongList hits = new LongList();
+    private final LongList pending = new LongList();
+    private volatile int generation = 0;
+    private boolean searching = false;
+    private boolean suspended = false;
+    private long suspendedEnd;
+    private Runnable onChange;
+
+    public LogSearch(final SearchIndex index) {
+        this(index, EventQueue::invokeLater);
+    }
+
+    /**
+     * @param index the index of the store to search - NOT NULL
+     * @param edt how to run results of the background lookup on the thread
+     *        that uses this object
+     */
+    public LogSearch(final SearchIndex index, final Executor edt) {
+        this.index = index;
+        this.store = index.getStore();
+        this.edt = edt;
+        store.addListener(this);
+    }
+
+    /**
+     * @param onChange called every time hits are added or removed - MAY BE NULL
+     */
+    public void setOnChange(final Runnable onChange) {
+        this.onChange = onChange;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Starts a new search; an empty text clears the hits.
+     *
+     * @param text the text to find, ignoring case - NOT NULL
+     */
+    public void setQuery(final String text) {
+        final String newQuery = text.toLowerCase(Locale.ROOT);
+        if (newQuery.equals(query)) {
+            return;
+        }
+
+        final int gen = ++generation;
+        query = newQuery;
+        hits = new LongList();
+        pending.clear();
+        searching = !newQuery.isEmpty();
+
+        if (searching) {
+            lookup(gen, store.first(), store.end());
+        }
+        changed();
+    }
+
+    /**
+     * Stops checking appended entries; hits stay as they are until resumed.
+     */
+    public void suspend() {
+        if (suspended) {
+            return;
+        }
+        store.removeListener(this);
+        suspendedEnd = store.end();
+        suspended = true;
+    }
+
+    /**
+     * Removes the hits evicted while suspended and looks up the entries
+     * appended in the meantime; a lookup interrupted by suspending is
+     * started again.
+     */
+    public void resume() {
+        if (!suspended) {
+            return;
+        }
+        suspended = false;
+        store.addListener(this);
+        evicted(store.first(), store.first());
+
+        final long first = store.first(), end = store.end();
+        if (query.isEmpty() || (!searching && Math.max(first, suspendedEnd) >= end)) {
+            return;
+        }
+        final long from;
+        if (searching) {
+            hits = new LongList();
+            from = first;
+        } else {
+            from = Math.max(first, suspendedEnd);
+        }
+        pending.clear();
+        searching = true;
+        lookup(++generation, from, end);
+        changed();
+    }
+
+    public boolean isSuspended() {
+        return suspended;
+    }
+
+    /**
+     * @return true while the retained entries are being searched
+     */
+    public boolean isSearching() {
+        return searching;
+    }
+
+    /**
+     * @return the number of hits
+     */
+    public int getHitCount() {
+        return hits.size();
+    }
+
+    /**
+     * @param seq a sequence number
+     *
+     * @return true if the entry with the given sequence number is a hit
+     */
+    public boolean isHit(final long seq) {
+        return !hits.isEmpty() && hits.binarySearch(seq) >= 0;
+    }
+
+    /**
+     * @param seq the sequence number of a hit
+     *
+     * @return the position of the hit, starting from 1, or 0 if the entry is
+     *         not a hit
+     */
+    public int positionOf(final long seq) {
+        final int i = hits.binarySearch(seq);
+        return (i < 0) ? 0 : i + 1;
+    }
+
+    /**
+     * Finds the next (or previous) hit after (or before) the given entry,
+     * wrapping around at the end (or beginning).
+     *
+     * @param seq the sequence number to start from, excluded; -1 to start
+     *        from the beginning (or the end)
+     * @param forward true to move forward, false to move backward
+     * @param visible which hits can be returned, for example the ones not
+     *        hidden by a view filter
+     *
+     * @return the sequence number of the hit, -1 if there is none
+     */
+    public long next(final long seq, final boolean forward, final LongPredicate visible) {
+        final int n = hits.size();
+        if (n == 0) {
+            return -1;
+        }
+
+        int start;
+        if (seq < 0) {
+            start = forward ? 0 : n - 1;
+        } else {
+            start = hits.countLowerThan(forward ? seq + 1 : seq);
+            start = forward ? start : start - 1;
+        }
+        for (int i = 0; i < n; ++i) {
+            final int pos = Math.floorMod(start + (forward ? i : -i), n);
+            final long hit = hits.get(pos);
+            if (visible.test(hit)) {
+                return hit;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Stops listening to the store.
+     */
+    public void dispose() {
+        ++generation;
+        store.removeListener(this);
+    }
+
+    // ------------------------------------------------------ LogStore.Listener
+
+    @Override
+    public void evicted(final long first, final long end) {
+        pending.removeFirst(pending.countLowerThan(end));
+        final int removed = hits.countLowerThan(end);
+        if (removed > 0) {
+            hits.removeFirst(removed);
+            changed();
+        }
+    }
+
+    @Override
+    public void appended(final long first, final long end) {
+        if (query.isEmpty()) {
+            return;
+        }
+        final LongList target = searching ? pending : hits;
+        final int oldSize = target.size();
+        for (long seq = first; seq < end; ++seq) {
+            if (SearchIndex.contains(store.get(seq), query)) {
+                target.add(seq);
+            }
+        }
+        if (!searching && hits.size() > oldSize) {
+            changed();
+        }
+    }
+
+    @Override
+    public void cleared(final long first, final long end) {
+        hits.clear();
+        pending.clear();
+        changed();
+    }
+
+    // --------------------------------------------------------- private methods
+
+    /**
+     * Looks up the given range in the background; the hits found follow the
+     * current ones, see {@link #found(int, LongList)}.
+     */
+    private void lookup(final int gen, final long from, final long to) {
+        final String q = query;
+        RP.post(() -> {
+            final LongList found = index.find(q, from, to, () -> gen != generation);
+            edt.execute(() -> found(gen, found));
+        });
+    }
+
+    private void found(final int gen, final LongList found) {
+        if (gen != generation) {
+            return;
+        }
+        found.removeFirst(found.countLowerThan(store.first()));
+        hits.addAll(found);
+        hits.addAll(pending);
+        pending.clear();
+        searching = false;
+        changed();
+    }
+
+    private void changed() {
+        if (onChange != null) {
+            onChange.run();
+        }
+    }
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The retained log entries, kept in a fixed-capacity ring.
+ * <p>
+ * Every appended entry gets a sequence number, starting from 0 and never
+ * reused; the store retains the entries from {@link #first()} (included) to
+ * {@link #end()} (excluded). Appending is constant time and, once the ring is
+ * full, every new entry evicts the oldest one, so memory is bounded by the
+ * capacity and not by how long the session has been running.
+ * </p>
+ * <p>
+ * Entries are appended on a single thread (the Event Dispatch Thread), which
+ * is also where listeners are notified. Reading with {@link #get(long)} is
+ * safe from any thread: an entry evicted while being read is reported as
+ * missing, never as a different entry.
+ * </p>
+ * <p>
+ * When a {@link SpillStore} is set as history, evicted entries are spilled to
+ * it instead of being dropped: they remain available, from the oldest entry
+ * the history keeps, and listeners are notified of an eviction only when the
+ * history deletes them.
+ * </p>
+ */
+public class LogStore {
+
+    /**
+     * Default maximum number of retained entries; can be set with the system
+     * property {@code ste.netbeans.logging.view.capacity}.
+     */
+    public static final int DEFAULT_CAPACITY =
+        Integer.getInteger("ste.netbeans.logging.view.capacity", 1_000_000);
+
+    /**
+     * Receives the changes of a store, on the thread appending to it.
+     */
+    public interface Listener {
+        /**
+         * Entries from {@code first} (included) to {@code end} (excluded)
+         * have been evicted; {@code end} is now the first retained entry.
+         */
+        void evicted(long first, long end);
+
+        /**
+         * Entries from {@code first} (included) to {@code end} (excluded)
+         * have been appended.
+         */
+        void appended(long first, long end);
+
+        /**
+         * All entries, from {@code first} (included) to {@code end}
+         * (excluded), have been removed.
+         */
+        void cleared(long first, long end);
+    }
+
+    private static final LogStore DEFAULT = new LogStore(DEFAULT_CAPACITY);
+
+    private final int capacity;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicReferenceArray<LogEntry> slots;
+
+    private volatile SpillStore history;
+    private TimeCounts timeCounts;
+
+    private volatile long oldest = 0;
+    private volatile long first = 0;
+    private volatile long end = 0;
+
+    /**
+     * @param capacity the maximum number of entries retained - must be {@literal > 0}
+     */
+    public LogStore(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be greater than 0");
+        }
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * @return the store shared by all views of the IDE log
+     */
+    public static LogStore getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return the maximum number of entries retained
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Sets where evicted entries are spilled; it should be set before entries
+     * are appended, or on the thread appending them. If nothing has been
+     * appended yet, the store continues the entries the history restored from
+     * the previous session, if any.
+     *
+     * @param history the history - may be null to just drop evicted entries
+     */
+    public void setHistory(final SpillStore history) {
+        this.history = history;
+        if (history == null) {
+            evictTo(first);
+        } else if (end == 0 && !history.isEmpty()) {
+            oldest = history.first();
+            first = end = history.end();
+        }
+    }
+
+    public SpillStore getHistory() {
+        return history;
+    }
+
+    /**
+     * @return the entries counted over time, shared by all timelines of this
+     *         store; counting starts with the first call, which must be on
+     *         the thread appending entries
+     */
+    TimeCounts timeCounts() {
+        if (timeCounts == null) {
+            timeCounts = new TimeCounts(this);
+        }
+        return timeCounts;
+    }
+
+    /**
+     * @return the sequence number of the oldest available entry, in memory or
+     *         in the history
+     */
+    public long first() {
+        return oldest;
+    }
+
+    /**
+     * @return the sequence number of the oldest entry in memory
+     */
+    public long firstInMemory() {
+        return first;
+    }
+
+    /**
+     * @return the sequence number the next appended entry will get
+     */
+    public long end() {
+        return end;
+    }
+
+    /**
+     * @return the number of available entries
+     */
+    public int size() {
+        return (int) (end - oldest);
+    }
+
+    /**
+     * Returns the entry with the given sequence number.
+     *
+     * @param seq the sequence number
+     *
+     * @return the entry, or null if it is not available (any more)
+     */
+    public LogEntry get(final long seq) {
+        if (seq >= end) {
+            return null;
+        }
+        if (seq >= first) {
+            final LogEntry entry = slots.get((int) (seq % capacity));
+
+            //
+            // eviction moves first before overwriting the slot: if the slot
+            // has been overwritten meanwhile, first is now past seq (and the
+            // entry has been spilled, if there is a history)
+            //
+            if (seq >= first) {
+                return entry;
+            }
+        }
+        final SpillStore h = history;
+        return (h != null && seq >= oldest) ? h.get(seq) : null;
+    }
+
+    /**
+     * Appends the given entries evicting the oldest ones if the capacity is
+     * exceeded. Listeners get at most one eviction and one append
+     * notification.
+     *
+     * @param entries the entries to append
+     */
+    public void addAll(final List<LogEntry> entries) {
+        final int n = entries.size();
+        if (n == 0) {
+            return;
+        }
+
+        final SpillStore h = history;
+        final long oldFirst = first;
+        final long oldEnd = end;
+        final long newEnd = end + n;
+        for (int i = 0; i < n; ++i) {
+            entries.get(i).seq = oldEnd + i;
+        }
+        final long newFirst = Math.max(oldFirst, newEnd - capacity);
+        final long evictTo = Math.min(newFirst, end);
+        final int skip = (int) (newFirst - evictTo);
+
+        //
+        // spill what does not fit in memory any more before it is overwritten
+        //
+        if (h != null && newFirst > oldFirst) {
+            final List<LogEntry> spilled = new ArrayList<>((int) (newFirst - oldFirst));
+            for (long seq = oldFirst; seq < evictTo; ++seq) {
+                spilled.add(slots.get((int) (seq % capacity)));
+            }
+            spilled.addAll(entries.subList(0, skip));
+            h.append(oldFirst, spilled);
+        }
+
+        //
+        // evict the retained entries that do not fit any more...
+        //
+        if (evictTo > oldFirst) {
+            first = evictTo;
+            if (h == null) {
+                evictTo(evictTo);
+            }
+        }
+
+        //
+        // ... and skip the new ones that do not fit: only the last capacity
+        // entries can survive
+        //
+        if (skip > 0) {
+            end = first = newFirst;
+            if (h == null) {
+                oldest = newFirst;
+            }
+        }
+
+        for (long seq = end; seq < newEnd; ++seq) {
+            slots.set((int) (seq % capacity), entries.get(skip + (int) (seq - end)));
+        }
+        final long appendFrom = (h == null) ? end : oldEnd;
+        end = newEnd;
+
+        if (h != null) {
+            evictTo(h.isEmpty() ? first : h.first());
+        }
+        for (Listener l: listeners) {
+            l.appended(appendFrom, newEnd);
+        }
+    }
+
+    /**
+     * Saves the retained entries for the next session: the entries in memory
+     * are appended to the history, which is then saved, see
+     * {@link SpillStore#save(long)}. It should be called on the thread
+     * appending entries, or once nothing is appended any more; the store
+     * cannot be used afterwards.
+     *
+     * @param timeout the maximum time to wait for the entries to be written,
+     *        in milliseconds
+     *
+     * @return the number of entries saved
+     */
+    public long save(final long timeout) {
+        final SpillStore h = history;
+        if (h == null) {
+            return 0;
+        }
+        final List<LogEntry> retained = new ArrayList<>((int) (end - first));
+        for (long seq = first; seq < end; ++seq) {
+            retained.add(slots.get((int) (seq % capacity)));
+        }
+        h.append(first, retained);
+
+        return h.save(timeout);
+    }
+
+    /**
+     * Removes all entries; sequence numbers are not reused.
+     */
+    public void clear() {
+        final long oldOldest = oldest;
+        final long oldFirst = first;
+        oldest = first = end;
+        for (long seq = oldFirst; seq < end; ++seq) {
+            slots.set((int) (seq % capacity), null);
+        }
+        final SpillStore h = history;
+        if (h != null) {
+            h.clear();
+        }
+        for (Listener l: listeners) {
+            l.cleared(oldOldest, end);
+        }
+    }
+
+    /**
+     * Moves the oldest available entry forward, notifying listeners.
+     */
+    private void evictTo(final long newOldest) {
+        final long oldOldest = oldest;
+        if (newOldest > oldOldest) {
+            oldest = newOldest;
+            for (Listener l: listeners) {
+                l.evicted(oldOldest, newOldest);
+            }
+        }
+    }
+
+    public void addListener(final Listener l) {
+        listeners.add(l);
+    }
+
+    public void removeListener(final Listener l) {
+        listeners.remove(l);
+    }
+}
@@ -0,0 +1,560 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.LogRecord;
+
+/**
+ * A {@link Handler} that applications launched from the IDE can attach to
+ * stream their log records to the log viewer.
+ * <p>
+ * It depends only on the JDK, {@link RecordQueue} and {@link MessageTemplates},
+ * so applications just need this module's jar on their classpath, for
+ * example with:
+ * </p>
+ * <pre>
+ * handlers=ste.netbeans.logging.LogStreamHandler
+ * ste.netbeans.logging.LogStreamHandler.source=my-app
+ * </pre>
+ * <p>
+ * Logging threads only take a snapshot of the record, without formatting
+ * it, and put it in a bounded queue. A writer thread takes the queued
+ * records in batches, has them formatted (messages are localized and
+ * expanded, see {@link MessageTemplates}, and stack traces printed, as the
+ * receiving side can not do it) and encodes them in order into a buffer that
+ * is written to a loopback TCP socket ({@code host}, {@code port}) or to a
+ * Unix domain socket ({@code path}). Large batches are split among the
+ * writer and a few formatting threads, so that formatting keeps up with
+ * many logging threads; small ones are formatted by the writer alone.
+ * As with any asynchronous handler, parameters are formatted after
+ * {@link #publish(LogRecord)} returns. If the viewer does not keep up, the
+ * socket and then the queue fill up and the queue overflow policy applies:
+ * by default logging threads wait for a short time, then records are dropped.
+ * If the viewer is not listening, records are dropped and the connection is
+ * retried every second.
+ * </p>
+ * <p>
+ * Framing: every frame is an int length (of what follows) and a type byte.
+ * A connection starts with a {@code HELLO} frame (magic, version and the
+ * source name, which tags all records); logger names are sent once per
+ * connection in {@code LOGGER} frames, records refer to them by id. Texts are
+ * an int length in bytes, -1 for null, and UTF-8 bytes.
+ * </p>
+ * <p>
+ * Configuration, with {@link LogManager} properties prefixed by the class
+ * name: {@code host} (default 127.0.0.1), {@code port} (default
+ * {@value #DEFAULT_PORT}), {@code path}, {@code source} (default the main
+ * class and process id), {@code level}, {@code capacity} (default 65536) and
+ * {@code formatters}, the threads formatting records including the writer
+ * (default half the processors, at most {@value #MAX_FORMATTERS}).
+ * </p>
+ */
+public class LogStreamHandler extends Handler {
+
+    public static final int DEFAULT_PORT = 4561;
+
+    static final int MAGIC = 0x4E424C56; // NBLV
+    static final byte VERSION = 1;
+
+    static final byte HELLO = 0;
+    static final byte LOGGER = 1;
+    static final byte RECORD = 2;
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    /**
+     * Longer messages and stack traces are truncated so that any frame fits
+     * in the buffer
+     */
+    static final int MAX_TEXT = 32 * 1024;
+    private static final long RETRY_INTERVAL = 1000;
+
+    /**
+     * The idle writer is woken up by the next record; this only bounds how
+     * long it sleeps if a wake up is missed
+     */
+    private static final long IDLE_WAIT = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * At most this many records are taken from the queue at once
+     */
+    private static final int BATCH_SIZE = 1024;
+
+    /**
+     * Batches are split among the formatting threads in chunks of at least
+     * this many records
+     */
+    private static final int MIN_CHUNK = 128;
+
+    static final int MAX_FORMATTERS = 4;
+
+    private final SocketAddress address;
+    private final String source;
+    private final RecordQueue<Frame> queue;
+    private final Thread writer;
+    private final int formatters;
+    private final ExecutorService formatting;
+    private volatile boolean closed = false;
+    private volatile boolean busy = false;
+    private volatile boolean sleeping = false;
+
+    /**
+     * Notified when the writer goes idle, see {@link #flush()}
+     */
+    private final Object idle = new Object();
+    private volatile long dropped = 0;
+
+    /**
+     * Creates a handler configured by the {@link LogManager} properties.
+     */
+    public LogStreamHandler() {
+        final String prefix = getClass().getName();
+        final LogManager manager = LogManager.getLogManager();
+
+        final String path = manager.getProperty(prefix + ".path");
+        final String host = manager.getProperty(prefix + ".host");
+        final String port = manager.getProperty(prefix + ".port");
+        final String source = manager.getProperty(prefix + ".source");
+        final String capacity = manager.getProperty(prefix + ".capacity");
+        final String level = manager.getProperty(prefix + ".level");
+        final String formatters = manager.getProperty(prefix + ".formatters");
+
+        this.address = (path != null)
+                     ? UnixDomainSocketAddress.of(path)
+                     : new InetSocketAddress(
+                           (host != null) ? host : "127.0.0.1",
+                           (port != null) ? Integer.parseInt(port.trim()) : DEFAULT_PORT
+                       );
+        this.source = (source != null) ? source : defaultSource();
+        this.queue = new RecordQueue<>(
+            (capacity != null) ? Integer.parseInt(capacity.trim()) : 65536,
+            RecordQueue.OverflowPolicy.BLOCK, 100
+        );
+        if (level != null) {
+            setLevel(Level.parse(level.trim()));
+        }
+        this.formatters = (formatters != null) ? Math.max(1, Integer.parseInt(formatters.trim())) : defaultFormatters();
+        this.formatting = startFormatting(this.formatters);
+        this.writer = startWriter();
+    }
+
+    /**
+     * @param address where the viewer listens - NOT NULL
+     * @param source the name tagging the records of this process - NOT NULL
+     */
+    public LogStreamHandler(final SocketAddress address, final String source) {
+        this(address, source, defaultFormatters());
+    }
+
+    /**
+     * @param address where the viewer listens - NOT NULL
+     * @param source the name tagging the records of this process - NOT NULL
+     * @param formatters the threads formatting records, including the
+     *        writer - must be {@literal > 0}
+     */
+    public LogStreamHandler(final SocketAddress address, final String source, final int formatters) {
+        if (formatters <= 0) {
+            throw new IllegalArgumentException("formatters must be greater than 0");
+        }
+        this.address = address;
+        this.source = source;
+        this.queue = new RecordQueue<>(65536, RecordQueue.OverflowPolicy.BLOCK, 100);
+        this.formatters = formatters;
+        this.formatting = startFormatting(formatters);
+        this.writer = startWriter();
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * @return the number of records discarded so far because the viewer
+     *         could not be reached or did not keep up
+     */
+    public long getDroppedCount() {
+        return queue.getDroppedCount() + dropped;
+    }
+
+    @Override
+    public void publish(final LogRecord record) {
+        if (closed || !isLoggable(record)) {
+            return;
+        }
+
+        final Frame frame = new Frame();
+        frame.level = record.getLevel().intValue();
+        frame.levelName = record.getLevel().getName();
+        frame.millis = record.getMillis();
+        frame.logger = (record.getLoggerName() == null) ? "" : record.getLoggerName();
+        frame.threadId = record.getLongThreadID();
+        frame.template = record.getMessage();
+        frame.bundle = record.getResourceBundle();
+        frame.parameters = record.getParameters();
+        frame.exception = record.getThrown();
+
+        queue.put(frame);
+        if (sleeping) {
+            sleeping = false;
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Waits, for at most one second, until the queued records are written.
+     */
+    @Override
+    public void flush() {
+        final long timeout = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        synchronized (idle) {
+            long left;
+            while ((!queue.isEmpty() || busy) && (left = timeout - System.nanoTime()) > 0) {
+                try {
+                    idle.wait(Math.max(1, TimeUnit.NANOSECONDS.toMillis(left)));
+                } catch (InterruptedException x) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the queued records, waiting for at most one second, and closes
+     * the connection.
+     */
+    @Override
+    public void close() throws SecurityException {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(1000);
+        } catch (InterruptedException x) {
+            Thread.currentThread().interrupt();
+        }
+        if (formatting != null) {
+            formatting.shutdown();
+        }
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private static int defaultFormatters() {
+        return Math.max(1, Math.min(MAX_FORMATTERS, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    /**
+     * @return the threads helping the writer, null if it formats alone
+     */
+    private static ExecutorService startFormatting(final int formatters) {
+        if (formatters <= 1) {
+            return null;
+        }
+        final AtomicInteger n = new AtomicInteger();
+        return Executors.newFixedThreadPool(formatters - 1, (r) -> {
+            final Thread t = new Thread(r, "LogStreamHandler formatter " + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private Thread startWriter() {
+        final Thread t = new Thread(this::write, "LogStreamHandler writer");
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    /**
+     * Runs on the writer thread until closed and all records are written.
+     */
+    private void write() {
+        final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        final Map<String, Integer> loggers = new HashMap<>();
+        SocketChannel channel = null;
+        long retryAt = 0;
+
+        final Frame[] batch = new Frame[BATCH_SIZE];
+        while (true) {
+            busy = true;
+            int n = 0;
+            for (Frame f; n < batch.length && (f = queue.poll()) != null; ) {
+                batch[n++] = f;
+            }
+            if (n == 0) {
+                if (channel != null && out.position() > 0) {
+                    try {
+                        drain(channel, out);
+                    } catch (IOException x) {
+                        channel = disconnect(channel, out);
+                        retryAt = System.currentTimeMillis() + RETRY_INTERVAL;
+                    }
+                }
+                busy = false;
+                synchronized (idle) {
+                    idle.notifyAll();
+                }
+                if (closed) {
+                    break;
+                }
+
+                //
+                // sleep until a record is published: producers wake the
+                // writer up if they see it sleeping, so the queue is checked
+                // again after saying so
+                //
+                sleeping = true;
+                if (queue.isEmpty() && !closed) {
+                    LockSupport.parkNanos(this, IDLE_WAIT);
+                }
+                sleeping = false;
+                continue;
+            }
+
+            //
+            // records that would be dropped are not formatted
+            //
+            if (channel == null && System.currentTimeMillis() < retryAt) {
+                dropped += n;
+                Arrays.fill(batch, 0, n, null);
+                continue;
+            }
+            format(batch, n);
+
+            for (int i = 0; i < n; ++i) {
+                final Frame frame = batch[i];
+                batch[i] = null;
+                try {
+                    if (channel == null) {
+                        if (System.currentTimeMillis() < retryAt) {
+                            ++dropped;
+                            continue;
+                        }
+                        channel = SocketChannel.open(address);
+                        loggers.clear();
+                        hello(channel, out);
+                    }
+
+                    Integer loggerId = loggers.get(frame.logger);
+                    if (loggerId == null) {
+                        loggerId = loggers.size();
+                        loggers.put(frame.logger, loggerId);
+                        final byte[] name = truncate(frame.logger).getBytes(StandardCharsets.UTF_8);
+                        ensure(channel, out, 4 + 1 + 4 + 4 + name.length);
+                        out.putInt(1 + 4 + 4 + name.length).put(LOGGER).putInt(loggerId);
+                        putText(out, name);
+                    }
+
+                    final byte[] levelName = frame.levelName.getBytes(StandardCharsets.UTF_8);
+                    final byte[] message = (frame.message == null) ? null : frame.message.getBytes(StandardCharsets.UTF_8);
+                    final byte[] thrown = (frame.thrown == null) ? null : frame.thrown.getBytes(StandardCharsets.UTF_8);
+                    final int length = 1 + 4 + textSize(levelName) + 8 + 4 + 8 + textSize(message) + textSize(thrown);
+                    ensure(channel, out, 4 + length);
+                    out.putInt(length).put(RECORD).putInt(frame.level);
+                    putText(out, levelName);
+                    out.putLong(frame.millis).putInt(loggerId).putLong(frame.threadId);
+                    putText(out, message);
+                    putText(out, thrown);
+                } catch (IOException | RuntimeException x) {
+                    ++dropped;
+                    channel = disconnect(channel, out);
+                    retryAt = System.currentTimeMillis() + RETRY_INTERVAL;
+                }
+            }
+        }
+
+        disconnect(channel, out);
+    }
+
+    /**
+     * Formats the first {@code n} records of the batch; the writer formats
+     * the first chunk while the formatting threads do the others.
+     */
+    private void format(final Frame[] batch, final int n) {
+        final int chunks = Math.min(formatters, (n + MIN_CHUNK - 1) / MIN_CHUNK);
+        if (chunks <= 1) {
+            for (int i = 0; i < n; ++i) {
+                batch[i].format();
+            }
+            return;
+        }
+
+        final int size = (n + chunks - 1) / chunks;
+        final List<Future<?>> others = new ArrayList<>(chunks - 1);
+        for (int from = size; from < n; from += size) {
+            final int chunkFrom = from, chunkTo = Math.min(n, from + size);
+            others.add(formatting.submit(() -> {
+                for (int i = chunkFrom; i < chunkTo; ++i) {
+                    batch[i].format();
+                }
+            }));
+        }
+        for (int i = 0; i < size; ++i) {
+            batch[i].format();
+        }
+
+        boolean interrupted = false;
+        for (Future<?> f: others) {
+            while (true) {
+                try {
+                    f.get();
+                    break;
+                } catch (InterruptedException x) {
+                    interrupted = true;
+                } catch (ExecutionException x) {
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void hello(final SocketChannel channel, final ByteBuffer out) throws IOException {
+        final byte[] name = truncate(source).getBytes(StandardCharsets.UTF_8);
+        ensure(channel, out, 4 + 1 + 4 + 1 + textSize(name));
+        out.putInt(1 + 4 + 1 + textSize(name)).put(HELLO).putInt(MAGIC).put(VERSION);
+        putText(out, name);
+    }
+
+    /**
+     * Makes room in the buffer for the given number of bytes, writing it if
+     * needed; texts are truncated so that frames are never larger than the
+     * buffer.
+     */
+    private static void ensure(final SocketChannel channel, final ByteBuffer out, final int bytes) throws IOException {
+        if (bytes > out.capacity()) {
+            throw new IOException("frame too large: " + bytes);
+        }
+        if (out.remaining() < bytes) {
+            drain(channel, out);
+        }
+    }
+
+    private static void drain(final SocketChannel channel, final ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    private static SocketChannel disconnect(final SocketChannel channel, final ByteBuffer out) {
+        if (channel != null) {
+            try {
+                if (out.position() > 0) {
+                    drain(channel, out);
+                }
+                channel.close();
+            } catch (IOException x) {
+                // nothing to do
+            }
+        }
+        out.clear();
+        return null;
+    }
+
+    private static String truncate(final String text) {
+        return (text != null && text.length() > MAX_TEXT) ? text.substring(0, MAX_TEXT) : text;
+    }
+
+    private static int textSize(final byte[] text) {
+        return 4 + ((text == null) ? 0 : text.length);
+    }
+
+    private static void putText(final ByteBuffer out, final byte[] text) {
+        if (text == null) {
+            out.putInt(-1);
+        } else {
+            out.putInt(text.length).put(text);
+        }
+    }
+
+    private static String defaultSource() {
+        String main = System.getProperty("sun.java.command", "").trim();
+        final int space = main.indexOf(' ');
+        if (space > 0) {
+            main = main.substring(0, space);
+        }
+        main = main.substring(Math.max(main.lastIndexOf('.'), main.lastIndexOf('/')) + 1);
+        return (main.isEmpty() ? "" : main + "-") + ProcessHandle.current().pid();
+    }
+
+    /**
+     * A record waiting to be written; the message and stack trace are
+     * formatted by {@link #format()} just before.
+     */
+    private static final class Frame {
+        int level;
+        String levelName;
+        long millis;
+        String logger;
+        long threadId;
+        String template;
+        ResourceBundle bundle;
+        Object[] parameters;
+        Throwable exception;
+        String message;
+        String thrown;
+
+        void format() {
+            try {
+                message = truncate(MessageTemplates.format(template, bundle, parameters));
+            } catch (RuntimeException x) {
+                message = truncate(template);
+            }
+            if (exception != null) {
+                final StringWriter sw = new StringWriter();
+                try (PrintWriter pw = new PrintWriter(sw)) {
+                    exception.printStackTrace(pw);
+                } catch (RuntimeException x) {
+                    // keep what has been printed
+                }
+                thrown = truncate(sw.toString());
+            }
+            template = null;
+            bundle = null;
+            parameters = null;
+            exception = null;
+        }
+    }
+}
@@ -0,0 +1,444 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.openide.util.RequestProcessor;
+
+/**
+ * Receives the records streamed by {@link LogStreamHandler}s of other
+ * processes.
+ * <p>
+ * A single thread serves all connections with a non-blocking selector. Each
+ * connection has its own read buffer; complete frames are decoded as they
+ * arrive into {@link LogEntry}s tagged with the connection's source and
+ * handed to a {@link Sink}, normally the {@link LogViewerHandler}, which
+ * batches them with the local records. When the sink is busy, reading stops
+ * until it catches up: the senders' socket buffers and queues fill up and
+ * their overflow policy applies, while the IDE memory stays bounded.
+ * </p>
+ * <p>
+ * It listens on a loopback TCP port and, where supported, on a Unix domain
+ * socket.
+ * </p>
+ */
+public class LogStreamServer implements Closeable {
+
+    /**
+     * Default TCP port; can be set with the system property
+     * {@code ste.netbeans.logging.server.port}, 0 for any free port.
+     */
+    public static final int DEFAULT_PORT =
+        Integer.getInteger("ste.netbeans.logging.server.port", LogStreamHandler.DEFAULT_PORT);
+
+    /**
+     * How many distinct logger names a connection can register, as each one
+     * stays in the {@link LoggerRegistry}; can be set with the system
+     * property {@code ste.netbeans.logging.server.loggers}. A connection
+     * registering more is closed.
+     */
+    public static final int MAX_LOGGERS =
+        Integer.getInteger("ste.netbeans.logging.server.loggers", 10_000);
+
+    /**
+     * How many new logger names all connections together can register in
+     * the {@link LoggerRegistry}, so that reconnecting does not grow it
+     * without bounds; can be set with the system property
+     * {@code ste.netbeans.logging.server.names}. A connection registering
+     * more is closed.
+     */
+    public static final int MAX_REMOTE_LOGGERS =
+        Integer.getInteger("ste.netbeans.logging.server.names", 50_000);
+
+    /**
+     * The Unix domain socket, relative to the NetBeans user dir.
+     */
+    public static final String SOCKET = "var/log-viewer/log.sock";
+
+    /**
+     * Where received entries go.
+     */
+    public interface Sink {
+        /**
+         * @param entry an entry received from another process
+         */
+        void publish(LogEntry entry);
+
+        /**
+         * @return true if the sink can not take more entries for now
+         */
+        boolean isBusy();
+    }
+
+    private static final Logger LOG = Logger.getLogger(LogStreamServer.class.getName());
+    private static final RequestProcessor RP = new RequestProcessor(LogStreamServer.class);
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_FRAME = 16 * 1024 * 1024;
+
+    /**
+     * Senders truncate texts to {@link LogStreamHandler#MAX_TEXT} chars, each
+     * at most 3 bytes in UTF-8
+     */
+    private static final int MAX_TEXT_BYTES = LogStreamHandler.MAX_TEXT * 3;
+
+    /**
+     * New logger names registered by remote connections, of all servers
+     */
+    private static final AtomicInteger REMOTE_LOGGERS = new AtomicInteger();
+    private static final long BUSY_WAIT = 5;
+
+    private static LogStreamServer running;
+
+    private final Sink sink;
+    private final LoggerRegistry loggers = LoggerRegistry.getDefault();
+    private final Selector selector;
+    private ServerSocketChannel tcp;
+    private Path unixSocket;
+    private volatile boolean closed = false;
+    private boolean paused = false;
+
+    /**
+     * @param sink where received entries go - NOT NULL
+     *
+     * @throws IOException if the selector can not be opened
+     */
+    public LogStreamServer(final Sink sink) throws IOException {
+        this.sink = sink;
+        this.selector = Selector.open();
+    }
+
+    /**
+     * Starts the server of the IDE, stopping the previous one if any; errors
+     * are logged, as another IDE instance may own the port.
+     *
+     * @param sink where received entries go - NOT NULL
+     * @param unixSocket the Unix domain socket - may be null
+     */
+    public static synchronized void startDefault(final Sink sink, final Path unixSocket) {
+        stopDefault();
+        try {
+            running = new LogStreamServer(sink);
+            running.start(DEFAULT_PORT, unixSocket);
+        } catch (IOException x) {
+            LOG.log(Level.INFO, "log stream server not started: {0}", x.getMessage());
+            stopDefault();
+        }
+    }
+
+    public static synchronized void stopDefault() {
+        if (running != null) {
+            running.close();
+            running = null;
+        }
+    }
+
+    /**
+     * Starts listening and serving connections in the background.
+     *
+     * @param port the loopback TCP port, 0 for any free port
+     * @param unixSocket the Unix domain socket - may be null
+     *
+     * @throws IOException if the TCP port can not be bound
+     */
+    public void start(final int port, final Path unixSocket) throws IOException {
+        tcp = ServerSocketChannel.open();
+        tcp.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        tcp.configureBlocking(false);
+        tcp.register(selector, SelectionKey.OP_ACCEPT);
+
+        if (unixSocket != null) {
+            try {
+                Files.createDirectories(unixSocket.getParent());
+                Files.deleteIfExists(unixSocket);
+                final ServerSocketChannel unix = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+                unix.bind(UnixDomainSocketAddress.of(unixSocket));
+                unix.configureBlocking(false);
+                unix.register(selector, SelectionKey.OP_ACCEPT);
+                this.unixSocket = unixSocket;
+            } catch (IOException | UnsupportedOperationException x) {
+                LOG.log(Level.INFO, "unix domain socket not available: {0}", x.getMessage());
+            }
+        }
+
+        RP.post(this::serve);
+    }
+
+    /**
+     * @return the bound TCP port
+     */
+    public int getPort() {
+        return tcp.socket().getLocalPort();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private void serve() {
+        try {
+            while (!closed) {
+                //
+                // backpressure: stop reading while the sink is busy
+                //
+                final boolean busy = sink.isBusy();
+                if (busy != paused) {
+                    paused = busy;
+                    for (SelectionKey key: selector.keys()) {
+                        if (key.isValid() && key.attachment() instanceof Connection) {
+                            key.interestOps(busy ? 0 : SelectionKey.OP_READ);
+                        }
+                    }
+                }
+                selector.select(busy ? BUSY_WAIT : 1000);
+
+                final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    final SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept((ServerSocketChannel) key.channel());
+                    } else if (key.isReadable()) {
+                        final Connection connection = (Connection) key.attachment();
+                        try {
+                            if (!connection.read()) {
+                                connection.close(key);
+                            }
+                        } catch (IOException | RuntimeException x) {
+                            LOG.log(Level.FINE, "closing log stream from " + connection.source, x);
+                            connection.close(key);
+                        }
+                    }
+                }
+            }
+        } catch (IOException x) {
+            LOG.log(Level.INFO, "log stream server stopped", x);
+        } finally {
+            for (SelectionKey key: selector.keys()) {
+                try {
+                    key.channel().close();
+                } catch (IOException x) {
+                    // nothing to do
+                }
+            }
+            try {
+                selector.close();
+                if (unixSocket != null) {
+                    Files.deleteIfExists(unixSocket);
+                }
+            } catch (IOException x) {
+                // nothing to do
+            }
+        }
+    }
+
+    private void accept(final ServerSocketChannel server) throws IOException {
+        final SocketChannel channel = server.accept();
+        if (channel != null) {
+            channel.configureBlocking(false);
+            channel.register(selector, paused ? 0 : SelectionKey.OP_READ, new Connection(channel));
+        }
+    }
+
+    // ------------------------------------------------------------- Connection
+
+    /**
+     * The state of a sender: its read buffer, source and logger ids.
+     */
+    private final class Connection {
+        final SocketChannel channel;
+        ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+        String source;
+        int[] loggerIds = new int[64];
+        int loggerCount = 0;
+
+        Connection(final SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Reads what is available and decodes the complete frames.
+         *
+         * @return false at the end of the stream
+         */
+        boolean read() throws IOException {
+            final int n = channel.read(in);
+            if (n < 0) {
+                return false;
+            }
+
+            in.flip();
+            while (in.remaining() >= 4) {
+                final int length = in.getInt(in.position());
+                if (length < 1 || length > MAX_FRAME) {
+                    throw new IOException("invalid frame length " + length);
+                }
+                if (in.remaining() < 4 + length) {
+                    break;
+                }
+                final int start = in.position() + 4;
+                frame(start, start + length);
+                in.position(start + length);
+            }
+            in.compact();
+
+            //
+            // make room for a frame larger than the buffer
+            //
+            if (!in.hasRemaining()) {
+                in = ByteBuffer.allocate(in.capacity() * 2).put(in.flip());
+            }
+
+            return true;
+        }
+
+        void close(final SelectionKey key) {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException x) {
+                // nothing to do
+            }
+        }
+
+        /**
+         * Decodes the frame from {@code p} (included) to {@code end}
+         * (excluded); any field past its end is an error, so that a length
+         * read from the stream is never trusted.
+         */
+        private void frame(int p, final int end) throws IOException {
+            final byte type = in.get(p++);
+            if (type == LogStreamHandler.HELLO) {
+                check(p, 5, end);
+                if (in.getInt(p) != LogStreamHandler.MAGIC || in.get(p + 4) != LogStreamHandler.VERSION) {
+                    throw new IOException("not a log stream");
+                }
+                source = text(p + 5, end);
+            } else if (source == null) {
+                throw new IOException("missing hello");
+            } else if (type == LogStreamHandler.LOGGER) {
+                //
+                // ids are given in sequence, a name may be sent again
+                //
+                check(p, 4, end);
+                final int id = in.getInt(p);
+                if (id < 0 || id > loggerCount) {
+                    throw new IOException("invalid logger id " + id);
+                }
+                if (id == loggerCount) {
+                    if (loggerCount >= MAX_LOGGERS) {
+                        LOG.log(Level.INFO, "closing log stream from {0}: more than {1} loggers", new Object[] {source, MAX_LOGGERS});
+                        throw new IOException("too many loggers");
+                    }
+                    if (id == loggerIds.length) {
+                        loggerIds = Arrays.copyOf(loggerIds, loggerIds.length * 2);
+                    }
+                    ++loggerCount;
+                }
+                loggerIds[id] = register(text(p + 4, end));
+            } else if (type == LogStreamHandler.RECORD) {
+                check(p, 4, end);
+                final int levelValue = in.getInt(p);
+                final String levelName = text(p + 4, end);
+                p += 8 + textLength(p + 4);
+                check(p, 20, end);
+                final long millis = in.getLong(p);
+                final int id = in.getInt(p + 8);
+                if (id < 0 || id >= loggerCount) {
+                    throw new IOException("unknown logger id " + id);
+                }
+                final int loggerId = loggerIds[id];
+                final long threadId = in.getLong(p + 12);
+                p += 20;
+                final String message = text(p, end);
+                p += 4 + textLength(p);
+                final String thrown = text(p, end);
+
+                sink.publish(new LogEntry(
+                    SpillStore.level(levelName, levelValue), millis, loggerId, threadId,
+                    message, null, null, (thrown == null) ? null : new StackTrace(thrown), source
+                ));
+            }
+        }
+
+        /**
+         * @return the id of the given logger, registering it if it is new
+         *         and remote connections did not register too many already
+         */
+        private int register(final String name) throws IOException {
+            final int known = loggers.find(name);
+            if (known >= 0) {
+                return known;
+            }
+            if (REMOTE_LOGGERS.incrementAndGet() > MAX_REMOTE_LOGGERS) {
+                REMOTE_LOGGERS.decrementAndGet();
+                LOG.log(Level.INFO, "closing log stream from {0}: more than {1} loggers from all streams", new Object[] {source, MAX_REMOTE_LOGGERS});
+                throw new IOException("too many loggers");
+            }
+            return loggers.idOf(name);
+        }
+
+        private void check(final int p, final int bytes, final int end) throws IOException {
+            if (p + bytes > end) {
+                throw new IOException("truncated frame");
+            }
+        }
+
+        private int textLength(final int p) {
+            return Math.max(0, in.getInt(p));
+        }
+
+        private String text(final int p, final int end) throws IOException {
+            check(p, 4, end);
+            final int length = in.getInt(p);
+            if (length < 0) {
+                return null;
+            }
+            if (length > MAX_TEXT_BYTES) {
+                throw new IOException("text too long: " + length);
+            }
+            check(p + 4, length, end);
+            final byte[] b = new byte[length];
+            in.get(p + 4, b);
+            return new String(b, StandardCharsets.UTF_8);
+        }
+    }
+}
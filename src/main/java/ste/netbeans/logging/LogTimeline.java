@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.function.LongConsumer;
+import javax.swing.JComponent;
+import javax.swing.ToolTipManager;
+import org.openide.util.NbBundle;
+
+/**
+ * A strip showing how many entries of the {@link LogStore} were logged over
+ * time, errors and warnings standing out, to see where bursts happened and
+ * jump to them.
+ * <p>
+ * Entries are counted in per-second and per-minute {@link TimeBuckets} as
+ * they are appended, once per store and shared by all its strips, see
+ * {@link TimeCounts}; the strip shows seconds when they fit its width,
+ * minutes otherwise, so painting costs as many buckets as there are, not
+ * entries. Heights are on a logarithmic scale, so that a few errors are
+ * visible next to a burst. Clicking a bucket passes the sequence number of
+ * its first entry to the action set with {@link #setOnSelect(LongConsumer)}.
+ * </p>
+ * <p>
+ * While suspended, or not shown, the strip is not repainted as the counts
+ * change.
+ * </p>
+ */
+public class LogTimeline extends JComponent {
+
+    /**
+     * Number of per-second buckets kept, one day
+     */
+    public static final int SECONDS = 24 * 60 * 60;
+
+    /**
+     * Number of per-minute buckets kept, one week
+     */
+    public static final int MINUTES = 7 * 24 * 60;
+
+    private static final DateTimeFormatter TIME =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private final LogStore store;
+    private final TimeCounts counts;
+    private final Runnable changed = this::repaint;
+
+    private LongConsumer onSelect;
+    private boolean following = false;
+
+    /**
+     * @param store the store whose entries are counted - NOT NULL
+     */
+    public LogTimeline(final LogStore store) {
+        this.store = store;
+        this.counts = store.timeCounts();
+
+        setPreferredSize(new Dimension(100, 32));
+        setMaximumSize(new Dimension(32767, 32));
+        setAlignmentY(0.0F);
+        ToolTipManager.sharedInstance().registerComponent(this);
+
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(final MouseEvent e) {
+                final TimeBuckets buckets = buckets();
+                final int i = bucketAt(buckets, e.getX());
+                if (i >= 0 && onSelect != null) {
+                    onSelect.accept(Math.max(buckets.firstSeq(i), store.first()));
+                }
+            }
+        });
+    }
+
+    /**
+     * Sets the action run when a bucket is clicked.
+     *
+     * @param onSelect the action, taking the sequence number of the first
+     *        entry of the bucket - may be null
+     */
+    public void setOnSelect(final LongConsumer onSelect) {
+        this.onSelect = onSelect;
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        resume();
+    }
+
+    @Override
+    public void removeNotify() {
+        suspend();
+        super.removeNotify();
+    }
+
+    /**
+     * Stops repainting as the counts change, for example while the strip is
+     * in a hidden tab.
+     */
+    public void suspend() {
+        if (following) {
+            counts.removeListener(changed);
+            following = false;
+        }
+    }
+
+    /**
+     * Repaints with the current counts and follows their changes again.
+     */
+    public void resume() {
+        if (!following) {
+            counts.addListener(changed);
+            following = true;
+            repaint();
+        }
+    }
+
+    @Override
+    public String getToolTipText(final MouseEvent e) {
+        final TimeBuckets buckets = buckets();
+        final int i = bucketAt(buckets, e.getX());
+        if (i < 0) {
+            return null;
+        }
+        return NbBundle.getMessage(
+            LogTimeline.class, "LogTimeline.tooltip",
+            new Object[] {
+                TIME.format(Instant.ofEpochMilli(buckets.time(i))), buckets.total(i),
+                buckets.count(i, TimeBuckets.SEVERE), buckets.count(i, TimeBuckets.WARNING)
+            }
+        );
+    }
+
+    /**
+     * Sums the buckets falling in each pixel column, then draws the columns
+     * stacking errors, warnings and the other entries.
+     */
+    @Override
+    protected void paintComponent(final Graphics g) {
+        final int width = getWidth(), height = getHeight();
+        if (isOpaque()) {
+            g.setColor(getBackground());
+            g.fillRect(0, 0, width, height);
+        }
+
+        final TimeBuckets buckets = buckets();
+        final int n = buckets.size();
+        if (n == 0 || width <= 0) {
+            return;
+        }
+
+        final int[][] columns = new int[TimeBuckets.GROUPS][width];
+        int max = 0;
+        for (int i = 0; i < n; ++i) {
+            final int x = xOf(buckets, buckets.time(i), width);
+            for (int group = 0; group < TimeBuckets.GROUPS; ++group) {
+                columns[group][x] += buckets.count(i, group);
+            }
+            max = Math.max(max, columns[0][x] + columns[1][x] + columns[2][x]);
+        }
+
+        final int span = Math.max(1, xOf(buckets, buckets.time(0) + buckets.getWidth(), width));
+        final double scale = (height - 1) / Math.log1p(max);
+        for (int x = 0; x < width; ++x) {
+            final int severe = columns[TimeBuckets.SEVERE][x];
+            final int warning = columns[TimeBuckets.WARNING][x];
+            final int total = severe + warning + columns[TimeBuckets.OTHER][x];
+            if (total == 0) {
+                continue;
+            }
+            final int h = Math.max(1, (int) (Math.log1p(total) * scale));
+            final int hs = (severe == 0) ? 0 : Math.max(1, h * severe / total);
+            final int hw = (warning == 0) ? 0 : Math.max(1, h * warning / total);
+            final int w = Math.min(span, width - x);
+
+            g.setColor(LogEntryRenderer.FINE);
+            g.fillRect(x, height - h, w, Math.max(0, h - hs - hw));
+            g.setColor(LogEntryRenderer.WARNING);
+            g.fillRect(x, height - hs - hw, w, hw);
+            g.setColor(LogEntryRenderer.SEVERE);
+            g.fillRect(x, height - hs, w, hs);
+        }
+    }
+
+    // --------------------------------------------------------- private methods
+
+    /**
+     * @return the seconds if they cover the same time as the minutes and fit
+     *         the strip, the minutes otherwise
+     */
+    private TimeBuckets buckets() {
+        final TimeBuckets seconds = counts.seconds, minutes = counts.minutes;
+        if (seconds.size() == 0 || minutes.size() == 0) {
+            return seconds;
+        }
+        final long span = seconds.time(seconds.size() - 1) - seconds.time(0);
+        final boolean complete = seconds.time(0) < minutes.time(0) + minutes.getWidth();
+        return (complete && span / seconds.getWidth() < getWidth()) ? seconds : minutes;
+    }
+
+    /**
+     * @return the pixel column of the given time, the buckets spanning the
+     *         whole width
+     */
+    private static int xOf(final TimeBuckets buckets, final long time, final int width) {
+        final long start = buckets.time(0);
+        final long span = buckets.time(buckets.size() - 1) + buckets.getWidth() - start;
+        return (int) Math.min(width - 1, Math.max(0, (time - start) * width / span));
+    }
+
+    /**
+     * @return the bucket painted at the given pixel column, -1 if none
+     */
+    private int bucketAt(final TimeBuckets buckets, final int x) {
+        final int n = buckets.size();
+        if (n == 0 || getWidth() <= 0) {
+            return -1;
+        }
+        final long start = buckets.time(0);
+        final long span = buckets.time(n - 1) + buckets.getWidth() - start;
+        return buckets.indexOf(start + (long) x * span / getWidth());
+    }
+}
@@ -16,87 +16,609 @@
 package ste.netbeans.logging;
 
 import java.util.logging.Handler;
+import java.util.logging.Level;
 import java.util.logging.LogRecord;
-import java.util.logging.SimpleFormatter;
-import org.openide.windows.WindowManager;
 import java.awt.EventQueue;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import org.openide.util.RequestProcessor;
 
 /**
  * A custom {@link java.util.logging.Handler} that directs log records
  * to the {@link LogViewerTopComponent} for display.
+ * <p>
+ * Records are not handed to the Event Dispatch Thread one by one; they are
+ * collected in a buffer and drained by a single scheduled task at most once
+ * per display frame (see {@link #setBatchLatency(int)}). Each drain hands up to
+ * {@link #setMaxBatchSize(int)} records to the viewer with one EDT event and
+ * one model update, and the next drain is not scheduled until the EDT has
+ * consumed the previous batch. A log storm therefore costs a handful of EDT
+ * events per second instead of one per record.
+ * </p>
+ * <p>
+ * The buffer is a bounded, lock-free {@link RecordQueue}: logging threads
+ * never wait for the viewer beyond the configured overflow policy, and the
+ * records discarded because the viewer could not keep up are counted (see
+ * {@link #getDroppedCount()}) and reported in the log view.
+ * </p>
+ * <p>
+ * Until the viewer is attached (see {@link #attach(Consumer)}), usually when
+ * the Log Viewer window is first opened, nothing is drained: records just
+ * wait in the buffer, which keeps the most recent ones, without any task or
+ * EDT event. When the viewer is attached they are replayed in one batch, so
+ * the IDE startup log is not lost and costs the IDE startup close to nothing.
+ * </p>
+ * <p>
+ * While draining, repeated messages are folded into their first occurrence
+ * by a {@link BurstFolder}: a storm of the same warning becomes a single row
+ * with an occurrence count, so it costs neither memory nor model updates nor
+ * painting per record (see {@link #setFoldWindow(long)}).
+ * </p>
+ * <p>
+ * Before anything else is done with a record, the {@link RateLimits} of its
+ * logger are enforced, so that a logger set to a verbose level can not
+ * monopolize the viewer; how many records have been suppressed is reported
+ * in the log view every {@link #SUMMARY_INTERVAL} milliseconds at most.
+ * </p>
+ * <p>
+ * What happens to records is counted with striped counters, which logging
+ * threads update without locking, and exposed with {@link ViewerMetrics}.
+ * </p>
  */
-public class LogViewerHandler extends Handler {
+public class LogViewerHandler extends Handler implements LogStreamServer.Sink {
 
-    private LogViewerTopComponent logViewerTopComponent;
+    /**
+     * Default delay in milliseconds between the first buffered record and the
+     * drain that delivers it; can be set with the system property
+     * {@code ste.netbeans.logging.batch.latency}.
+     */
+    public static final int DEFAULT_BATCH_LATENCY =
+        Integer.getInteger("ste.netbeans.logging.batch.latency", 25);
+
+    /**
+     * Default maximum number of records delivered by a single drain; can be
+     * set with the system property {@code ste.netbeans.logging.batch.size}.
+     */
+    public static final int DEFAULT_BATCH_SIZE =
+        Integer.getInteger("ste.netbeans.logging.batch.size", 5000);
+
+    /**
+     * Default capacity of the buffer between the logging threads and the
+     * viewer; can be set with the system property
+     * {@code ste.netbeans.logging.queue.capacity}.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY =
+        Integer.getInteger("ste.netbeans.logging.queue.capacity", 65536);
+
+    /**
+     * Default policy applied when the buffer is full; can be set with the
+     * system property {@code ste.netbeans.logging.queue.overflow} to one of
+     * the {@link RecordQueue.OverflowPolicy} names.
+     */
+    public static final RecordQueue.OverflowPolicy DEFAULT_OVERFLOW_POLICY =
+        overflowPolicy(System.getProperty("ste.netbeans.logging.queue.overflow"));
+
+    /**
+     * Default time in microseconds a producer waits for room when the policy
+     * is {@link RecordQueue.OverflowPolicy#BLOCK}; can be set with the system
+     * property {@code ste.netbeans.logging.queue.block}.
+     */
+    public static final long DEFAULT_BLOCK_TIMEOUT =
+        Long.getLong("ste.netbeans.logging.queue.block", 100);
+
+    /**
+     * Default time in milliseconds within which a repeated message is folded
+     * into the previous occurrence, 0 to never fold; can be set with the
+     * system property {@code ste.netbeans.logging.fold.window}.
+     */
+    public static final long DEFAULT_FOLD_WINDOW =
+        Long.getLong("ste.netbeans.logging.fold.window", 1000);
+
+    /**
+     * Minimum time in milliseconds between two reports of the records
+     * suppressed by the rate limits
+     */
+    public static final long SUMMARY_INTERVAL = 5000;
+
+    private static final RequestProcessor RP = new RequestProcessor(LogViewerHandler.class);
+
+    private final Executor edt;
+    private volatile Consumer<List<LogEntry>> viewer;
+    private volatile boolean replay = false;
+    private volatile RecordQueue.OverflowPolicy overflowPolicy = DEFAULT_OVERFLOW_POLICY;
+
+    private final LoggerRegistry loggers = LoggerRegistry.getDefault();
+    private final DisplayLevels displayLevels = DisplayLevels.getDefault();
+    private final RateLimits rateLimits = RateLimits.getDefault();
+    private volatile long nextSummary = System.nanoTime();
+
+    private final LongAdder ingested = new LongAdder();
+    private final LongAdder filtered = new LongAdder();
+    private final LongAdder suppressedCount = new LongAdder();
+    private final LongAdder foldedCount = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchTime = new LongAdder();
+    private volatile long lastBatchTime = 0;
+    private volatile long maxBatchTime = 0;
+
+    private final RecordQueue<LogEntry> pending = new RecordQueue<>(
+        DEFAULT_QUEUE_CAPACITY, RecordQueue.OverflowPolicy.DROP_OLDEST, DEFAULT_BLOCK_TIMEOUT
+    );
+    private long reportedDrops = 0;
+    private final BurstFolder folder = new BurstFolder(DEFAULT_FOLD_WINDOW);
+    private volatile boolean endBursts = false;
+    private final LogStore.Listener storeListener = new LogStore.Listener() {
+        @Override
+        public void evicted(long first, long end) {
+        }
+
+        @Override
+        public void appended(long first, long end) {
+        }
 
-    private final Set<String> collectedLoggers = new TreeSet();
+        @Override
+        public void cleared(long first, long end) {
+            //
+            // the rows of the current bursts are gone: do not fold into them
+            //
+            endBursts = true;
+        }
+    };
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final RequestProcessor.Task drainTask = RP.create(this::drain);
+    private volatile int batchLatency = DEFAULT_BATCH_LATENCY;
+    private volatile int maxBatchSize = DEFAULT_BATCH_SIZE;
 
     /**
-     * Constructs a new {@code LogViewerHandler}.
-     * It attempts to find the {@link LogViewerTopComponent} and sets a default
-     * {@link java.util.logging.SimpleFormatter}.
+     * Constructs a new {@code LogViewerHandler}, buffering records until a
+     * viewer is attached.
      */
     public LogViewerHandler() {
-        logViewerTopComponent = (LogViewerTopComponent) WindowManager.getDefault().findTopComponent("LogViewerTopComponent");
-        if (logViewerTopComponent == null) {
-            // Handle case where TopComponent is not yet initialized or found
-            // This might happen if the module is loaded before the UI is fully read
-            // For now, we'll just set it to null and handle it in publish
+        this(EventQueue::invokeLater);
+    }
+
+    /**
+     * @param edt runs the deliveries, normally on the Event Dispatch Thread
+     */
+    LogViewerHandler(final Executor edt) {
+        this.edt = edt;
+        LogStore.getDefault().addListener(storeListener);
+    }
+
+    /**
+     * Starts delivering records to the given viewer, replaying the ones
+     * buffered so far in a single batch. From now on the configured overflow
+     * policy applies; before, the oldest records are dropped when the buffer
+     * is full, as nobody is draining it.
+     *
+     * @param viewer receives the batches on the Event Dispatch Thread - NOT NULL
+     */
+    public void attach(final Consumer<List<LogEntry>> viewer) {
+        if (this.viewer == viewer) {
+            return;
         }
-        setFormatter(new SimpleFormatter());
+        //
+        // only a drain of what was buffered before is a replay: with nothing
+        // pending, the next drain is a normal one
+        //
+        replay = (this.viewer == null) && !pending.isEmpty();
+        this.viewer = viewer;
+        pending.setOverflowPolicy(overflowPolicy);
+        flush();
+    }
+
+    /**
+     * @return true if a viewer has been attached
+     */
+    public boolean isAttached() {
+        return viewer != null;
     }
 
     @Override
     public void publish(LogRecord record) {
         //
-        // collect the logger name even if it won't be displayed
+        // collect and count the logger even if it won't be displayed
+        //
+        final int loggerId = loggers.idOf(record.getLoggerName());
+        loggers.count(loggerId, record.getLevel());
+        ingested.increment();
+
+        //
+        // records the viewer does not display are rejected before any other
+        // work: one array load and one compare once the level is cached
+        //
+        if (displayLevels.rejects(loggerId, record.getLevel()) || !isLoggable(record)) {
+            filtered.increment();
+            return;
+        }
+        if (!rateLimits.allows(loggerId, record.getLevel())) {
+            suppressed();
+            return;
+        }
+
+        pending.put(LogEntry.of(record, loggerId));
+        scheduleDrain();
+    }
+
+    /**
+     * Publishes an entry received from another process through the same
+     * buffer, batching and delivery as the local records.
+     *
+     * @param entry the entry - NOT NULL
+     */
+    @Override
+    public void publish(final LogEntry entry) {
+        loggers.count(entry.loggerId, entry.level);
+        ingested.increment();
+        if (displayLevels.rejects(entry.loggerId, entry.level)) {
+            filtered.increment();
+            return;
+        }
+        if (!rateLimits.allows(entry.loggerId, entry.level)) {
+            suppressed();
+            return;
+        }
+
+        pending.put(entry);
+        scheduleDrain();
+    }
+
+    /**
+     * Sets the delay between the first buffered record and the EDT drain that
+     * delivers it. Values in the 16-50 ms range keep the viewer updating at
+     * display rate while coalescing bursts into few large batches.
+     *
+     * @param millis the latency in milliseconds - must be {@literal >= 0}
+     */
+    public void setBatchLatency(final int millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("latency can not be negative");
+        }
+        batchLatency = millis;
+    }
+
+    /**
+     * @return the delay in milliseconds between the first buffered record and
+     *         the drain that delivers it
+     */
+    public int getBatchLatency() {
+        return batchLatency;
+    }
+
+    /**
+     * Sets the maximum number of records delivered to the viewer by a single
+     * drain; any excess is delivered by the next drain, one frame later.
+     *
+     * @param size the maximum batch size - must be {@literal > 0}
+     */
+    public void setMaxBatchSize(final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("batch size must be greater than 0");
+        }
+        maxBatchSize = size;
+    }
+
+    /**
+     * @return the maximum number of records delivered by a single drain
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Sets how long a message has to repeat within to be folded into its
+     * previous occurrence.
+     *
+     * @param millis the window in milliseconds, 0 to never fold
+     */
+    public void setFoldWindow(final long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("fold window can not be negative");
+        }
+        folder.setWindow(millis);
+    }
+
+    public long getFoldWindow() {
+        return folder.getWindow();
+    }
+
+    /**
+     * Sets what happens to new records when the viewer does not keep up and
+     * the buffer is full.
+     *
+     * @param policy the overflow policy - NOT NULL
+     */
+    public void setOverflowPolicy(final RecordQueue.OverflowPolicy policy) {
+        overflowPolicy = policy;
+        if (viewer != null) {
+            pending.setOverflowPolicy(policy);
+        }
+    }
+
+    public RecordQueue.OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * @param micros how long a logging thread waits for room in the buffer
+     *        with {@link RecordQueue.OverflowPolicy#BLOCK}
+     */
+    public void setBlockTimeout(final long micros) {
+        pending.setBlockTimeout(micros);
+    }
+
+    public long getBlockTimeout() {
+        return pending.getBlockTimeout();
+    }
+
+    /**
+     * @return the number of records discarded so far because the buffer was
+     *         full
+     */
+    public long getDroppedCount() {
+        return pending.getDroppedCount();
+    }
+
+    /**
+     * @return the number of records received, from this process and from
+     *         others
+     */
+    public long getIngestedCount() {
+        return ingested.sum();
+    }
+
+    /**
+     * @return the number of records rejected because of their level
+     */
+    public long getFilteredCount() {
+        return filtered.sum();
+    }
+
+    /**
+     * @return the number of records suppressed by the rate limits
+     */
+    public long getSuppressedCount() {
+        return suppressedCount.sum();
+    }
+
+    /**
+     * @return the number of records folded into a previous occurrence
+     */
+    public long getFoldedCount() {
+        return foldedCount.sum();
+    }
+
+    /**
+     * @return the number of rows delivered to the viewer, including the ones
+     *         reporting dropped and suppressed records
+     */
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    /**
+     * @return the number of batches delivered to the viewer
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * @return the total time, in nanoseconds, the viewer took to take the
+     *         batches on the Event Dispatch Thread
+     */
+    public long getBatchTime() {
+        return batchTime.sum();
+    }
+
+    /**
+     * @return the time, in nanoseconds, the viewer took to take the last
+     *         batch
+     */
+    public long getLastBatchTime() {
+        return lastBatchTime;
+    }
+
+    /**
+     * @return the longest time, in nanoseconds, the viewer took to take a
+     *         batch
+     */
+    public long getMaxBatchTime() {
+        return maxBatchTime;
+    }
+
+    /**
+     * @return the number of records waiting to be delivered to the viewer
+     */
+    public int getQueueSize() {
+        return pending.size();
+    }
+
+    /**
+     * @return the maximum number of records waiting to be delivered
+     */
+    public int getQueueCapacity() {
+        return pending.capacity();
+    }
+
+    /**
+     * @return true if the buffer is at least half full, so that remote
+     *         senders should wait instead of filling it up for local records
+     */
+    @Override
+    public boolean isBusy() {
+        return pending.size() >= pending.capacity() / 2;
+    }
+
+    /**
+     * @return the policy with the given name, {@code DROP_OLDEST} if the name
+     *         is null or not a policy name, so that a mistyped property does
+     *         not prevent the handler from loading
+     */
+    private static RecordQueue.OverflowPolicy overflowPolicy(final String name) {
+        if (name != null) {
+            try {
+                return RecordQueue.OverflowPolicy.valueOf(name.trim());
+            } catch (IllegalArgumentException x) {
+                // not a policy name, use the default
+            }
+        }
+        return RecordQueue.OverflowPolicy.DROP_OLDEST;
+    }
+
+    /**
+     * Schedules a drain to report the suppressed records, if it is time to.
+     */
+    private void suppressed() {
+        suppressedCount.increment();
+        if (System.nanoTime() - nextSummary >= 0) {
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * Schedules a drain unless one is already pending or in flight. Only the
+     * producer that wins the flag schedules the task, all the others just
+     * leave their record in the buffer.
+     */
+    private void scheduleDrain() {
+        if (viewer != null && drainScheduled.compareAndSet(false, true)) {
+            drainTask.schedule(batchLatency);
+        }
+    }
+
+    /**
+     * Collects up to {@code maxBatchSize} buffered records, or all of them
+     * when replaying the records buffered before the viewer was attached, and
+     * hands them to the Event Dispatch Thread as a single batch.
+     */
+    private void drain() {
+        final boolean replaying = replay;
+        replay = false;
+        final int max = replaying ? Integer.MAX_VALUE : maxBatchSize;
+        final List<LogEntry> batch = new ArrayList<>(Math.min(max, pending.size() + 1));
+
+        final long drops = pending.getDroppedCount();
+        if (drops > reportedDrops) {
+            batch.add(LogEntry.of(
+                Level.WARNING,
+                (drops - reportedDrops) + (replaying
+                    ? " log records dropped before the viewer was opened"
+                    : " log records dropped because the viewer could not keep up")
+            ));
+            reportedDrops = drops;
+        }
+
+        final long now = System.nanoTime();
+        if (now - nextSummary >= 0) {
+            nextSummary = now + TimeUnit.MILLISECONDS.toNanos(SUMMARY_INTERVAL);
+            final String summary = rateLimits.summary(5);
+            if (summary != null) {
+                batch.add(LogEntry.of(Level.INFO, summary));
+            }
+        }
+
+        if (endBursts) {
+            endBursts = false;
+            folder.clear();
+        }
+
+        //
+        // folded entries do not count toward the batch size: a storm is
+        // drained at the pace of the distinct messages
         //
-        final String loggerName = record.getLoggerName();
-        if (loggerName != null) {
-            collectedLoggers.add(record.getLoggerName());
+        int folded = 0;
+        LogEntry entry;
+        for (int i = 0; i < max && (entry = pending.poll()) != null;) {
+            if (folder.fold(entry)) {
+                ++folded;
+            } else {
+                batch.add(entry);
+                ++i;
+            }
         }
+        foldedCount.add(folded);
 
-        if (!isLoggable(record)) {
+        if (batch.isEmpty() && folded == 0) {
+            drainDone();
             return;
         }
-        final String msg = getFormatter().format(record);
-
-        // Ensure UI updates are done on the Event Dispatch Thread
-        EventQueue.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                if (logViewerTopComponent != null) {
-                    logViewerTopComponent.logViewerPanel.appendLog(msg);
-                } else {
-                    // Try to find the TopComponent again if it was null initially
-                    logViewerTopComponent = (LogViewerTopComponent) WindowManager.getDefault().findTopComponent("LogViewerTopComponent");
-                    if (logViewerTopComponent != null) {
-                        logViewerTopComponent.logViewerPanel.appendLog(msg);
-                    }
-                }
+
+        edt.execute(() -> {
+            try {
+                deliver(batch);
+            } finally {
+                drainDone();
             }
         });
     }
 
     /**
-     * Flushes any buffered output. For this handler, messages are appended immediately,
-     * so this method does nothing.
+     * Appends a batch to the viewer. It runs on the Event Dispatch Thread. An
+     * empty batch means that only the counts of folded rows changed.
+     */
+    private void deliver(final List<LogEntry> batch) {
+        final Consumer<List<LogEntry>> v = viewer;
+        if (v != null) {
+            final long start = System.nanoTime();
+            v.accept(batch);
+            final long time = System.nanoTime() - start;
+
+            delivered.add(batch.size());
+            batches.increment();
+            batchTime.add(time);
+            lastBatchTime = time;
+            if (time > maxBatchTime) {
+                maxBatchTime = time;
+            }
+        }
+    }
+
+    /**
+     * Marks the current drain as completed and schedules the next one if
+     * records arrived in the meantime. The flag is reset before checking the
+     * buffer again so that a record added concurrently is not left behind.
+     */
+    private void drainDone() {
+        drainScheduled.set(false);
+        if (!pending.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * Flushes any buffered output, delivering it to the viewer without waiting
+     * for the batch latency to expire. A drain already waiting for the latency
+     * is brought forward; one in flight is left alone, the records will follow
+     * with the next.
      */
     @Override
     public void flush() {
-        // No-op for this handler as messages are appended immediately
+        if (viewer == null || pending.isEmpty()) {
+            return;
+        }
+        if (drainScheduled.compareAndSet(false, true) || drainTask.getDelay() > 0) {
+            drainTask.schedule(0);
+        }
     }
 
     /**
-     * Closes the handler and releases any associated resources. For this handler,
-     * there are no resources to release, so this method does nothing.
+     * Closes the handler, stopping any scheduled delivery and discarding the
+     * messages not yet delivered.
      * @throws SecurityException if a security manager exists and if the caller
      *         does not have {@code LoggingPermission("control")}.
      */
     @Override
     public void close() throws SecurityException {
-        // No-op for this handler
+        viewer = null;
+        LogStore.getDefault().removeListener(storeListener);
+        drainTask.cancel();
+        pending.clear();
     }
-}
\ No newline at end of file
+}
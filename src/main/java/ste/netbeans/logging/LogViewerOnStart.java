@@ -15,9 +15,14 @@
  */
 package ste.netbeans.logging;
 
+import java.awt.EventQueue;
+import java.io.File;
+import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
 import org.openide.modules.OnStart;
+import org.openide.modules.Places;
+import org.openide.util.RequestProcessor;
 
 /**
  * Initializes and attaches the custom {@link LogViewerHandler} to the root logger
@@ -56,15 +61,107 @@ import org.openide.modules.OnStart;
 @OnStart
 public class LogViewerOnStart implements Runnable {
 
+    private static final Logger LOG = Logger.getLogger(LogViewerOnStart.class.getName());
+    private static final RequestProcessor RP = new RequestProcessor(LogViewerOnStart.class);
+
+    /**
+     * The task starting the services that need disk or network, null before
+     * the module starts
+     */
+    private static volatile RequestProcessor.Task starting;
+
+    /**
+     * The history created by {@link #startServices}, possibly not yet set
+     * in the store
+     */
+    private static volatile SpillStore history;
+
+    /**
+     * The log window while it is open, set by the window itself, so that a
+     * handler installed afterwards can attach to it; kept here so that
+     * starting does not load the window classes
+     */
+    static volatile LogViewerTopComponent window;
+
     /**
      * This method is called when the module is loaded and restored.
      * It retrieves the root logger and adds an instance of {@link LogViewerHandler}
      * to ensure all log records are routed to the LogViewerTopComponent.
+     * If the window is already open, it is attached to the handler on the
+     * Event Dispatch Thread; otherwise nothing else happens until the window
+     * is opened: records are buffered by the handler, see
+     * {@link LogViewerHandler#attach}. Everything that touches the disk or
+     * the network is started in the background, see {@link #startServices};
+     * the time spent here is logged at {@code FINE}.
      */
     @Override
     public void run() {
         System.out.println("LogViewer OnStart");
+        final long start = System.nanoTime();
+        final LogViewerHandler handler = new LogViewerHandler();
         Logger rootLogger = LogManager.getLogManager().getLogger("");
-        rootLogger.addHandler(new LogViewerHandler());
+        rootLogger.addHandler(handler);
+        ViewerMetrics.startDefault(handler);
+
+        //
+        // the window may have been opened already, e.g. restored before
+        // this runs or when the module is reloaded
+        //
+        final LogViewerTopComponent opened = window;
+        if (opened != null) {
+            EventQueue.invokeLater(() -> opened.attach(handler));
+        }
+
+        starting = RP.post(() -> startServices(handler));
+
+        LOG.log(Level.FINE, "log viewer started in {0} us", (System.nanoTime() - start) / 1000);
+    }
+
+    /**
+     * Waits for the services started in the background, so that they can be
+     * stopped.
+     */
+    static void waitStarted() {
+        final RequestProcessor.Task task = starting;
+        if (task != null) {
+            task.waitFinished();
+        }
+    }
+
+    /**
+     * @return the history of the default store, including one created but
+     *         not yet set on the Event Dispatch Thread; null if none
+     */
+    static SpillStore history() {
+        final SpillStore created = history;
+        return (created != null) ? created : LogStore.getDefault().getHistory();
+    }
+
+    // --------------------------------------------------------- private methods
+
+    /**
+     * Records evicted from memory are spilled under the user dir, if any;
+     * the history is set on the Event Dispatch Thread, that appends to the
+     * store. Unless {@code ste.netbeans.logging.server.enabled} is false,
+     * the {@link LogStreamServer} is started to receive the records of other
+     * processes.
+     */
+    private static void startServices(final LogViewerHandler handler) {
+        final File userDir = Places.getUserDirectory();
+        if (userDir != null && LogStore.getDefault().getHistory() == null) {
+            final SpillStore created = new SpillStore(new File(userDir, SpillStore.DIRECTORY));
+            history = created;
+            EventQueue.invokeLater(() -> {
+                if (LogStore.getDefault().getHistory() == null) {
+                    LogStore.getDefault().setHistory(created);
+                }
+            });
+        }
+
+        if (Boolean.parseBoolean(System.getProperty("ste.netbeans.logging.server.enabled", "true"))) {
+            LogStreamServer.startDefault(
+                handler, (userDir == null) ? null : new File(userDir, LogStreamServer.SOCKET).toPath()
+            );
+        }
     }
-}
\ No newline at end of file
+}
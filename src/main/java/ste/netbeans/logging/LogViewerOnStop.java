@@ -16,22 +16,44 @@
 
 package ste.netbeans.logging;
 
+import java.awt.EventQueue;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Handler;
+import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
 import org.openide.modules.OnStop;
 
 /**
- *
+ * Stops the log viewer when the IDE exits: the {@link LogStreamServer} and
+ * the metrics are stopped, the handlers removed and the retained entries
+ * saved for the next session, unless the system property
+ * {@code ste.netbeans.logging.session.enabled} is false, in which case the
+ * history is deleted.
+ * <p>
+ * Delivery is stopped first; then the store is saved on the Event Dispatch
+ * Thread, which appends the entries, after any batch already posted to it,
+ * waiting for at most {@link SpillStore#DEFAULT_SAVE_TIMEOUT} milliseconds.
+ * </p>
  */
 @OnStop
 public class LogViewerOnStop implements Runnable{
+
+    private static final Logger LOG = Logger.getLogger(LogViewerOnStop.class.getName());
+
     @Override
     public void run() {
         System.out.println("LogViewer OnStop");
 
+        LogViewerOnStart.waitStarted();
+        LogStreamServer.stopDefault();
+        ViewerMetrics.stopDefault();
+
         final Logger rootLogger = LogManager.getLogManager().getLogger("");
 
         List<Handler> toRemove = new ArrayList();
@@ -41,6 +63,50 @@ public class LogViewerOnStop implements Runnable{
             }
         }
 
-        toRemove.forEach((h) -> rootLogger.removeHandler(h));
+        toRemove.forEach((h) -> {
+            rootLogger.removeHandler(h);
+            h.close();
+        });
+
+        //
+        // the history may be still on its way to the Event Dispatch Thread,
+        // where it is set before saving
+        //
+        final SpillStore history = LogViewerOnStart.history();
+        if (history != null) {
+            if (Boolean.parseBoolean(System.getProperty("ste.netbeans.logging.session.enabled", "true"))) {
+                save();
+            } else {
+                history.close();
+            }
+        }
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private void save() {
+        final long start = System.nanoTime();
+        final long timeout = SpillStore.DEFAULT_SAVE_TIMEOUT;
+        final FutureTask<Long> save = new FutureTask<>(() -> {
+            final long left = timeout - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return LogStore.getDefault().save(Math.max(1, left));
+        });
+
+        if (EventQueue.isDispatchThread()) {
+            save.run();
+        } else {
+            EventQueue.invokeLater(save);
+        }
+        try {
+            final long saved = save.get(timeout, TimeUnit.MILLISECONDS);
+            LOG.log(Level.FINE, "{0} log entries saved in {1} ms", new Object[] {saved, (System.nanoTime() - start) / 1000000});
+        } catch (TimeoutException x) {
+            save.cancel(false);
+            LOG.log(Level.INFO, "log session not saved in {0} ms", timeout);
+        } catch (ExecutionException x) {
+            LOG.log(Level.INFO, "log session not saved", x.getCause());
+        } catch (InterruptedException x) {
+            Thread.currentThread().interrupt();
+        }
     }
 }
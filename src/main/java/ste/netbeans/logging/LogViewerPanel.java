@@ -15,11 +15,36 @@
  */
 package ste.netbeans.logging;
 
+import java.awt.EventQueue;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
-import javax.swing.text.BadLocationException;
-import javax.swing.text.Document;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import javax.swing.JFileChooser;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import org.netbeans.api.progress.ProgressHandle;
+import org.openide.modules.Places;
+import org.openide.util.NbBundle;
+import org.openide.util.RequestProcessor;
 
 /**
  *
@@ -27,11 +52,138 @@ import javax.swing.text.Document;
  */
 public class LogViewerPanel extends javax.swing.JPanel {
 
+    /**
+     * The property fired when the title, which describes the filter, changes
+     */
+    public static final String PROP_TITLE = "title";
+
+    /**
+     * The retained log entries; the list renders only the rows in its viewport
+     * so paint cost does not depend on how many entries are retained.
+     */
+    public final LogListModel logModel = new LogListModel();
+
+    /**
+     * Formats the rows being painted, see {@link LogEntryRenderer}
+     */
+    public final LogEntryRenderer logRenderer = new LogEntryRenderer();
+
+    /**
+     * The hits of the text in the find field; hit rows are highlighted
+     */
+    public final LogSearch logSearch = new LogSearch(SearchIndex.getDefault());
+
+    private static final RequestProcessor EXPORTER = new RequestProcessor(LogExporter.class);
+
+    private int charWidth;
+
+    /**
+     * Sequence number of the hit last moved to, -1 if none
+     */
+    private long currentHit = -1;
+
+    /**
+     * Applies the filter shortly after the user stops typing
+     */
+    private final Timer filterTimer = new Timer(250, (e) -> applyFilter());
+
+    /**
+     * Reports the progress of filtering the retained entries
+     */
+    private final Timer filterStatusTimer = new Timer(100, (e) -> updateFilterStatus());
+
+    /**
+     * Starts searching shortly after the user stops typing
+     */
+    private final Timer searchTimer = new Timer(250, (e) -> search());
+
+    /**
+     * Refreshes the status strip with the {@link ViewerMetrics} while the
+     * panel is showing
+     */
+    private final Timer metricsTimer = new Timer(ViewerMetrics.INTERVAL, (e) -> updateMetrics());
+
     /**
      * Creates new form LogViwerPanel
      */
     public LogViewerPanel() {
         initComponents();
+
+        //
+        // fixed cell sizes spare the list from measuring every row
+        //
+        logList.setFont(new Font(Font.MONOSPACED, Font.PLAIN, logList.getFont().getSize()));
+        final FontMetrics fm = logList.getFontMetrics(logList.getFont());
+        charWidth = fm.charWidth('m');
+        logList.setFixedCellHeight(fm.getHeight());
+        logList.setCellRenderer(logRenderer);
+        logRenderer.setOnWider(this::updateCellWidth);
+        updateCellWidth();
+
+        new LoggerNameCompletion(loggerNameField, LoggerRegistry.getDefault());
+
+        logList.addListSelectionListener((e) -> {
+            if (!e.getValueIsAdjusting()) {
+                showDetails();
+            }
+        });
+
+        filterTimer.setRepeats(false);
+        final DocumentListener filterChanged = new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                filterTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                filterTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        };
+        filterLoggerField.getDocument().addDocumentListener(filterChanged);
+        filterThreadField.getDocument().addDocumentListener(filterChanged);
+        filterMessageField.getDocument().addDocumentListener(filterChanged);
+        filterLevelComboBox.addActionListener((e) -> applyFilter());
+
+        timeline.setOnSelect(this::moveTo);
+
+        //
+        // a hidden tab stops following the store and catches up when shown
+        //
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentShown(ComponentEvent e) {
+                resume();
+            }
+
+            @Override
+            public void componentHidden(ComponentEvent e) {
+                suspend();
+            }
+        });
+
+        logRenderer.setHighlighted(logSearch::isHit);
+        logSearch.setOnChange(this::searchChanged);
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
     }
 
     /**
@@ -50,7 +202,32 @@ public class LogViewerPanel extends javax.swing.JPanel {
         logLevelComboBox = new javax.swing.JComboBox<>();
         applyButton = new javax.swing.JButton();
         clearButton = new javax.swing.JButton();
+        exportButton = new javax.swing.JButton();
+        openFileButton = new javax.swing.JButton();
+        filterPanel = new javax.swing.JPanel();
+        jLabel3 = new javax.swing.JLabel();
+        filterLoggerField = new javax.swing.JTextField();
+        jLabel4 = new javax.swing.JLabel();
+        filterLevelComboBox = new javax.swing.JComboBox<>();
+        jLabel5 = new javax.swing.JLabel();
+        filterThreadField = new javax.swing.JTextField();
+        jLabel6 = new javax.swing.JLabel();
+        filterMessageField = new javax.swing.JTextField();
+        newViewButton = new javax.swing.JButton();
+        filterStatusLabel = new javax.swing.JLabel();
+        searchPanel = new javax.swing.JPanel();
+        jLabel7 = new javax.swing.JLabel();
+        searchField = new javax.swing.JTextField();
+        findPreviousButton = new javax.swing.JButton();
+        findNextButton = new javax.swing.JButton();
+        searchStatusLabel = new javax.swing.JLabel();
+        timeline = new LogTimeline(logModel.getStore());
+        logSplitPane = new javax.swing.JSplitPane();
         logTextScrollPane = new javax.swing.JScrollPane();
+        detailScrollPane = new javax.swing.JScrollPane();
+        detailTextArea = new javax.swing.JTextArea();
+        statusPanel = new javax.swing.JPanel();
+        metricsLabel = new javax.swing.JLabel();
 
         setLayout(new javax.swing.BoxLayout(this, javax.swing.BoxLayout.Y_AXIS));
 
@@ -93,22 +270,222 @@ public class LogViewerPanel extends javax.swing.JPanel {
         });
         controlPanel.add(clearButton);
 
+        org.openide.awt.Mnemonics.setLocalizedText(exportButton, org.openide.util.NbBundle.getMessage(LogViewerPanel.class, "LogViwerPanel.exportButton.text")); // NOI18N
+        exportButton.setHorizontalTextPosition(javax.swing.SwingConstants.CENTER);
+        exportButton.setName("exportButton"); // NOI18N
+        exportButton.setVerticalTextPosition(javax.swing.SwingConstants.BOTTOM);
+        exportButton.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                exportButtonActionPerformed(evt);
+            }
+        });
+        controlPanel.add(exportButton);
+
+        org.openide.awt.Mnemonics.setLocalizedText(openFileButton, org.openide.util.NbBundle.getMessage(LogViewerPanel.class, "LogViwerPanel.openFileButton.text")); // NOI18N
+        openFileButton.setHorizontalTextPosition(javax.swing.SwingConstants.CENTER);
+        openFileButton.setName("openFileButton"); // NOI18N
+        openFileButton.setVerticalTextPosition(javax.swing.SwingConstants.BOTTOM);
+        openFileButton.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                openFileButtonActionPerformed(evt);
+            }
+        });
+        controlPanel.add(openFileButton);
+
         add(controlPanel);
 
-        logTextArea.setEditable(false);
-        logTextArea.setName("logText"); // NOI18N
-        logTextScrollPane.setViewportView(logTextArea);
+        filterPanel.setAlignmentY(0.0F);
+        filterPanel.setMaximumSize(new java.awt.Dimension(32767, 3));
+        filterPanel.setLayout(new java.awt.FlowLayout(java.awt.FlowLayout.LEFT));
 
-        add(logTextScrollPane);
+        org.openide.awt.Mnemonics.setLocalizedText(jLabel3, org.openide.util.NbBundle.getMessage(LogViewerPanel.class, "LogViwerPanel.jLabel3.text")); // NOI18N
+        filterPanel.add(jLabel3);
+
+        filterLoggerField.setName("filterLoggerField"); // NOI18N
+        filterLoggerField.setPreferredSize(new java.awt.Dimension(200, 23));
+        filterPanel.add(filterLoggerField);
+
+        org.openide.awt.Mnemonics.setLocalizedText(jLabel4, org.openide.util.NbBundle.getMessage(LogViewerPanel.class, "LogViwerPanel.jLabel4.text")); // NOI18N
+        filterPanel.add(jLabel4);
+
+        filterLevelComboBox.setModel(new javax.swing.DefaultComboBoxModel<>(new String[] { "ALL", "FINEST", "FINER", "FINE", "CONFIG", "INFO", "WARNING", "SEVERE" }));
+        filterLevelComboBox.setName("filterLevelComboBox"); // NOI18N
+        filterPanel.add(filterLevelComboBox);
+
+        org.openide.awt.Mnemonics.setLocalizedText(jLabel5, org.openide.util.NbBundle.getMessage(LogViewerPanel.class, "LogViwerPanel.jLabel5.text")); // NOI18N
+        filterPanel.add(jLabel5);
+
+        filterThreadField.setName("filterThreadField"); // NOI18N
+        filterThreadField.setPreferredSize(new java.awt.Dimension(60, 23));
+        filterPanel.add(filterThreadField);
+
+        org.openide.awt.Mnemonics.setLocalizedText(jLabel6, org.openide.util.NbBundle.getMessage(LogViewerPanel.class, "LogViwerPanel.jLabel6.text")); // NOI18N
+        filterPanel.add(jLabel6);
+
+        filterMessageField.setName("filterMessageField"); // NOI18N
+        filterMessageField.setPreferredSize(new java.awt.Dimension(200, 23));
+        filterPanel.add(filterMessageField);
+
+        org.openide.awt.Mnemonics.setLocalizedText(newViewButton, org.openide.util.NbBundle.getMessage(LogViewerPanel.class, "LogViwerPanel.newViewButton.text")); // NOI18N
+        newViewButton.setName("newViewButton"); // NOI18N
+        newViewButton.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                newViewButtonActionPerformed(evt);
+            }
+        });
+        filterPanel.add(newViewButton);
+
+        filterStatusLabel.setName("filterStatusLabel"); // NOI18N
+        filterPanel.add(filterStatusLabel);
+
+        add(filterPanel);
+
+        searchPanel.setAlignmentY(0.0F);
+        searchPanel.setMaximumSize(new java.awt.Dimension(32767, 3));
+        searchPanel.setLayout(new java.awt.FlowLayout(java.awt.FlowLayout.LEFT));
+
+        org.openide.awt.Mnemonics.setLocalizedText(jLabel7, org.openide.util.NbBundle.getMessage(LogViewerPanel.class, "LogViwerPanel.jLabel7.text")); // NOI18N
+        searchPanel.add(jLabel7);
+
+        searchField.setName("searchField"); // NOI18N
+        searchField.setPreferredSize(new java.awt.Dimension(200, 23));
+        searchField.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                searchFieldActionPerformed(evt);
+            }
+        });
+        searchPanel.add(searchField);
+
+        org.openide.awt.Mnemonics.setLocalizedText(findPreviousButton, org.openide.util.NbBundle.getMessage(LogViewerPanel.class, "LogViwerPanel.findPreviousButton.text")); // NOI18N
+        findPreviousButton.setName("findPreviousButton"); // NOI18N
+        findPreviousButton.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                findPreviousButtonActionPerformed(evt);
+            }
+        });
+        searchPanel.add(findPreviousButton);
+
+        org.openide.awt.Mnemonics.setLocalizedText(findNextButton, org.openide.util.NbBundle.getMessage(LogViewerPanel.class, "LogViwerPanel.findNextButton.text")); // NOI18N
+        findNextButton.setName("findNextButton"); // NOI18N
+        findNextButton.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                findNextButtonActionPerformed(evt);
+            }
+        });
+        searchPanel.add(findNextButton);
+
+        searchStatusLabel.setName("searchStatusLabel"); // NOI18N
+        searchPanel.add(searchStatusLabel);
+
+        add(searchPanel);
+
+        timeline.setName("timeline"); // NOI18N
+        add(timeline);
+
+        logSplitPane.setOrientation(javax.swing.JSplitPane.VERTICAL_SPLIT);
+        logSplitPane.setResizeWeight(0.8);
+
+        logList.setName("logList"); // NOI18N
+        logTextScrollPane.setViewportView(logList);
+
+        logSplitPane.setTopComponent(logTextScrollPane);
+
+        detailTextArea.setEditable(false);
+        detailTextArea.setRows(6);
+        detailTextArea.setName("detailText"); // NOI18N
+        detailScrollPane.setViewportView(detailTextArea);
+
+        logSplitPane.setBottomComponent(detailScrollPane);
+
+        add(logSplitPane);
+
+        statusPanel.setAlignmentY(0.0F);
+        statusPanel.setMaximumSize(new java.awt.Dimension(32767, 3));
+        statusPanel.setLayout(new java.awt.FlowLayout(java.awt.FlowLayout.LEFT));
+
+        metricsLabel.setName("metricsLabel"); // NOI18N
+        statusPanel.add(metricsLabel);
+
+        add(statusPanel);
     }// </editor-fold>//GEN-END:initComponents
 
     private void clearButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_clearButtonActionPerformed
-        logTextArea.setText("");
+        logModel.getStore().clear();
+        logRenderer.clear();
+        updateCellWidth();
     }//GEN-LAST:event_clearButtonActionPerformed
 
+    /**
+     * Asks for a file and exports the entries shown by the view to it; the
+     * format is given by the chosen file type or by the file extension.
+     */
+    private void exportButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_exportButtonActionPerformed
+        final JFileChooser chooser = new JFileChooser();
+        chooser.setAcceptAllFileFilterUsed(false);
+        for (LogExporter.Format format: LogExporter.Format.values()) {
+            chooser.addChoosableFileFilter(new FileNameExtensionFilter(
+                NbBundle.getMessage(LogViewerPanel.class, "LogViwerPanel.export." + format.name()),
+                format.extension.substring(format.extension.lastIndexOf('.') + 1)
+            ));
+        }
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        final LogExporter.Format format = LogExporter.Format.values()[
+            Arrays.asList(chooser.getChoosableFileFilters()).indexOf(chooser.getFileFilter())
+        ];
+        String name = chooser.getSelectedFile().getName();
+        if (LogExporter.Format.of(name) != format || name.indexOf('.') < 0) {
+            name += format.extension;
+        }
+        export(chooser.getSelectedFile().toPath().resolveSibling(name), format);
+    }//GEN-LAST:event_exportButtonActionPerformed
+
+    /**
+     * Asks for a log file and shows it in a new tab of the enclosing window,
+     * following what is appended to it. The IDE's own log directory is
+     * proposed, with {@code messages.log} selected.
+     */
+    private void openFileButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_openFileButtonActionPerformed
+        final LogViewerTopComponent window = (LogViewerTopComponent) SwingUtilities.getAncestorOfClass(
+            LogViewerTopComponent.class, this
+        );
+        if (window == null) {
+            return;
+        }
+
+        final JFileChooser chooser = new JFileChooser();
+        final File userDir = Places.getUserDirectory();
+        if (userDir != null) {
+            final File logDir = new File(userDir, "var/log");
+            chooser.setCurrentDirectory(logDir);
+            chooser.setSelectedFile(new File(logDir, "messages.log"));
+        }
+        if (chooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+            window.openFile(chooser.getSelectedFile().toPath());
+        }
+    }//GEN-LAST:event_openFileButtonActionPerformed
+
+    /**
+     * Opens a new view of the same entries in a new tab of the enclosing
+     * window, starting with the filter of this one.
+     */
+    private void newViewButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_newViewButtonActionPerformed
+        final LogViewerTopComponent window = (LogViewerTopComponent) SwingUtilities.getAncestorOfClass(
+            LogViewerTopComponent.class, this
+        );
+        if (window != null) {
+            window.openView(newView());
+        }
+    }//GEN-LAST:event_newViewButtonActionPerformed
+
     /**
      * Applies the logging configuration based on user input.
      * Retrieves the logger name and level from the UI, and sets the logger's level.
+     * The same level becomes the display level of the logger subtree, so that
+     * records below it are discarded by the handler even if a descendant
+     * logger lets them through.
      * Provides feedback in the log area if the logger name is empty or the configuration is applied.
      */
     private void applyButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_applyButtonActionPerformed
@@ -128,22 +505,412 @@ public class LogViewerPanel extends javax.swing.JPanel {
 
         Level newLevel = Level.parse(levelString);
         logger.setLevel(newLevel);
+        DisplayLevels.getDefault().setLevel(loggerName, newLevel);
 
         appendLog("Configuration applied: Logger '" + loggerName + "' set to level " + newLevel.getName() + "\n");
     }//GEN-LAST:event_applyButtonActionPerformed
 
+    private void searchFieldActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_searchFieldActionPerformed
+        find(true);
+    }//GEN-LAST:event_searchFieldActionPerformed
+
+    private void findPreviousButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_findPreviousButtonActionPerformed
+        find(false);
+    }//GEN-LAST:event_findPreviousButtonActionPerformed
+
+    private void findNextButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_findNextButtonActionPerformed
+        find(true);
+    }//GEN-LAST:event_findNextButtonActionPerformed
+
     /**
-     * Appends a new log message to the log display area.
-     * The text area automatically scrolls to the end to show the latest message.
+     * Appends a message produced by the viewer itself to the log display area.
      * @param message The log message to append.
      */
     public void appendLog(final String message) {
-        try {
-            Document doc = logTextArea.getDocument();
-            doc.insertString(doc.getLength(), message, null);
-            logTextArea.setCaretPosition(doc.getLength());
-        } catch (BadLocationException ex) {
-            // ignore
+        appendLogs(List.of(LogEntry.of(Level.INFO, message.stripTrailing())));
+    }
+
+    /**
+     * Appends a batch of log entries to the log display area.
+     * The list automatically scrolls to the end to show the latest entry.
+     * The batch is added to the model with a single update and followed by a
+     * single scroll; entries are formatted only when their row is painted.
+     * An empty batch repaints the rows, as the counts of folded entries may
+     * have changed.
+     * @param entries The log entries to append.
+     */
+    public void appendLogs(final List<LogEntry> entries) {
+        if (entries.isEmpty()) {
+            logList.repaint();
+            return;
+        }
+
+        logModel.getStore().addAll(entries);
+        if (logModel.getSize() > 0) {
+            logList.ensureIndexIsVisible(logModel.getSize() - 1);
+        }
+    }
+
+    /**
+     * Exports the entries currently shown by the view in the background,
+     * with a cancellable progress bar; the outcome is reported in the log.
+     *
+     * @param file the file to write
+     * @param format the file format
+     */
+    private void export(final Path file, final LogExporter.Format format) {
+        final LogStore store = logModel.getStore();
+        final LogFilter filter = logModel.getFilter();
+        final long from = store.first(), to = store.end();
+        final int total = (int) Math.min(Integer.MAX_VALUE, to - from);
+
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final ProgressHandle progress = ProgressHandle.createHandle(
+            NbBundle.getMessage(LogViewerPanel.class, "LogViwerPanel.export.progress", file.getFileName()),
+            () -> {
+                cancelled.set(true);
+                return true;
+            }
+        );
+
+        EXPORTER.post(() -> {
+            progress.start(Math.max(1, total));
+            Level level = Level.INFO;
+            String message;
+            try {
+                final long n = LogExporter.export(
+                    store, filter, from, to, file, format, cancelled::get,
+                    (done) -> progress.progress((int) Math.min(total, done))
+                );
+                message = cancelled.get()
+                        ? NbBundle.getMessage(LogViewerPanel.class, "LogViwerPanel.export.cancelled", file)
+                        : NbBundle.getMessage(LogViewerPanel.class, "LogViwerPanel.export.done", n, file);
+            } catch (IOException x) {
+                level = Level.WARNING;
+                message = NbBundle.getMessage(LogViewerPanel.class, "LogViwerPanel.export.failed", file, x.getMessage());
+            } finally {
+                progress.finish();
+            }
+
+            final LogEntry result = LogEntry.of(level, message);
+            EventQueue.invokeLater(() -> appendLogs(List.of(result)));
+        });
+    }
+
+    /**
+     * Builds a filter from the filter fields and applies it to the view. If a
+     * field is not valid, the current filter is kept and the problem is shown
+     * next to the fields.
+     */
+    private void applyFilter() {
+        filterTimer.stop();
+
+        long threadId = LogFilter.ANY_THREAD;
+        final String thread = filterThreadField.getText().trim();
+        if (!thread.isEmpty()) {
+            try {
+                threadId = Long.parseLong(thread);
+            } catch (NumberFormatException x) {
+                filterStatusLabel.setText(NbBundle.getMessage(LogViewerPanel.class, "LogViwerPanel.filter.invalidThread"));
+                return;
+            }
+        }
+
+        Pattern pattern = null;
+        final String message = filterMessageField.getText();
+        if (!message.isEmpty()) {
+            try {
+                pattern = Pattern.compile(message);
+            } catch (PatternSyntaxException x) {
+                filterStatusLabel.setText(NbBundle.getMessage(LogViewerPanel.class, "LogViwerPanel.filter.invalidPattern", x.getDescription()));
+                return;
+            }
+        }
+
+        final String level = (String) filterLevelComboBox.getSelectedItem();
+        final String oldTitle = getTitle();
+        logModel.setFilter(new LogFilter(
+            filterLoggerField.getText().trim(),
+            "ALL".equals(level) ? null : Level.parse(level),
+            threadId, pattern
+        ));
+        firePropertyChange(PROP_TITLE, oldTitle, getTitle());
+        updateFilterStatus();
+        if (logModel.isFiltering()) {
+            filterStatusTimer.start();
+        }
+    }
+
+    /**
+     * Shows how many entries match the filter and if the retained entries are
+     * still being filtered.
+     */
+    private void updateFilterStatus() {
+        final boolean filtering = logModel.isFiltering();
+        if (!filtering) {
+            filterStatusTimer.stop();
+        }
+        filterStatusLabel.setText(
+            logModel.getFilter().isAll()
+            ? ""
+            : NbBundle.getMessage(LogViewerPanel.class,
+                filtering ? "LogViwerPanel.filter.running" : "LogViwerPanel.filter.done",
+                logModel.getSize()
+              )
+        );
+    }
+
+    /**
+     * Selects the next (or previous) hit shown by the view, starting from the
+     * selected row. If the text in the find field changed since the last
+     * search, a new search is started instead; the first hit is selected as
+     * soon as it is found.
+     *
+     * @param forward true to move forward, false to move backward
+     */
+    private void find(final boolean forward) {
+        if (search()) {
+            return;
+        }
+
+        final int selected = logList.getSelectedIndex();
+        final long from = (selected >= 0) ? logModel.seqAt(selected) : currentHit;
+        final long hit = logSearch.next(from, forward, (seq) -> logModel.indexOf(seq) >= 0);
+        if (hit >= 0) {
+            final int row = logModel.indexOf(hit);
+            currentHit = hit;
+            logList.setSelectedIndex(row);
+            logList.ensureIndexIsVisible(row);
+        }
+        updateSearchStatus();
+    }
+
+    /**
+     * Starts a new search if the text in the find field changed since the
+     * last search.
+     *
+     * @return true if a new search was started
+     */
+    private boolean search() {
+        searchTimer.stop();
+        if (searchField.getText().toLowerCase(Locale.ROOT).equals(logSearch.getQuery())) {
+            return false;
+        }
+        currentHit = -1;
+        logSearch.setQuery(searchField.getText());
+        return true;
+    }
+
+    /**
+     * Called when hits are added or removed: moves to the first hit of a new
+     * search and repaints the highlighted rows.
+     */
+    private void searchChanged() {
+        if (currentHit < 0 && !logSearch.isSearching() && logSearch.getHitCount() > 0) {
+            find(true);
+        }
+        updateSearchStatus();
+        logList.repaint();
+    }
+
+    /**
+     * Shows the number of hits and which one is selected.
+     */
+    private void updateSearchStatus() {
+        final String text;
+        if (logSearch.getQuery().isEmpty()) {
+            text = "";
+        } else if (logSearch.isSearching()) {
+            text = NbBundle.getMessage(LogViewerPanel.class, "LogViwerPanel.search.running");
+        } else if (logSearch.getHitCount() == 0) {
+            text = NbBundle.getMessage(LogViewerPanel.class, "LogViwerPanel.search.notFound");
+        } else {
+            final int position = (currentHit < 0) ? 0 : logSearch.positionOf(currentHit);
+            text = (position == 0)
+                 ? NbBundle.getMessage(LogViewerPanel.class, "LogViwerPanel.search.hits", logSearch.getHitCount())
+                 : NbBundle.getMessage(LogViewerPanel.class, "LogViwerPanel.search.position", position, logSearch.getHitCount());
+        }
+        searchStatusLabel.setText(text);
+    }
+
+    /**
+     * @return a short description of the filter, the title of the tab
+     */
+    public String getTitle() {
+        final LogFilter filter = logModel.getFilter();
+        if (filter.isAll()) {
+            return NbBundle.getMessage(LogViewerPanel.class, "LogViwerPanel.view.all");
+        }
+
+        final List<String> parts = new ArrayList<>();
+        if (filter.loggerPrefix != null) {
+            parts.add(filter.loggerPrefix);
+        }
+        if (filter.minLevel != null) {
+            parts.add("\u2265 " + filter.minLevel.getName());
+        }
+        if (filter.threadId != LogFilter.ANY_THREAD) {
+            parts.add(NbBundle.getMessage(LogViewerPanel.class, "LogViwerPanel.view.thread", filter.threadId));
+        }
+        if (filter.messagePattern != null) {
+            parts.add("/" + filter.messagePattern.pattern() + "/");
+        }
+        return String.join(" ", parts);
+    }
+
+    /**
+     * Creates another view of the entries shown by this panel, with the same
+     * filter. Views share the {@link LogStore}, each keeping only the
+     * sequence numbers of its rows; unlike this panel, which is fed by
+     * {@link #appendLogs(List)}, a view scrolls to the newest rows as the
+     * store grows.
+     *
+     * @return the new view
+     */
+    LogViewerPanel newView() {
+        final LogViewerPanel view = new LogViewerPanel();
+        view.filterLoggerField.setText(filterLoggerField.getText());
+        view.filterLevelComboBox.setSelectedItem(filterLevelComboBox.getSelectedItem());
+        view.filterThreadField.setText(filterThreadField.getText());
+        view.filterMessageField.setText(filterMessageField.getText());
+        view.applyFilter();
+
+        view.logModel.addListDataListener(new ListDataListener() {
+            @Override
+            public void intervalAdded(ListDataEvent e) {
+                if (e.getIndex1() == view.logModel.getSize() - 1) {
+                    view.logList.ensureIndexIsVisible(e.getIndex1());
+                }
+            }
+
+            @Override
+            public void intervalRemoved(ListDataEvent e) {
+            }
+
+            @Override
+            public void contentsChanged(ListDataEvent e) {
+            }
+        });
+
+        return view;
+    }
+
+    /**
+     * Stops following the store while the panel is not shown, so that
+     * appending entries does not cost anything for it; see
+     * {@link LogListModel#suspend()} and {@link LogSearch#suspend()}.
+     */
+    public void suspend() {
+        logModel.suspend();
+        logSearch.suspend();
+        timeline.suspend();
+    }
+
+    /**
+     * Catches up with the entries appended and evicted while suspended and
+     * follows the store again.
+     */
+    public void resume() {
+        logModel.resume();
+        logSearch.resume();
+        timeline.resume();
+        updateFilterStatus();
+    }
+
+    /**
+     * Releases what the panel holds in the store and in the search index;
+     * the panel can not be used anymore.
+     */
+    public void dispose() {
+        filterTimer.stop();
+        filterStatusTimer.stop();
+        searchTimer.stop();
+        metricsTimer.stop();
+        logModel.dispose();
+        logSearch.dispose();
+        timeline.suspend();
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (!isVisible()) {
+            suspend();
+        }
+        updateMetrics();
+        metricsTimer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        metricsTimer.stop();
+        super.removeNotify();
+    }
+
+    /**
+     * Shows the rates of the records ingested, filtered, suppressed, dropped
+     * and rendered, the queue depth, the time of the last batch on the Event
+     * Dispatch Thread and the retained entries; the busiest loggers are in
+     * the tooltip.
+     */
+    private void updateMetrics() {
+        final ViewerMetrics m = ViewerMetrics.getDefault();
+        if (m == null) {
+            metricsLabel.setText("");
+            metricsLabel.setToolTipText(null);
+            return;
+        }
+        metricsLabel.setText(NbBundle.getMessage(
+            LogViewerPanel.class, "LogViwerPanel.metrics",
+            new Object[] {
+                Math.round(m.getIngestedRate()), Math.round(m.getFilteredRate()),
+                Math.round(m.getSuppressedRate()), Math.round(m.getDroppedRate()),
+                Math.round(m.getRenderedRate()), m.getQueueSize(), m.getQueueCapacity(),
+                m.getLastBatchMillis(), m.getRetainedCount(),
+                m.getEstimatedMemory() / (1024 * 1024)
+            }
+        ));
+        final String[] top = m.getTopTalkers();
+        metricsLabel.setToolTipText((top.length == 0) ? null : NbBundle.getMessage(
+            LogViewerPanel.class, "LogViwerPanel.metrics.top", String.join(", ", top)
+        ));
+    }
+
+    /**
+     * Selects and shows the row of the entry with the given sequence number
+     * or, if it is filtered out, the next shown one.
+     */
+    private void moveTo(final long seq) {
+        final int size = logModel.getSize();
+        if (size == 0) {
+            return;
+        }
+        int row = logModel.indexOf(seq);
+        if (row < 0) {
+            row = Math.min(-row - 1, size - 1);
+        }
+        logList.setSelectedIndex(row);
+        logList.ensureIndexIsVisible(row);
+    }
+
+    /**
+     * Shows the whole message and stack trace of the selected entry, if any,
+     * and the occurrences folded into it.
+     */
+    private void showDetails() {
+        final LogEntry entry = logList.getSelectedValue();
+        detailTextArea.setText((entry == null) ? "" : LogEntryFormatter.formatBurst(entry));
+        detailTextArea.setCaretPosition(0);
+    }
+
+    /**
+     * Makes rows wide enough for the longest row formatted so far, so that
+     * the horizontal scroll bar reaches the end of every row.
+     */
+    private void updateCellWidth() {
+        final int width = (logRenderer.getMaxLength() + 1) * charWidth;
+        if (width != logList.getFixedCellWidth()) {
+            logList.setFixedCellWidth(width);
         }
     }
 
@@ -151,11 +918,36 @@ public class LogViewerPanel extends javax.swing.JPanel {
     private javax.swing.JButton applyButton;
     private javax.swing.JButton clearButton;
     private javax.swing.JPanel controlPanel;
+    private javax.swing.JScrollPane detailScrollPane;
+    private javax.swing.JTextArea detailTextArea;
+    private javax.swing.JButton exportButton;
+    private javax.swing.JComboBox<String> filterLevelComboBox;
+    private javax.swing.JTextField filterLoggerField;
+    private javax.swing.JTextField filterMessageField;
+    private javax.swing.JPanel filterPanel;
+    private javax.swing.JLabel filterStatusLabel;
+    private javax.swing.JTextField filterThreadField;
+    private javax.swing.JButton findNextButton;
+    private javax.swing.JButton findPreviousButton;
     private javax.swing.JLabel jLabel1;
     private javax.swing.JLabel jLabel2;
+    private javax.swing.JLabel jLabel3;
+    private javax.swing.JLabel jLabel4;
+    private javax.swing.JLabel jLabel5;
+    private javax.swing.JLabel jLabel6;
+    private javax.swing.JLabel jLabel7;
     private javax.swing.JComboBox<String> logLevelComboBox;
-    public final javax.swing.JEditorPane logTextArea = new javax.swing.JEditorPane();
+    public final javax.swing.JList<LogEntry> logList = new javax.swing.JList<>(logModel);
+    private javax.swing.JSplitPane logSplitPane;
     private javax.swing.JScrollPane logTextScrollPane;
     private javax.swing.JTextField loggerNameField;
+    private javax.swing.JLabel metricsLabel;
+    private javax.swing.JButton newViewButton;
+    private javax.swing.JButton openFileButton;
+    private javax.swing.JTextField searchField;
+    private javax.swing.JPanel searchPanel;
+    private javax.swing.JLabel searchStatusLabel;
+    private javax.swing.JPanel statusPanel;
+    private ste.netbeans.logging.LogTimeline timeline;
     // End of variables declaration//GEN-END:variables
 }
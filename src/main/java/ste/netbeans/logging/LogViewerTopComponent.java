@@ -21,7 +21,15 @@ import org.openide.windows.TopComponent;
 import org.openide.util.NbBundle.Messages;
 
 import java.awt.BorderLayout;
+import java.awt.Component;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Handler;
+import java.util.logging.LogManager;
+import javax.swing.JTabbedPane;
 import org.openide.awt.ActionReference;
+import org.openide.awt.TabbedPaneFactory;
 
 /**
  * Top component which displays log messages and allows runtime configuration
@@ -46,12 +54,23 @@ import org.openide.awt.ActionReference;
 @Messages({
     "CTL_LogViewerAction=Show Log Viewer",
     "CTL_LogViewerTopComponent=Log Viewer Window",
-    "HINT_LogViewerTopComponent=This is a Log Viewer window"
+    "HINT_LogViewerTopComponent=This is a Log Viewer window",
+    "CTL_LogViewerTab=IDE Log"
 })
 public final class LogViewerTopComponent extends TopComponent {
 
     public final LogViewerPanel logViewerPanel = new LogViewerPanel();
 
+    /**
+     * Receives the batches of the handlers; always the same object, so
+     * that attaching again is recognized, see {@link LogViewerHandler#attach}
+     */
+    private final Consumer<List<LogEntry>> viewer = logViewerPanel::appendLogs;
+    /**
+     * The live log first, then the other views of it and the followed files
+     */
+    private final JTabbedPane tabs = TabbedPaneFactory.createCloseButtonTabbedPane();
+
     /**
      * Constructs a new {@code LogViewerTopComponent}.
      * Initializes the UI components and sets the component's name and tooltip.
@@ -66,7 +85,93 @@ public final class LogViewerTopComponent extends TopComponent {
     private void initComponents() {
         setLayout(new BorderLayout());
 
-        add(logViewerPanel, BorderLayout.CENTER);
+        logViewerPanel.putClientProperty(TabbedPaneFactory.NO_CLOSE_BUTTON, Boolean.TRUE);
+        tabs.addTab(Bundle.CTL_LogViewerTab(), logViewerPanel);
+        tabs.addPropertyChangeListener(TabbedPaneFactory.PROP_CLOSE, (e) -> {
+            final Component tab = (Component) e.getNewValue();
+            if (tab instanceof LogFilePanel) {
+                ((LogFilePanel) tab).close();
+                tabs.remove(tab);
+            } else if (tab instanceof LogViewerPanel && tab != logViewerPanel) {
+                ((LogViewerPanel) tab).dispose();
+                tabs.remove(tab);
+            }
+        });
+
+        add(tabs, BorderLayout.CENTER);
+    }
+
+    /**
+     * Attaches the panel to the {@link LogViewerHandler}s of the root logger,
+     * which replay the records buffered since the IDE started.
+     */
+    @Override
+    protected void componentOpened() {
+        LogViewerOnStart.window = this;
+        for (Handler h: LogManager.getLogManager().getLogger("").getHandlers()) {
+            if (h instanceof LogViewerHandler) {
+                attach((LogViewerHandler) h);
+            }
+        }
+    }
+
+    @Override
+    protected void componentClosed() {
+        if (LogViewerOnStart.window == this) {
+            LogViewerOnStart.window = null;
+        }
+    }
+
+    /**
+     * Attaches the panel to the given handler, for example one installed
+     * after the window was opened; it does nothing if already attached.
+     *
+     * @param handler the handler - NOT NULL
+     */
+    void attach(final LogViewerHandler handler) {
+        handler.attach(viewer);
+        final ViewerMetrics metrics = ViewerMetrics.getDefault();
+        if (metrics != null) {
+            metrics.resume();
+        }
+    }
+
+    /**
+     * Shows the given file in its own tab, following what is appended to it.
+     * If the file is already shown, its tab is selected.
+     *
+     * @param file the file to show - NOT NULL
+     */
+    public void openFile(final Path file) {
+        final Path path = file.toAbsolutePath().normalize();
+        for (int i = 0; i < tabs.getTabCount(); ++i) {
+            final Component tab = tabs.getComponentAt(i);
+            if (tab instanceof LogFilePanel && ((LogFilePanel) tab).getFile().equals(path)) {
+                tabs.setSelectedIndex(i);
+                return;
+            }
+        }
+
+        final LogFilePanel panel = new LogFilePanel(path);
+        tabs.addTab(String.valueOf(path.getFileName()), null, panel, path.toString());
+        tabs.setSelectedComponent(panel);
+    }
+
+    /**
+     * Shows another view of the live log in its own tab, titled after its
+     * filter, and selects it.
+     *
+     * @param view the view to show - NOT NULL
+     */
+    public void openView(final LogViewerPanel view) {
+        tabs.addTab(view.getTitle(), view);
+        view.addPropertyChangeListener(LogViewerPanel.PROP_TITLE, (e) -> {
+            final int i = tabs.indexOfComponent(view);
+            if (i >= 0) {
+                tabs.setTitleAt(i, (String) e.getNewValue());
+            }
+        });
+        tabs.setSelectedComponent(view);
     }
 
     /**
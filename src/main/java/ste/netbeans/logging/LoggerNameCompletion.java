@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.awt.Component;
+import java.awt.EventQueue;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import javax.swing.AbstractAction;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.DefaultListModel;
+import javax.swing.JComponent;
+import javax.swing.JList;
+import javax.swing.JPopupMenu;
+import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.KeyStroke;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+/**
+ * Offers the names known to a {@link LoggerRegistry} as completions for a text
+ * field, with the number of records each logger produced so far.
+ * <p>
+ * While the user types, a popup lists the loggers whose name starts with the
+ * field text; up and down move the selection, enter or a click picks it and
+ * escape closes the popup.
+ * </p>
+ */
+public class LoggerNameCompletion {
+
+    /**
+     * Maximum number of completions shown.
+     */
+    public static final int MAX_ITEMS = 50;
+
+    private final JTextField field;
+    private final LoggerRegistry registry;
+
+    private final DefaultListModel<String> items = new DefaultListModel<>();
+    private final JList<String> list = new JList<>(items);
+    private final JPopupMenu popup = new JPopupMenu();
+
+    private boolean updating = false;
+
+    /**
+     * Installs the completion on the given field.
+     *
+     * @param field the text field - NOT NULL
+     * @param registry where logger names come from - NOT NULL
+     */
+    public LoggerNameCompletion(final JTextField field, final LoggerRegistry registry) {
+        this.field = field;
+        this.registry = registry;
+
+        list.setFocusable(false);
+        list.setVisibleRowCount(10);
+        list.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(
+                JList<?> l, Object value, int index, boolean selected, boolean focus
+            ) {
+                final String name = (String) value;
+                return super.getListCellRendererComponent(
+                    l, name + "  (" + registry.count(registry.idOf(name)) + ")",
+                    index, selected, focus
+                );
+            }
+        });
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                accept();
+            }
+        });
+
+        final JScrollPane scroll = new JScrollPane(list);
+        scroll.setBorder(null);
+        popup.setFocusable(false);
+        popup.add(scroll);
+
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                changed();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                changed();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
+
+        bind(KeyEvent.VK_DOWN, "completion-next", () -> move(1));
+        bind(KeyEvent.VK_UP, "completion-previous", () -> move(-1));
+        bind(KeyEvent.VK_ENTER, "completion-accept", this::accept);
+        bind(KeyEvent.VK_ESCAPE, "completion-hide", () -> popup.setVisible(false));
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private void changed() {
+        if (!updating) {
+            //
+            // the document can not be read while it notifies its listeners
+            //
+            EventQueue.invokeLater(this::update);
+        }
+    }
+
+    private void update() {
+        final String text = field.getText();
+        if (text.isEmpty() || !field.isShowing()) {
+            popup.setVisible(false);
+            return;
+        }
+
+        final List<String> names = registry.namesStartingWith(text);
+        items.clear();
+        for (int i = 0; i < names.size() && i < MAX_ITEMS; ++i) {
+            items.addElement(names.get(i));
+        }
+        if (items.isEmpty() || (items.size() == 1 && items.get(0).equals(text))) {
+            popup.setVisible(false);
+            return;
+        }
+
+        list.clearSelection();
+        popup.pack();
+        popup.show(field, 0, field.getHeight());
+    }
+
+    private void move(final int delta) {
+        if (!popup.isVisible() || items.isEmpty()) {
+            return;
+        }
+        final int index = Math.floorMod(list.getSelectedIndex() + delta, items.size());
+        list.setSelectedIndex(index);
+        list.ensureIndexIsVisible(index);
+    }
+
+    private void accept() {
+        final String name = list.getSelectedValue();
+        if (popup.isVisible() && name != null) {
+            updating = true;
+            try {
+                field.setText(name);
+            } finally {
+                updating = false;
+            }
+        } else {
+            //
+            // let the field fire its action as it would without completion
+            //
+            field.postActionEvent();
+        }
+        popup.setVisible(false);
+    }
+
+    private void bind(final int key, final String name, final Runnable action) {
+        field.getInputMap(JComponent.WHEN_FOCUSED).put(KeyStroke.getKeyStroke(key, 0), name);
+        field.getActionMap().put(name, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Thread-safe registry of the loggers seen by the viewer.
+ * <p>
+ * Each logger name is interned to a small integer id the first time it is
+ * seen; looking up a known name is a single hash hit and ids can be used to
+ * index plain arrays. For each logger the registry keeps striped counters of
+ * the records it produced, in total and per level (see {@link #levelIndex(Level)}),
+ * so counting never takes a lock.
+ * </p>
+ * <p>
+ * Names are kept in registration order; {@link #sortedNames()} and
+ * {@link #hierarchy()} return sorted snapshots for completion and tree views.
+ * </p>
+ */
+public final class LoggerRegistry {
+
+    /**
+     * Number of level buckets: FINEST (and below), FINER, FINE, CONFIG, INFO,
+     * WARNING, SEVERE (and above).
+     */
+    public static final int LEVELS = 7;
+
+    private static final LoggerRegistry DEFAULT = new LoggerRegistry();
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+    private volatile String[] names = new String[64];
+    private volatile Counters[] counters = new Counters[64];
+    private volatile int size = 0;
+
+    private volatile List<String> sorted = Collections.emptyList();
+    private int sortedSize = 0;
+
+    /**
+     * @return the registry shared by the handler and the viewer
+     */
+    public static LoggerRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Maps a level to its counter bucket.
+     *
+     * @param level the level - NOT NULL
+     *
+     * @return the bucket index, between 0 and {@link #LEVELS} - 1
+     */
+    public static int levelIndex(final Level level) {
+        final int value = level.intValue();
+        if (value <= Level.FINEST.intValue()) {
+            return 0;
+        } else if (value <= Level.FINER.intValue()) {
+            return 1;
+        } else if (value <= Level.FINE.intValue()) {
+            return 2;
+        } else if (value <= Level.CONFIG.intValue()) {
+            return 3;
+        } else if (value <= Level.INFO.intValue()) {
+            return 4;
+        } else if (value <= Level.WARNING.intValue()) {
+            return 5;
+        }
+        return 6;
+    }
+
+    /**
+     * Returns the id of the given logger, registering it if seen for the
+     * first time. Anonymous loggers ({@code null} name) share the id of the
+     * root logger ({@code ""}).
+     *
+     * @param name the logger name - MAY BE NULL
+     *
+     * @return the logger id
+     */
+    public int idOf(final String name) {
+        final String key = (name == null) ? "" : name;
+        final Integer id = ids.get(key);
+        return (id != null) ? id : register(key);
+    }
+
+    /**
+     * Returns the id of the given logger, without registering it.
+     *
+     * @param name the logger name - MAY BE NULL
+     *
+     * @return the logger id, -1 if the logger has not been seen yet
+     */
+    public int find(final String name) {
+        final Integer id = ids.get((name == null) ? "" : name);
+        return (id != null) ? id : -1;
+    }
+
+    /**
+     * @param id a logger id
+     *
+     * @return the name of the logger with the given id
+     */
+    public String nameOf(final int id) {
+        return names[id];
+    }
+
+    /**
+     * @return the number of registered loggers; ids go from 0 to size - 1
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Counts a record produced by the given logger.
+     *
+     * @param id the logger id
+     * @param level the level of the record - NOT NULL
+     */
+    public void count(final int id, final Level level) {
+        counters[id].levels[levelIndex(level)].increment();
+    }
+
+    /**
+     * @param id a logger id
+     *
+     * @return the number of records produced by the logger
+     */
+    public long count(final int id) {
+        long total = 0;
+        for (LongAdder c: counters[id].levels) {
+            total += c.sum();
+        }
+        return total;
+    }
+
+    /**
+     * @param id a logger id
+     * @param levelIndex a level bucket, see {@link #levelIndex(Level)}
+     *
+     * @return the number of records of the given level produced by the logger
+     */
+    public long count(final int id, final int levelIndex) {
+        return counters[id].levels[levelIndex].sum();
+    }
+
+    /**
+     * @return a sorted snapshot of the registered logger names; the snapshot
+     *         is rebuilt only when new loggers have been registered
+     */
+    public List<String> sortedNames() {
+        synchronized (ids) {
+            if (sortedSize != size) {
+                final String[] snapshot = Arrays.copyOf(names, size);
+                Arrays.sort(snapshot);
+                sorted = Collections.unmodifiableList(Arrays.asList(snapshot));
+                sortedSize = snapshot.length;
+            }
+            return sorted;
+        }
+    }
+
+    /**
+     * @param prefix a name prefix - NOT NULL
+     *
+     * @return the sorted names starting with the given prefix
+     */
+    public List<String> namesStartingWith(final String prefix) {
+        final List<String> names = sortedNames();
+
+        int from = Collections.binarySearch(names, prefix);
+        if (from < 0) {
+            from = -from - 1;
+        }
+        int to = from;
+        while (to < names.size() && names.get(to).startsWith(prefix)) {
+            ++to;
+        }
+
+        return names.subList(from, to);
+    }
+
+    /**
+     * Builds a snapshot of the logger hierarchy, following the dotted
+     * names, with the record counts of each subtree.
+     *
+     * @return the root of the hierarchy (the logger named {@code ""})
+     */
+    public Node hierarchy() {
+        final Node root = new Node("", "");
+        for (String name: sortedNames()) {
+            Node node = root;
+            if (!name.isEmpty()) {
+                int start = 0;
+                do {
+                    int dot = name.indexOf('.', start);
+                    if (dot < 0) {
+                        dot = name.length();
+                    }
+                    node = node.child(name.substring(0, dot), name.substring(start, dot));
+                    start = dot + 1;
+                } while (start < name.length());
+            }
+            node.own = count(ids.get(name));
+        }
+        root.sum();
+
+        return root;
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private int register(final String name) {
+        synchronized (ids) {
+            final Integer existing = ids.get(name);
+            if (existing != null) {
+                return existing;
+            }
+
+            final int id = size;
+            if (id == names.length) {
+                counters = Arrays.copyOf(counters, id << 1);
+                names = Arrays.copyOf(names, id << 1);
+            }
+            counters[id] = new Counters();
+            names[id] = name;
+            size = id + 1;
+
+            //
+            // publish the id only when name and counters are in place
+            //
+            ids.put(name, id);
+
+            return id;
+        }
+    }
+
+    // ---------------------------------------------------------- Counters class
+
+    private static final class Counters {
+        final LongAdder[] levels = new LongAdder[LEVELS];
+
+        Counters() {
+            for (int i = 0; i < LEVELS; ++i) {
+                levels[i] = new LongAdder();
+            }
+        }
+    }
+
+    // -------------------------------------------------------------- Node class
+
+    /**
+     * A node of the logger hierarchy snapshot.
+     */
+    public static final class Node {
+        /** the full logger name */
+        public final String name;
+        /** the last segment of the name */
+        public final String segment;
+
+        private final Map<String, Node> children = new TreeMap<>();
+
+        private long own = 0;
+        private long total = 0;
+
+        private Node(final String name, final String segment) {
+            this.name = name;
+            this.segment = segment;
+        }
+
+        /**
+         * @return the children, sorted by segment
+         */
+        public List<Node> getChildren() {
+            return new ArrayList<>(children.values());
+        }
+
+        /**
+         * @return the records produced by this logger only
+         */
+        public long getCount() {
+            return own;
+        }
+
+        /**
+         * @return the records produced by this logger and its descendants
+         */
+        public long getTotalCount() {
+            return total;
+        }
+
+        private Node child(final String name, final String segment) {
+            return children.computeIfAbsent(segment, (s) -> new Node(name, segment));
+        }
+
+        private long sum() {
+            total = own;
+            for (Node child: children.values()) {
+                total += child.sum();
+            }
+            return total;
+        }
+    }
+}
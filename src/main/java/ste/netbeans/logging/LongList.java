@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive longs that can be appended at the end and
+ * trimmed at the beginning in constant (amortized) time. Views use it to keep
+ * the sequence numbers of the entries they show, in ascending order.
+ * <p>
+ * Not thread-safe.
+ * </p>
+ */
+public final class LongList {
+
+    private long[] values;
+    private int head = 0;
+    private int size = 0;
+
+    public LongList() {
+        this(16);
+    }
+
+    public LongList(final int initialCapacity) {
+        values = new long[Math.max(1, initialCapacity)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long get(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return values[head + index];
+    }
+
+    public long last() {
+        return get(size - 1);
+    }
+
+    public void add(final long value) {
+        if (head + size == values.length) {
+            grow(1);
+        }
+        values[head + size++] = value;
+    }
+
+    public void addAll(final long[] source, final int from, final int to) {
+        final int n = to - from;
+        if (head + size + n > values.length) {
+            grow(n);
+        }
+        System.arraycopy(source, from, values, head + size, n);
+        size += n;
+    }
+
+    public void addAll(final LongList other) {
+        addAll(other.values, other.head, other.head + other.size);
+    }
+
+    /**
+     * Removes the first {@code n} values.
+     */
+    public void removeFirst(final int n) {
+        if (n < 0 || n > size) {
+            throw new IndexOutOfBoundsException(n);
+        }
+        head += n;
+        size -= n;
+        if (size == 0) {
+            head = 0;
+        }
+    }
+
+    public void clear() {
+        head = size = 0;
+    }
+
+    /**
+     * Searches a value in a list sorted in ascending order.
+     *
+     * @param value the value to look for
+     *
+     * @return the index of the value if found, otherwise
+     *         {@code (-(insertion point) - 1)}, like {@link Arrays#binarySearch(long[], long)}
+     */
+    public int binarySearch(final long value) {
+        final int i = Arrays.binarySearch(values, head, head + size, value);
+        return (i >= 0) ? i - head : i + head;
+    }
+
+    /**
+     * Returns the number of leading values lower than the given one, in a
+     * list sorted in ascending order.
+     */
+    public int countLowerThan(final long value) {
+        final int i = binarySearch(value);
+        return (i >= 0) ? i : -i - 1;
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOfRange(values, head, head + size);
+    }
+
+    // --------------------------------------------------------- private methods
+
+    /**
+     * Makes room for {@code n} more values, reclaiming the space left by
+     * removed values before growing the array.
+     */
+    private void grow(final int n) {
+        if (head > 0 && head >= values.length / 2 && size + n <= values.length) {
+            System.arraycopy(values, head, values, 0, size);
+        } else {
+            final long[] newValues = new long[Math.max(values.length * 2, size + n)];
+            System.arraycopy(values, head, newValues, 0, size);
+            values = newValues;
+        }
+        head = 0;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.text.MessageFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+
+/**
+ * Localizes log messages and expands their parameters the same way
+ * {@link java.util.logging.Formatter#formatMessage} does, without parsing
+ * the same template over and over.
+ * <p>
+ * Parsed {@link MessageFormat}s are cached by template, up to
+ * {@link #CACHE_SIZE} per thread, the least recently used first evicted:
+ * a {@code MessageFormat} can not be shared between threads and log messages
+ * come from a small set of templates, so each thread formatting messages
+ * parses each template once.
+ * </p>
+ * <p>
+ * It depends only on the JDK, like {@link LogStreamHandler}.
+ * </p>
+ */
+final class MessageTemplates {
+
+    /**
+     * Number of parsed templates cached by each thread
+     */
+    static final int CACHE_SIZE = 256;
+
+    private static final ThreadLocal<Map<String, MessageFormat>> CACHE = ThreadLocal.withInitial(
+        () -> new LinkedHashMap<>(CACHE_SIZE * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, MessageFormat> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        }
+    );
+
+    private MessageTemplates() {}
+
+    /**
+     * Localizes and expands the given message.
+     *
+     * @param message the message or its key in the bundle - MAY BE NULL
+     * @param bundle the bundle the message is localized with - MAY BE NULL
+     * @param parameters the parameters - MAY BE NULL
+     *
+     * @return the message text, null if the message is null
+     */
+    static String format(final String message, final ResourceBundle bundle, final Object[] parameters) {
+        if (message == null) {
+            return null;
+        }
+
+        String format = message;
+        if (bundle != null) {
+            try {
+                format = bundle.getString(message);
+            } catch (MissingResourceException x) {
+                // use the message key as is
+            }
+        }
+        if (parameters == null || parameters.length == 0) {
+            return format;
+        }
+
+        //
+        // same heuristic as java.util.logging.Formatter: only messages with
+        // an argument reference are run through MessageFormat
+        //
+        final int fence = format.length() - 1;
+        for (int i = format.indexOf('{'); i >= 0 && i < fence; i = format.indexOf('{', i + 1)) {
+            final char c = format.charAt(i + 1);
+            if (c >= '0' && c <= '9') {
+                try {
+                    return template(format).format(parameters);
+                } catch (RuntimeException x) {
+                    // malformed pattern or failing parameter, fall back to the raw text
+                    return format;
+                }
+            }
+        }
+        return format;
+    }
+
+    // --------------------------------------------------------- private methods
+
+    /**
+     * @return the parsed template, parsed again if the default locale changed
+     */
+    private static MessageFormat template(final String format) {
+        final Map<String, MessageFormat> cache = CACHE.get();
+        final Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+
+        MessageFormat template = cache.get(format);
+        if (template == null || !template.getLocale().equals(locale)) {
+            template = new MessageFormat(format, locale);
+            cache.put(format, template);
+        }
+        return template;
+    }
+}
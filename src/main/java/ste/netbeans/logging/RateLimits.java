@@ -0,0 +1,378 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * How many records per second the viewer takes from each logger.
+ * <p>
+ * Each logger has its own token bucket: it can produce up to {@code burst}
+ * records at once, then {@code perSecond} records per second; and it can be
+ * sampled, taking only one record every {@code every}. Like
+ * {@link DisplayLevels}, limits are set on logger subtrees: a limit set for
+ * {@code org.netbeans.modules} applies to each logger below it unless a more
+ * specific one is set; the limit set for {@code ""} is the default.
+ * </p>
+ * <p>
+ * Records of level {@code WARNING} and above are never suppressed. The
+ * limiter of a logger is resolved once and cached in an array indexed by the
+ * {@link LoggerRegistry} id; then checking a record is an array load, a
+ * counter increment when sampling and one compare-and-set on the bucket
+ * (which is kept as the time it will be full again, so it needs no refill
+ * task). Changing the limits keeps the buckets of the loggers whose limit
+ * did not change.
+ * Suppressed records are counted per logger, see {@link #summary(int)}.
+ * </p>
+ * <p>
+ * Defaults can be set with the system properties
+ * {@code ste.netbeans.logging.rate.limit} (records per second, 0 for no
+ * limit), {@code ste.netbeans.logging.rate.burst} and
+ * {@code ste.netbeans.logging.rate.sample}; limits of specific loggers with
+ * {@code ste.netbeans.logging.rate.rules}, a list like
+ * {@code org.foo=100,500,1;org.bar=0,0,10} of
+ * {@code logger=perSecond,burst,every} separated by semicolons.
+ * </p>
+ */
+public final class RateLimits {
+
+    private static final Logger LOG = Logger.getLogger(RateLimits.class.getName());
+
+    public static final double DEFAULT_RATE = defaultRate();
+    public static final int DEFAULT_BURST =
+        Integer.getInteger("ste.netbeans.logging.rate.burst", 10_000);
+    public static final int DEFAULT_SAMPLING =
+        Integer.getInteger("ste.netbeans.logging.rate.sample", 1);
+
+    private static final int NEVER_SUPPRESSED = Level.WARNING.intValue();
+    private static final Limit NO_LIMIT = new Limit(0, 0, 1);
+
+    private static final RateLimits DEFAULT = new RateLimits(LoggerRegistry.getDefault());
+
+    static {
+        try {
+            DEFAULT.setLimit("", DEFAULT_RATE, DEFAULT_BURST, DEFAULT_SAMPLING);
+        } catch (IllegalArgumentException x) {
+            LOG.log(Level.INFO, "invalid default rate limit ignored");
+            DEFAULT.setLimit("", 2000, 10_000, 1);
+        }
+        final String rules = System.getProperty("ste.netbeans.logging.rate.rules");
+        if (rules != null) {
+            for (String rule: rules.split(";")) {
+                try {
+                    final int eq = rule.indexOf('=');
+                    final String[] values = rule.substring(eq + 1).split(",");
+                    DEFAULT.setLimit(
+                        rule.substring(0, eq).trim(),
+                        Double.parseDouble(values[0].trim()),
+                        (values.length > 1) ? Integer.parseInt(values[1].trim()) : DEFAULT_BURST,
+                        (values.length > 2) ? Integer.parseInt(values[2].trim()) : 1
+                    );
+                } catch (RuntimeException x) {
+                    LOG.log(Level.INFO, "invalid rate limit ''{0}'' ignored", rule);
+                }
+            }
+        }
+    }
+
+    private final LoggerRegistry registry;
+    private final LongAdder suppressed = new LongAdder();
+
+    private volatile Map<String, Limit> limits = new HashMap<>();
+    private volatile Limiter[] cache = new Limiter[0];
+
+    /**
+     * The limit set for a logger subtree
+     */
+    private static final class Limit {
+        final double perSecond;
+        final int burst;
+        final int every;
+
+        Limit(final double perSecond, final int burst, final int every) {
+            this.perSecond = perSecond;
+            this.burst = burst;
+            this.every = every;
+        }
+    }
+
+    /**
+     * @param registry the registry the logger ids come from - NOT NULL
+     */
+    public RateLimits(final LoggerRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * @return the limits used by the handler
+     */
+    public static RateLimits getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Tells if a record of the given logger and level can be taken, consuming
+     * a token if so.
+     *
+     * @param loggerId the {@link LoggerRegistry} id of the logger
+     * @param level the level of the record - NOT NULL
+     *
+     * @return true if the record can be taken, false if it is suppressed
+     */
+    public boolean allows(final int loggerId, final Level level) {
+        if (level.intValue() >= NEVER_SUPPRESSED) {
+            return true;
+        }
+
+        final Limiter[] limiters = cache;
+        Limiter limiter = (loggerId < limiters.length) ? limiters[loggerId] : null;
+        if (limiter == null) {
+            limiter = resolve(loggerId, limiters);
+        }
+
+        if (limiter.allows(System.nanoTime())) {
+            return true;
+        }
+        limiter.suppressed.increment();
+        suppressed.increment();
+        return false;
+    }
+
+    /**
+     * Sets the limit of the given logger and of each of its descendants.
+     *
+     * @param loggerName the logger name - NOT NULL
+     * @param perSecond the records per second, 0 for no limit
+     * @param burst how many records can be taken at once - must be {@literal > 0}
+     *        when there is a limit
+     * @param every take one record every this many - must be {@literal > 0}
+     */
+    public synchronized void setLimit(
+        final String loggerName, final double perSecond, final int burst, final int every
+    ) {
+        if (perSecond < 0 || (perSecond > 0 && burst <= 0) || every <= 0) {
+            throw new IllegalArgumentException("invalid rate limit");
+        }
+        final Map<String, Limit> newLimits = new HashMap<>(limits);
+        newLimits.put(loggerName, new Limit(perSecond, burst, every));
+        limits = newLimits;
+        cache = carryOver(cache);
+    }
+
+    /**
+     * Removes the limit set for the given logger, which then takes the one
+     * of its nearest ancestor.
+     *
+     * @param loggerName the logger name - NOT NULL
+     */
+    public synchronized void removeLimit(final String loggerName) {
+        final Map<String, Limit> newLimits = new HashMap<>(limits);
+        newLimits.remove(loggerName);
+        limits = newLimits;
+        cache = carryOver(cache);
+    }
+
+    /**
+     * @return the number of records suppressed so far
+     */
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+
+    /**
+     * Describes the records suppressed since the last summary, the loggers
+     * with the most suppressed records first.
+     *
+     * @param max the maximum number of loggers listed
+     *
+     * @return the summary, null if nothing has been suppressed since the
+     *         last one
+     */
+    public synchronized String summary(final int max) {
+        final List<long[]> counts = new ArrayList<>();
+        long total = 0;
+        for (Limiter l: cache) {
+            if (l != null) {
+                final long n = l.suppressed.sum() - l.reported;
+                if (n > 0) {
+                    l.reported += n;
+                    total += n;
+                    counts.add(new long[] {l.loggerId, n});
+                }
+            }
+        }
+        if (total == 0) {
+            return null;
+        }
+
+        counts.sort((a, b) -> Long.compare(b[1], a[1]));
+        final StringBuilder sb = new StringBuilder()
+            .append(total).append(" records suppressed by rate limits:");
+        for (int i = 0; i < counts.size() && i < max; ++i) {
+            sb.append((i == 0) ? " " : ", ")
+              .append(registry.nameOf((int) counts.get(i)[0]))
+              .append(" (").append(counts.get(i)[1]).append(')');
+        }
+        if (counts.size() > max) {
+            sb.append(", ...");
+        }
+        return sb.toString();
+    }
+
+    // --------------------------------------------------------- private methods
+
+    /**
+     * Resolves the limiter of a logger and caches it. As in
+     * {@link DisplayLevels}, if the cache is invalidated in the meantime the
+     * limiter lands in the discarded array and is used only this time.
+     */
+    private Limiter resolve(final int loggerId, Limiter[] limiters) {
+        final Limiter limiter = new Limiter(loggerId, limitOf(loggerId, this.limits));
+
+        synchronized (this) {
+            if (cache != limiters) {
+                return limiter;
+            }
+            if (loggerId < limiters.length && limiters[loggerId] != null) {
+                return limiters[loggerId];
+            }
+            if (loggerId >= limiters.length) {
+                limiters = Arrays.copyOf(limiters, Math.max(registry.size(), loggerId + 1) + 64);
+                cache = limiters;
+            }
+            limiters[loggerId] = limiter;
+        }
+
+        return limiter;
+    }
+
+    /**
+     * @return the limit of the given logger: the one set for it or for its
+     *         nearest ancestor
+     */
+    private Limit limitOf(final int loggerId, final Map<String, Limit> rules) {
+        String name = registry.nameOf(loggerId);
+        while (true) {
+            final Limit limit = rules.get(name);
+            if (limit != null) {
+                return limit;
+            }
+            if (name.isEmpty()) {
+                return NO_LIMIT;
+            }
+            final int dot = name.lastIndexOf('.');
+            name = (dot < 0) ? "" : name.substring(0, dot);
+        }
+    }
+
+    /**
+     * Resolves the cached limiters again after the limits changed: loggers
+     * whose limit is the same keep their limiter, the others get a new one
+     * that carries the count of suppressed records not reported yet.
+     * Records suppressed by a discarded limiter while this runs may be
+     * missing from the summary, not from {@link #getSuppressedCount()}.
+     */
+    private Limiter[] carryOver(final Limiter[] limiters) {
+        final Map<String, Limit> rules = this.limits;
+        final Limiter[] ret = new Limiter[limiters.length];
+        for (int i = 0; i < limiters.length; ++i) {
+            final Limiter old = limiters[i];
+            if (old == null) {
+                continue;
+            }
+            final Limit limit = limitOf(old.loggerId, rules);
+            if (limit == old.limit) {
+                ret[i] = old;
+            } else {
+                ret[i] = new Limiter(old.loggerId, limit);
+                ret[i].reported = old.reported - old.suppressed.sum();
+            }
+        }
+        return ret;
+    }
+
+    private static double defaultRate() {
+        final String rate = System.getProperty("ste.netbeans.logging.rate.limit", "2000");
+        try {
+            return Math.max(0, Double.parseDouble(rate.trim()));
+        } catch (NumberFormatException x) {
+            LOG.log(Level.INFO, "invalid rate limit ''{0}'' ignored", rate);
+            return 2000;
+        }
+    }
+
+    /**
+     * The bucket, sampling counter and suppressed count of a logger
+     */
+    private static final class Limiter {
+        final int loggerId;
+        final Limit limit;
+        final long interval;
+        final long tolerance;
+        final int every;
+        final AtomicLong refilled = new AtomicLong(Long.MIN_VALUE);
+        final AtomicLong sampled = new AtomicLong();
+        final LongAdder suppressed = new LongAdder();
+        /**
+         * Suppressed records already reported; negative for a limiter that
+         * replaced one with records not reported yet
+         */
+        long reported = 0;
+
+        Limiter(final int loggerId, final Limit limit) {
+            this.loggerId = loggerId;
+            this.limit = limit;
+            this.interval = (limit.perSecond > 0)
+                          ? Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / limit.perSecond))
+                          : 0;
+            this.tolerance = interval * Math.max(0, limit.burst - 1);
+            this.every = limit.every;
+        }
+
+        /**
+         * The bucket is kept as the time it will be completely refilled: a
+         * record can be taken if that is at most burst - 1 intervals away,
+         * and taking it moves that time one interval forward.
+         */
+        boolean allows(final long now) {
+            if (every > 1 && sampled.getAndIncrement() % every != 0) {
+                return false;
+            }
+            if (interval == 0) {
+                return true;
+            }
+            while (true) {
+                final long t = refilled.get();
+                final long from = (t == Long.MIN_VALUE || t - now < 0) ? now : t;
+                if (from - now > tolerance) {
+                    return false;
+                }
+                if (refilled.compareAndSet(t, from + interval)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded, lock-free ring buffer used to hand records from the logging
+ * threads to the viewer.
+ * <p>
+ * The queue is a sequence-stamped array ring: each slot carries the position
+ * it is ready for, producers claim a position with a single CAS on the tail
+ * and consumers with a single CAS on the head. It is built to be used by many
+ * producers and one consumer, but polling is safe from any thread, which is
+ * what makes {@link OverflowPolicy#DROP_OLDEST} possible: a producer finding
+ * the ring full evicts the oldest element itself.
+ * </p>
+ * <p>
+ * {@link #put(Object)} never allocates and never takes a lock; when the ring
+ * is full it applies the configured {@link OverflowPolicy} and counts every
+ * discarded element in {@link #getDroppedCount()}.
+ * </p>
+ *
+ * @param <E> the type of the queued elements
+ */
+public final class RecordQueue<E> {
+
+    /**
+     * What {@link #put(Object)} does when the ring is full.
+     */
+    public enum OverflowPolicy {
+        /** evict the oldest queued element to make room for the new one */
+        DROP_OLDEST,
+        /** discard the element being added */
+        DROP_NEWEST,
+        /** wait for the consumer up to the block timeout, then discard the element being added */
+        BLOCK
+    }
+
+    private final int mask;
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile OverflowPolicy policy;
+    private volatile long blockNanos;
+
+    /**
+     * Creates a new queue.
+     *
+     * @param capacity the number of slots, rounded up to the next power of two
+     *        (and at least 2, which the sequence stamping needs to tell a full
+     *        slot from an empty one)
+     * @param policy what to do when the queue is full
+     * @param blockMicros how long producers wait for room with {@link OverflowPolicy#BLOCK}
+     */
+    public RecordQueue(final int capacity, final OverflowPolicy policy, final long blockMicros) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+        }
+        final int size = (capacity <= 2) ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+
+        this.mask = size - 1;
+        this.elements = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; ++i) {
+            sequences.set(i, i);
+        }
+        setOverflowPolicy(policy);
+        setBlockTimeout(blockMicros);
+    }
+
+    /**
+     * Adds an element applying the overflow policy if the queue is full.
+     *
+     * @param e the element to add - NOT NULL
+     *
+     * @return true if the element was queued, false if it was discarded
+     */
+    public boolean put(final E e) {
+        if (offer(e)) {
+            return true;
+        }
+
+        switch (policy) {
+            case DROP_OLDEST:
+                do {
+                    if (poll() != null) {
+                        dropped.increment();
+                    }
+                } while (!offer(e));
+                return true;
+            case BLOCK: {
+                final long deadline = System.nanoTime() + blockNanos;
+                while (System.nanoTime() - deadline < 0) {
+                    LockSupport.parkNanos(1000);
+                    if (offer(e)) {
+                        return true;
+                    }
+                }
+                dropped.increment();
+                return false;
+            }
+            default:
+                dropped.increment();
+                return false;
+        }
+    }
+
+    /**
+     * Adds an element if there is room for it.
+     *
+     * @param e the element to add - NOT NULL
+     *
+     * @return true if the element was queued, false if the queue is full
+     */
+    public boolean offer(final E e) {
+        if (e == null) {
+            throw new NullPointerException("element can not be null");
+        }
+        long pos = tail.get();
+        for (;;) {
+            final int index = (int) (pos & mask);
+            final long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    elements[index] = e;
+                    sequences.lazySet(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest element.
+     *
+     * @return the oldest element or null if the queue is empty
+     */
+    public E poll() {
+        long pos = head.get();
+        for (;;) {
+            final int index = (int) (pos & mask);
+            final long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    @SuppressWarnings("unchecked")
+                    final E e = (E) elements[index];
+                    elements[index] = null;
+                    sequences.lazySet(index, pos + mask + 1);
+                    return e;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                pos = head.get();
+            }
+        }
+    }
+
+    /**
+     * @return true if there is nothing to poll at the time of the call
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return the number of queued elements; under concurrent access this is
+     *         an estimate
+     */
+    public int size() {
+        final long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, mask + 1));
+    }
+
+    /**
+     * @return the number of slots in the ring
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Discards all queued elements; discarded elements are not counted as
+     * dropped.
+     */
+    public void clear() {
+        while (poll() != null);
+    }
+
+    /**
+     * @return the number of elements discarded because the queue was full
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return policy;
+    }
+
+    public void setOverflowPolicy(final OverflowPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("policy can not be null");
+        }
+        this.policy = policy;
+    }
+
+    /**
+     * @return how long, in microseconds, producers wait for room with
+     *         {@link OverflowPolicy#BLOCK}
+     */
+    public long getBlockTimeout() {
+        return TimeUnit.NANOSECONDS.toMicros(blockNanos);
+    }
+
+    /**
+     * @param micros how long, in microseconds, producers wait for room with
+     *        {@link OverflowPolicy#BLOCK} before discarding their element
+     */
+    public void setBlockTimeout(final long micros) {
+        if (micros < 0) {
+            throw new IllegalArgumentException("block timeout can not be negative");
+        }
+        this.blockNanos = TimeUnit.MICROSECONDS.toNanos(micros);
+    }
+}
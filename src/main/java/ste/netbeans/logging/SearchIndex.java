@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import org.openide.util.RequestProcessor;
+
+/**
+ * A full-text index over the messages and logger names of the entries
+ * retained by a {@link LogStore}.
+ * <p>
+ * Entries are indexed in blocks of {@link #BLOCK_SIZE} consecutive sequence
+ * numbers: for each block the index keeps a bitmap of the (case-insensitive)
+ * trigrams found in its entries, so a query needs to look only at the blocks
+ * whose bitmap contains all the query trigrams. A bitmap may report trigrams
+ * that are not there, never miss one that is, so candidate entries are
+ * always verified. Memory is constant per block and blocks are dropped as
+ * soon as the store evicts all their entries, so the index stays in step
+ * with the ring. Only entries in memory are indexed: entries in the store's
+ * {@link SpillStore history} are scanned.
+ * </p>
+ * <p>
+ * Blocks are indexed in the background once they are full; the block being
+ * filled, and any block not indexed yet, is simply scanned. Queries shorter
+ * than a trigram scan all entries.
+ * </p>
+ */
+public class SearchIndex implements LogStore.Listener {
+
+    /**
+     * Number of consecutive entries covered by a block bitmap.
+     */
+    public static final int BLOCK_SIZE = 1024;
+
+    private static final int BITS = 1 << 16;
+    private static final int MASK = BITS - 1;
+
+    private static final RequestProcessor RP = new RequestProcessor(SearchIndex.class);
+
+    private final LogStore store;
+    private final ConcurrentHashMap<Long, long[]> blocks = new ConcurrentHashMap<>();
+    private final RequestProcessor.Task indexer = RP.create(this::indexBlocks);
+
+    private volatile long nextBlock = 0;
+    private long spilledBlock = 0;
+
+    private static final class Default {
+        static final SearchIndex INDEX = new SearchIndex(LogStore.getDefault());
+    }
+
+    /**
+     * @return the index of the {@link LogStore#getDefault() default store},
+     *         created on first use
+     */
+    public static SearchIndex getDefault() {
+        return Default.INDEX;
+    }
+
+    public LogStore getStore() {
+        return store;
+    }
+
+    /**
+     * @param store the store to index - NOT NULL
+     */
+    public SearchIndex(final LogStore store) {
+        this.store = store;
+        store.addListener(this);
+    }
+
+    /**
+     * Finds the entries containing the given text, ignoring case, in the
+     * given range of sequence numbers. It runs on the calling thread, which
+     * should not be the Event Dispatch Thread.
+     *
+     * @param text the text to find - NOT NULL
+     * @param from the first sequence number
+     * @param to the sequence number after the last one
+     * @param cancelled tells if the search is no longer needed
+     *
+     * @return the sequence numbers of the matching entries, ascending
+     */
+    public LongList find(final String text, final long from, final long to, final BooleanSupplier cancelled) {
+        final String query = text.toLowerCase(Locale.ROOT);
+        final int[] trigrams = trigrams(query);
+
+        final LongList hits = new LongList();
+        long seq = Math.max(from, store.first());
+        while (seq < to && !cancelled.getAsBoolean()) {
+            final long block = seq / BLOCK_SIZE;
+            final long blockEnd = Math.min(to, (block + 1) * BLOCK_SIZE);
+
+            final long[] bits = blocks.get(block);
+            if (bits == null || mayContain(bits, trigrams)) {
+                for (; seq < blockEnd; ++seq) {
+                    if (contains(store.get(seq), query)) {
+                        hits.add(seq);
+                    }
+                }
+            }
+            seq = blockEnd;
+        }
+
+        return hits;
+    }
+
+    /**
+     * Tells if an entry contains the given text.
+     *
+     * @param entry the entry - MAY BE NULL
+     * @param lowerCaseText the text to find, in lower case - NOT NULL
+     *
+     * @return true if the entry is not null and its message or logger name
+     *         contains the text, ignoring case
+     */
+    public static boolean contains(final LogEntry entry, final String lowerCaseText) {
+        if (entry == null) {
+            return false;
+        }
+        return text(entry).contains(lowerCaseText);
+    }
+
+    // ------------------------------------------------------ LogStore.Listener
+
+    @Override
+    public void evicted(final long first, final long end) {
+        blocks.keySet().removeIf((block) -> (block + 1) * BLOCK_SIZE <= end);
+    }
+
+    @Override
+    public void appended(final long first, final long end) {
+        //
+        // entries spilled to the history are not evicted from the store, but
+        // their blocks are dropped as if they were
+        //
+        final long inMemory = store.firstInMemory();
+        if (inMemory / BLOCK_SIZE > spilledBlock) {
+            spilledBlock = inMemory / BLOCK_SIZE;
+            evicted(store.first(), inMemory);
+        }
+        if (end / BLOCK_SIZE > nextBlock) {
+            indexer.schedule(0);
+        }
+    }
+
+    @Override
+    public void cleared(final long first, final long end) {
+        blocks.clear();
+    }
+
+    // --------------------------------------------------------- private methods
+
+    /**
+     * Indexes all full blocks not indexed yet; blocks entirely evicted in the
+     * meantime are skipped.
+     */
+    private void indexBlocks() {
+        final long lastFull = store.end() / BLOCK_SIZE;
+        long block = Math.max(nextBlock, store.firstInMemory() / BLOCK_SIZE);
+
+        for (; block < lastFull; ++block) {
+            final long[] bits = new long[BITS / 64];
+            final long end = (block + 1) * BLOCK_SIZE;
+            for (long seq = block * BLOCK_SIZE; seq < end; ++seq) {
+                final LogEntry entry = store.get(seq);
+                if (entry != null) {
+                    for (int trigram: trigrams(text(entry))) {
+                        bits[trigram >>> 6] |= 1L << trigram;
+                    }
+                }
+            }
+            if (end > store.firstInMemory()) {
+                blocks.put(block, bits);
+            }
+            nextBlock = block + 1;
+        }
+    }
+
+    private static boolean mayContain(final long[] bits, final int[] trigrams) {
+        for (int trigram: trigrams) {
+            if ((bits[trigram >>> 6] & (1L << trigram)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the hashed trigrams of the given text, as bitmap positions
+     */
+    private static int[] trigrams(final String text) {
+        final int n = Math.max(0, text.length() - 2);
+        final int[] ret = new int[n];
+        for (int i = 0; i < n; ++i) {
+            int h = (text.charAt(i) * 31 + text.charAt(i + 1)) * 31 + text.charAt(i + 2);
+            h ^= (h >>> 16);
+            h *= 0x45d9f3b;
+            h ^= (h >>> 16);
+            ret[i] = h & MASK;
+        }
+        return ret;
+    }
+
+    private static String text(final LogEntry entry) {
+        return (LogEntryFormatter.formatMessage(entry) + '\n' + entry.loggerName()).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,998 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.List;
+import java.util.MissingResourceException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.openide.util.RequestProcessor;
+
+/**
+ * Keeps the entries evicted from a {@link LogStore} on disk, so that history
+ * is not limited by the memory cap.
+ * <p>
+ * Entries are appended to segment files of a fixed size in a directory
+ * (usually under the NetBeans user dir). Each segment is memory-mapped: it is
+ * written and read through the mapping, so reading an entry touches only the
+ * pages that hold it. A sparse offset index, one offset every
+ * {@link #INDEX_STEP} entries, locates an entry with at most that many record
+ * hops.
+ * </p>
+ * <p>
+ * Entries are appended on the thread appending to the store but written by a
+ * background writer; entries not written yet are kept in memory and can be
+ * read as any other. Messages are stored as their localized template and
+ * parameters (strings, numbers and dates), so that they are formatted only
+ * when read back, and exceptions as their stack trace text; spilled entries
+ * render as they did in memory.
+ * </p>
+ * <p>
+ * Whole segments are deleted, oldest first, when the total size exceeds the
+ * maximum size or their newest entry is older than the maximum age.
+ * </p>
+ * <p>
+ * Segment layout: a sequence of records made of an int length (of what
+ * follows) and a type byte; a zero length marks the end of the data. Logger
+ * names are written once per segment, in a {@code LOGGER} record before the
+ * first entry that uses them; standard levels are written as one byte.
+ * </p>
+ * <p>
+ * The segments can also be kept for the next session: {@link #save(long)}
+ * writes the entries still pending and a {@code session} file describing the
+ * segments (their range, offset index and logger names) instead of deleting
+ * them. The next store created on the directory reads that file only; the
+ * segments are mapped when first read and the logger ids they contain are
+ * mapped to the ones of the new session. Restored segments are never
+ * written again.
+ * </p>
+ */
+public class SpillStore {
+
+    /**
+     * The directory of the spill files, relative to the NetBeans user dir.
+     */
+    public static final String DIRECTORY = "var/log-viewer/spill";
+
+    /**
+     * Default size of a segment in bytes; can be set in MB with the system
+     * property {@code ste.netbeans.logging.spill.segmentSize}.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE =
+        Integer.getInteger("ste.netbeans.logging.spill.segmentSize", 64) << 20;
+
+    /**
+     * Default maximum size of all segments in bytes; can be set in MB with the
+     * system property {@code ste.netbeans.logging.spill.maxSize}.
+     */
+    public static final long DEFAULT_MAX_SIZE =
+        Long.getLong("ste.netbeans.logging.spill.maxSize", 1024) << 20;
+
+    /**
+     * Default maximum age of a segment in milliseconds; can be set in hours
+     * with the system property {@code ste.netbeans.logging.spill.maxAge}.
+     */
+    public static final long DEFAULT_MAX_AGE =
+        TimeUnit.HOURS.toMillis(Long.getLong("ste.netbeans.logging.spill.maxAge", 72));
+
+    /**
+     * Default maximum time in milliseconds {@link #save(long)} waits for the
+     * pending entries to be written when the IDE exits; can be set with the
+     * system property {@code ste.netbeans.logging.session.timeout}.
+     */
+    public static final long DEFAULT_SAVE_TIMEOUT =
+        Long.getLong("ste.netbeans.logging.session.timeout", 2000);
+
+    /**
+     * Number of entries between two entries of the offset index.
+     */
+    public static final int INDEX_STEP = 32;
+
+    static final byte LOGGER = 1;
+    static final byte ENTRY = 2;
+
+    //
+    // types of the message parameters
+    //
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte LONG = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte DATE = 4;
+
+    /**
+     * The standard levels, written as their index; other levels are written
+     * as {@code -1} followed by their value and name
+     */
+    private static final Level[] STANDARD_LEVELS = {
+        Level.OFF, Level.SEVERE, Level.WARNING, Level.INFO, Level.CONFIG,
+        Level.FINE, Level.FINER, Level.FINEST, Level.ALL
+    };
+
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".spill";
+    private static final String SESSION = "session";
+    private static final int SESSION_MAGIC = 0x4C565331; // LVS1
+
+    /**
+     * Longer texts are truncated so that any record fits in a segment
+     */
+    private static final int MAX_TEXT = 1 << 20;
+
+    /**
+     * Number of entries encoded before they are written to the segments
+     */
+    private static final int CHUNK_SIZE = 256;
+
+    private static final Logger LOG = Logger.getLogger(SpillStore.class.getName());
+    private static final RequestProcessor RP = new RequestProcessor(SpillStore.class);
+    private static final ConcurrentHashMap<String, Level> LEVELS = new ConcurrentHashMap<>();
+
+    private final File dir;
+    private final int segmentSize;
+    private final long maxSize;
+    private final long maxAge;
+    private final RequestProcessor.Task writer = RP.create(this::write);
+
+    //
+    // all guarded by this: entries from first to end are in the segments up
+    // to writingFirst, then in writing (that starts at writingBase) up to
+    // pendingFirst, then in pending
+    //
+    private final List<Segment> segments = new ArrayList<>();
+    private List<LogEntry> writing = new ArrayList<>();
+    private List<LogEntry> pending = new ArrayList<>();
+    private long writingBase = 0, writingFirst = 0, pendingFirst = 0;
+    private long first = 0, end = 0;
+    private int generation = 0;
+    private boolean broken = false, closed = false;
+
+    /**
+     * Creates a store with the default limits.
+     *
+     * @param dir the directory of the segment files - NOT NULL
+     */
+    public SpillStore(final File dir) {
+        this(dir, DEFAULT_SEGMENT_SIZE, DEFAULT_MAX_SIZE, DEFAULT_MAX_AGE);
+    }
+
+    /**
+     * Creates a store; the segments saved in the directory by the previous
+     * session, if any, are restored, other segment files are deleted.
+     *
+     * @param dir the directory of the segment files - NOT NULL
+     * @param segmentSize the size of a segment in bytes
+     * @param maxSize the maximum size of all segments in bytes
+     * @param maxAge the maximum age of a segment in milliseconds
+     */
+    public SpillStore(final File dir, final int segmentSize, final long maxSize, final long maxAge) {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.maxSize = maxSize;
+        this.maxAge = maxAge;
+
+        dir.mkdirs();
+        final File session = new File(dir, SESSION);
+        if (session.exists()) {
+            restore(session);
+            session.delete();
+        }
+        final File[] stale = dir.listFiles((d, name) -> name.startsWith(PREFIX) && name.endsWith(SUFFIX));
+        if (stale != null) {
+            for (File f: stale) {
+                if (segments.stream().noneMatch((segment) -> segment.file.equals(f))) {
+                    f.delete();
+                }
+            }
+        }
+    }
+
+    public File getDirectory() {
+        return dir;
+    }
+
+    /**
+     * @return the sequence number of the oldest entry
+     */
+    public synchronized long first() {
+        return first;
+    }
+
+    /**
+     * @return the sequence number after the newest entry
+     */
+    public synchronized long end() {
+        return end;
+    }
+
+    public synchronized boolean isEmpty() {
+        return first == end;
+    }
+
+    /**
+     * @return the disk space used by the segments, in bytes
+     */
+    public synchronized long getDiskSize() {
+        long size = 0;
+        for (Segment s: segments) {
+            size += s.capacity;
+        }
+        return size;
+    }
+
+    /**
+     * Appends entries evicted from the store, deleting the oldest segments if
+     * the limits are exceeded. Entries must follow the newest entry; if they
+     * do not (for example because the store has been cleared) the history
+     * starts again from them.
+     *
+     * @param firstSeq the sequence number of the first entry
+     * @param entries the entries - NOT NULL
+     */
+    public synchronized void append(final long firstSeq, final List<LogEntry> entries) {
+        if (closed || entries.isEmpty()) {
+            return;
+        }
+        if (firstSeq != end) {
+            discard(firstSeq);
+        }
+        end += entries.size();
+        if (broken) {
+            first = pendingFirst = writingFirst = writingBase = end;
+            return;
+        }
+
+        pending.addAll(entries);
+        trim();
+        writer.schedule(0);
+    }
+
+    /**
+     * Returns the entry with the given sequence number; it can be called by
+     * any thread.
+     *
+     * @param seq the sequence number
+     *
+     * @return the entry, or null if it is not in the store (any more)
+     */
+    public LogEntry get(final long seq) {
+        final Segment segment;
+        final int position;
+        synchronized (this) {
+            if (seq < first || seq >= end) {
+                return null;
+            }
+            if (seq >= pendingFirst) {
+                return pending.get((int) (seq - pendingFirst));
+            }
+            if (seq >= writingFirst) {
+                return writing.get((int) (seq - writingBase));
+            }
+            segment = segmentOf(seq);
+            if (segment == null) {
+                return null;
+            }
+            try {
+                position = segment.position(seq);
+            } catch (IOException x) {
+                LOG.log(Level.INFO, "unable to read {0}: {1}", new Object[] {segment.file, x.getMessage()});
+                return null;
+            }
+        }
+
+        //
+        // committed records never change, they can be decoded without the
+        // lock
+        //
+        try {
+            return segment.read(position);
+        } catch (IOException x) {
+            LOG.log(Level.INFO, "unable to read {0}: {1}", new Object[] {segment.file, x.getMessage()});
+            return null;
+        }
+    }
+
+    /**
+     * Waits until all entries appended so far are written to disk.
+     */
+    public void flush() {
+        writer.schedule(0);
+        writer.waitFinished();
+    }
+
+    /**
+     * Writes the entries appended so far, waiting at most the given time, and
+     * keeps the segments for the next session, see the class description.
+     * If the time runs out, only the entries written so far are kept, from
+     * the oldest one. The store cannot be used afterwards.
+     *
+     * @param timeout the maximum time to wait, in milliseconds
+     *
+     * @return the number of entries kept
+     */
+    public long save(final long timeout) {
+        writer.schedule(0);
+        try {
+            writer.waitFinished(timeout);
+        } catch (InterruptedException x) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (this) {
+            if (closed) {
+                return 0;
+            }
+            //
+            // stop the writer at the next chunk: what is in the segments is
+            // all that is kept
+            //
+            ++generation;
+            closed = true;
+            pending = new ArrayList<>();
+            writing = new ArrayList<>();
+
+            final long saved = segments.isEmpty() ? 0 : writingFirst - first;
+            try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(new File(dir, SESSION)))
+            )) {
+                out.writeInt(SESSION_MAGIC);
+                out.writeInt(segments.size());
+                for (Segment segment: segments) {
+                    segment.save(out);
+                }
+            } catch (IOException x) {
+                LOG.log(Level.INFO, "log session not saved: {0}", x.getMessage());
+                new File(dir, SESSION).delete();
+                discard(end);
+                return 0;
+            }
+            if (writingFirst < end) {
+                LOG.log(Level.INFO, "log session saved up to {0} entries out of {1}", new Object[] {saved, end - first});
+            }
+            segments.clear();
+
+            return saved;
+        }
+    }
+
+    /**
+     * Removes all entries and deletes the segment files, returning once they
+     * are deleted.
+     */
+    public void clear() {
+        final RequestProcessor.Task deleting;
+        synchronized (this) {
+            deleting = discard(end);
+        }
+        waitFor(deleting);
+    }
+
+    /**
+     * Stops writing and deletes the segment files, returning once they are
+     * deleted.
+     */
+    public void close() {
+        final RequestProcessor.Task deleting;
+        synchronized (this) {
+            deleting = discard(end);
+            closed = true;
+        }
+        waitFor(deleting);
+    }
+
+    // --------------------------------------------------------- private methods
+
+    /**
+     * Reads the segments saved by the previous session. They must follow
+     * each other and be complete; the ones after the first that is not are
+     * dropped.
+     */
+    private void restore(final File session) {
+        try (DataInputStream in = new DataInputStream(
+            new BufferedInputStream(new FileInputStream(session))
+        )) {
+            if (in.readInt() != SESSION_MAGIC) {
+                return;
+            }
+            for (int n = in.readInt(); n > 0; --n) {
+                final Segment segment = Segment.restore(dir, in);
+                if (!segments.isEmpty() && segments.get(segments.size() - 1).end != segment.firstSeq) {
+                    break;
+                }
+                if (segment.file.length() < segment.capacity) {
+                    break;
+                }
+                segments.add(segment);
+            }
+        } catch (IOException x) {
+            LOG.log(Level.INFO, "log session not restored: {0}", x.getMessage());
+            segments.clear();
+        }
+        if (!segments.isEmpty()) {
+            first = segments.get(0).firstSeq;
+            end = pendingFirst = writingFirst = writingBase = segments.get(segments.size() - 1).end;
+        }
+    }
+
+    /**
+     * Drops all entries, the next appended entry will be the one with the
+     * given sequence number. Writes in progress are discarded too.
+     *
+     * @return the task deleting the segment files
+     */
+    private RequestProcessor.Task discard(final long next) {
+        ++generation;
+        final List<File> files = new ArrayList<>(segments.size());
+        for (Segment s: segments) {
+            files.add(s.file);
+        }
+        final RequestProcessor.Task deleting = delete(files);
+        segments.clear();
+        pending = new ArrayList<>();
+        writing = new ArrayList<>();
+        first = end = pendingFirst = writingFirst = writingBase = next;
+
+        return deleting;
+    }
+
+    /**
+     * Deletes the oldest segments while the limits are exceeded; the segment
+     * being written is never deleted.
+     */
+    private void trim() {
+        final long oldest = System.currentTimeMillis() - maxAge;
+        long size = getDiskSize();
+        while (segments.size() > 1 && (size > maxSize || segments.get(0).lastMillis < oldest)) {
+            final Segment s = segments.remove(0);
+            size -= s.capacity;
+            first = segments.get(0).firstSeq;
+            delete(List.of(s.file));
+        }
+    }
+
+    /**
+     * Deletes the given files in the background, after any write in
+     * progress, which gives up as soon as it sees the store cleared.
+     */
+    private RequestProcessor.Task delete(final List<File> files) {
+        return RP.post(() -> {
+            for (File file: files) {
+                if (!file.delete() && file.exists()) {
+                    //
+                    // on some platforms a file cannot be deleted while mapped
+                    //
+                    file.deleteOnExit();
+                }
+            }
+        });
+    }
+
+    /**
+     * Waits for the given deletes, unless called by the writer thread that
+     * would run them; it must be called without holding the lock, that the
+     * write in progress needs to give up.
+     */
+    private static void waitFor(final RequestProcessor.Task deleting) {
+        if (!RP.isRequestProcessorThread()) {
+            deleting.waitFinished();
+        }
+    }
+
+    private Segment segmentOf(final long seq) {
+        int low = 0, high = segments.size() - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final Segment s = segments.get(mid);
+            if (seq < s.firstSeq) {
+                high = mid - 1;
+            } else if (seq >= s.end) {
+                low = mid + 1;
+            } else {
+                return s;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Runs on the writer thread: encodes pending entries a chunk at a time
+     * outside the lock, then copies each chunk into the segments.
+     */
+    private void write() {
+        final List<LogEntry> batch;
+        final int gen;
+        synchronized (this) {
+            if (pending.isEmpty() || closed || broken) {
+                return;
+            }
+            batch = writing = pending;
+            writingBase = writingFirst = pendingFirst;
+            pending = new ArrayList<>();
+            pendingFirst = end;
+            gen = generation;
+        }
+
+        final Bytes bytes = new Bytes(64 * 1024);
+        final DataOutputStream out = new DataOutputStream(bytes);
+        final int[] ends = new int[CHUNK_SIZE];
+        try {
+            for (int from = 0; from < batch.size(); from += CHUNK_SIZE) {
+                final int to = Math.min(batch.size(), from + CHUNK_SIZE);
+                bytes.reset();
+                for (int i = from; i < to; ++i) {
+                    encode(batch.get(i), out);
+                    ends[i - from] = bytes.size();
+                }
+                if (!commit(gen, batch, from, to, bytes.toByteArray(), ends)) {
+                    return;
+                }
+            }
+        } catch (IOException x) {
+            LOG.log(Level.WARNING, "log history disabled: unable to write to " + dir, x);
+            synchronized (this) {
+                if (gen == generation) {
+                    broken = true;
+                    discard(end);
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies encoded entries into the segments, starting a new segment when
+     * the current one is full.
+     *
+     * @return false if the store has been cleared in the meantime
+     */
+    private synchronized boolean commit(
+        final int gen, final List<LogEntry> batch, final int from, final int to,
+        final byte[] data, final int[] ends
+    ) throws IOException {
+        if (gen != generation || closed) {
+            return false;
+        }
+
+        long seq = writingFirst;
+        int start = 0;
+        for (int i = from; i < to; ++i, ++seq) {
+            final LogEntry entry = batch.get(i);
+            final int length = ends[i - from] - start;
+
+            Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            final byte[] name = (segment == null || !segment.loggers.get(entry.loggerId))
+                              ? truncate(entry.loggerName()).getBytes(StandardCharsets.UTF_8)
+                              : null;
+            final int needed = 4 + length + ((name == null) ? 0 : 13 + name.length) + 4;
+            if (segment == null || !segment.fits(needed)) {
+                segment = Segment.create(dir, seq, Math.max(segmentSize, needed));
+                segments.add(segment);
+            }
+            if (!segment.loggers.get(entry.loggerId)) {
+                segment.putLogger(entry.loggerId, (name != null) ? name : truncate(entry.loggerName()).getBytes(StandardCharsets.UTF_8));
+            }
+            segment.putEntry(seq, data, start, length, entry.millis);
+            start = ends[i - from];
+        }
+        writingFirst = seq;
+
+        return true;
+    }
+
+    private static void encode(final LogEntry entry, final DataOutputStream out) throws IOException {
+        out.writeByte(ENTRY);
+        writeLevel(out, entry.level);
+        out.writeLong(entry.millis);
+        out.writeInt(entry.loggerId);
+        out.writeLong(entry.threadId);
+        writeText(out, entry.source);
+        writeMessage(out, entry);
+        writeText(out, (entry.thrown == null) ? null : LogEntryFormatter.formatThrown(entry));
+        out.writeInt(entry.getCount());
+        out.writeLong(entry.getLastMillis());
+    }
+
+    private static void writeLevel(final DataOutputStream out, final Level level) throws IOException {
+        for (int i = 0; i < STANDARD_LEVELS.length; ++i) {
+            if (STANDARD_LEVELS[i] == level) {
+                out.writeByte(i);
+                return;
+            }
+        }
+        out.writeByte(-1);
+        out.writeInt(level.intValue());
+        writeText(out, level.getName());
+    }
+
+    /**
+     * Writes the message template, localized, and its parameters, so that
+     * the message is formatted only if it is read back; when a parameter
+     * would not format the same once read back, the formatted message is
+     * written instead, without parameters.
+     */
+    private static void writeMessage(final DataOutputStream out, final LogEntry entry) throws IOException {
+        final Object[] parameters = entry.parameters;
+        if (entry.message == null || parameters == null || parameters.length == 0
+            || parameters.length > Byte.MAX_VALUE || !writable(parameters)) {
+            writeText(out, (entry.message == null) ? null : LogEntryFormatter.formatMessage(entry));
+            out.writeByte(0);
+            return;
+        }
+
+        String template = entry.message;
+        if (entry.bundle != null) {
+            try {
+                template = entry.bundle.getString(template);
+            } catch (MissingResourceException x) {
+                // use the message key as is, as the formatter does
+            }
+        }
+        writeText(out, template);
+        out.writeByte(parameters.length);
+        for (Object p: parameters) {
+            if (p == null) {
+                out.writeByte(NULL);
+            } else if (p instanceof Double || p instanceof Float) {
+                out.writeByte(DOUBLE);
+                out.writeDouble(((Number) p).doubleValue());
+            } else if (p instanceof Number) {
+                out.writeByte(LONG);
+                out.writeLong(((Number) p).longValue());
+            } else if (p instanceof Date) {
+                out.writeByte(DATE);
+                out.writeLong(((Date) p).getTime());
+            } else {
+                out.writeByte(STRING);
+                writeText(out, String.valueOf(p));
+            }
+        }
+    }
+
+    /**
+     * @return true if the parameters are formatted the same once read back:
+     *         numbers other than the primitive wrappers are not
+     */
+    private static boolean writable(final Object[] parameters) {
+        for (Object p: parameters) {
+            if (p instanceof Number && !(
+                p instanceof Integer || p instanceof Long || p instanceof Short
+                || p instanceof Byte || p instanceof Double || p instanceof Float
+            )) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeText(final DataOutputStream out, final String text) throws IOException {
+        if (text == null) {
+            out.writeInt(-1);
+            return;
+        }
+        final byte[] b = truncate(text).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String truncate(final String text) {
+        return (text.length() > MAX_TEXT) ? text.substring(0, MAX_TEXT) : text;
+    }
+
+    static Level level(final String name, final int value) {
+        return LEVELS.computeIfAbsent(name, (n) -> {
+            try {
+                return Level.parse(n);
+            } catch (IllegalArgumentException x) {
+                return Level.parse(String.valueOf(value));
+            }
+        });
+    }
+
+    // ------------------------------------------------------------------ Bytes
+
+    /**
+     * A {@link ByteArrayOutputStream} without locking, since it is used by
+     * the writer only; {@link DataOutputStream} writes numbers a byte at a
+     * time.
+     */
+    private static final class Bytes extends ByteArrayOutputStream {
+        Bytes(final int size) {
+            super(size);
+        }
+
+        @Override
+        public void write(final int b) {
+            if (count == buf.length) {
+                buf = Arrays.copyOf(buf, count << 1);
+            }
+            buf[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            if (count + len > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(count + len, buf.length << 1));
+            }
+            System.arraycopy(b, off, buf, count, len);
+            count += len;
+        }
+    }
+
+    // ---------------------------------------------------------------- Segment
+
+    private static final class Segment {
+        final File file;
+        final long firstSeq;
+        final int capacity;
+        final BitSet loggers = new BitSet();
+
+        /**
+         * The logger ids of a restored segment, indexed by the ids written
+         * in it; null if written by this session
+         */
+        final int[] loggerIds;
+
+        private volatile MappedByteBuffer buffer;
+
+        int[] index = new int[64];
+        int size = 0;
+        long end;
+        long lastMillis = Long.MIN_VALUE;
+
+        private Segment(final File file, final long firstSeq, final MappedByteBuffer buffer) {
+            this.file = file;
+            this.firstSeq = this.end = firstSeq;
+            this.buffer = buffer;
+            this.capacity = buffer.capacity();
+            this.loggerIds = null;
+        }
+
+        private Segment(final File file, final long firstSeq, final int size, final int[] loggerIds) {
+            this.file = file;
+            this.firstSeq = firstSeq;
+            this.capacity = this.size = size;
+            this.loggerIds = loggerIds;
+        }
+
+        static Segment create(final File dir, final long firstSeq, final int capacity) throws IOException {
+            final File file = new File(dir, String.format("%s%020d%s", PREFIX, firstSeq, SUFFIX));
+            try (FileChannel channel = FileChannel.open(
+                file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE
+            )) {
+                //
+                // the mapping stays valid after the channel is closed
+                //
+                return new Segment(file, firstSeq, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity));
+            }
+        }
+
+        /**
+         * Reads the description of a segment saved by {@link #save}; the
+         * segment is mapped when first read.
+         */
+        static Segment restore(final File dir, final DataInputStream in) throws IOException {
+            final long firstSeq = in.readLong();
+            final long end = in.readLong();
+            final int size = in.readInt();
+            final long lastMillis = in.readLong();
+            final int[] index = new int[in.readInt()];
+            for (int i = 0; i < index.length; ++i) {
+                index[i] = in.readInt();
+            }
+
+            final int n = in.readInt();
+            final int[] ids = new int[n];
+            final String[] names = new String[n];
+            int max = -1;
+            for (int i = 0; i < n; ++i) {
+                ids[i] = in.readInt();
+                names[i] = in.readUTF();
+                max = Math.max(max, ids[i]);
+            }
+            final int[] loggerIds = new int[max + 1];
+            for (int i = 0; i < n; ++i) {
+                loggerIds[ids[i]] = LoggerRegistry.getDefault().idOf(names[i]);
+            }
+
+            final Segment segment = new Segment(
+                new File(dir, String.format("%s%020d%s", PREFIX, firstSeq, SUFFIX)), firstSeq, size, loggerIds
+            );
+            segment.end = end;
+            segment.lastMillis = lastMillis;
+            segment.index = index;
+            for (int i = 0; i < n; ++i) {
+                segment.loggers.set(ids[i]);
+            }
+            return segment;
+        }
+
+        /**
+         * Writes the range, offset index and logger names of the segment.
+         */
+        void save(final DataOutputStream out) throws IOException {
+            out.writeLong(firstSeq);
+            out.writeLong(end);
+            out.writeInt(size);
+            out.writeLong(lastMillis);
+            final int n = (int) ((end - firstSeq + INDEX_STEP - 1) / INDEX_STEP);
+            out.writeInt(n);
+            for (int i = 0; i < n; ++i) {
+                out.writeInt(index[i]);
+            }
+            out.writeInt(loggers.cardinality());
+            for (int id = loggers.nextSetBit(0); id >= 0; id = loggers.nextSetBit(id + 1)) {
+                out.writeInt(id);
+                out.writeUTF(LoggerRegistry.getDefault().nameOf(loggerId(id)));
+            }
+        }
+
+        /**
+         * @param bytes the size of the records to write, end marker included
+         */
+        boolean fits(final int bytes) {
+            return loggerIds == null && size + bytes <= capacity;
+        }
+
+        /**
+         * @param id a logger id written in the segment
+         *
+         * @return the logger id in this session
+         */
+        int loggerId(final int id) {
+            return (loggerIds == null) ? id : loggerIds[id];
+        }
+
+        /**
+         * @return the mapping of the segment, mapping a restored one the
+         *         first time
+         */
+        MappedByteBuffer buffer() throws IOException {
+            MappedByteBuffer b = buffer;
+            if (b == null) {
+                synchronized (this) {
+                    b = buffer;
+                    if (b == null) {
+                        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                            buffer = b = channel.map(FileChannel.MapMode.READ_ONLY, 0, capacity);
+                        }
+                    }
+                }
+            }
+            return b;
+        }
+
+        void putLogger(final int id, final byte[] name) {
+            buffer.putInt(size, 1 + 4 + 4 + name.length);
+            buffer.put(size + 4, LOGGER);
+            buffer.putInt(size + 5, id);
+            buffer.putInt(size + 9, name.length);
+            buffer.put(size + 13, name);
+            size += 13 + name.length;
+            loggers.set(id);
+        }
+
+        void putEntry(final long seq, final byte[] data, final int offset, final int length, final long millis) {
+            final int n = (int) (seq - firstSeq);
+            if (n % INDEX_STEP == 0) {
+                final int i = n / INDEX_STEP;
+                if (i == index.length) {
+                    index = Arrays.copyOf(index, i * 2);
+                }
+                index[i] = size;
+            }
+            buffer.putInt(size, length);
+            buffer.put(size + 4, data, offset, length);
+            size += 4 + length;
+            end = seq + 1;
+            lastMillis = Math.max(lastMillis, millis);
+        }
+
+        /**
+         * @return the position of the record of the given entry
+         */
+        int position(final long seq) throws IOException {
+            final MappedByteBuffer buffer = buffer();
+            final int n = (int) (seq - firstSeq);
+            int position = index[n / INDEX_STEP];
+            int skip = n % INDEX_STEP;
+            while (true) {
+                if (buffer.get(position + 4) == ENTRY && skip-- == 0) {
+                    return position;
+                }
+                position += 4 + buffer.getInt(position);
+            }
+        }
+
+        LogEntry read(int position) throws IOException {
+            final MappedByteBuffer buffer = buffer();
+            position += 5;
+            final byte levelIndex = buffer.get(position++);
+            final Level level;
+            if (levelIndex >= 0) {
+                level = STANDARD_LEVELS[levelIndex];
+            } else {
+                final int levelValue = buffer.getInt(position);
+                position += 4;
+                level = level(readText(buffer, position), levelValue);
+                position += 4 + Math.max(0, buffer.getInt(position));
+            }
+            final long millis = buffer.getLong(position);
+            final int loggerId = loggerId(buffer.getInt(position + 8));
+            final long threadId = buffer.getLong(position + 12);
+            position += 20;
+            final String source = readText(buffer, position);
+            position += 4 + Math.max(0, buffer.getInt(position));
+            final String message = readText(buffer, position);
+            position += 4 + Math.max(0, buffer.getInt(position));
+            final int n = buffer.get(position++);
+            final Object[] parameters = (n > 0) ? new Object[n] : null;
+            for (int i = 0; i < n; ++i) {
+                final byte type = buffer.get(position++);
+                if (type == STRING) {
+                    parameters[i] = readText(buffer, position);
+                    position += 4 + Math.max(0, buffer.getInt(position));
+                } else if (type == LONG) {
+                    parameters[i] = buffer.getLong(position);
+                    position += 8;
+                } else if (type == DOUBLE) {
+                    parameters[i] = buffer.getDouble(position);
+                    position += 8;
+                } else if (type == DATE) {
+                    parameters[i] = new Date(buffer.getLong(position));
+                    position += 8;
+                }
+            }
+            final String thrown = readText(buffer, position);
+            position += 4 + Math.max(0, buffer.getInt(position));
+
+            final LogEntry entry = new LogEntry(
+                level, millis, loggerId, threadId,
+                message, parameters, null, (thrown == null) ? null : new StackTrace(thrown), source
+            );
+            entry.setRepeats(buffer.getInt(position), buffer.getLong(position + 4));
+            return entry;
+        }
+
+        private static String readText(final MappedByteBuffer buffer, final int position) {
+            final int length = buffer.getInt(position);
+            if (length < 0) {
+                return null;
+            }
+            final byte[] b = new byte[length];
+            buffer.get(position + 4, b);
+            return new String(b, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+
+/**
+ * The exception of an entry that has been stored or transferred as text: it
+ * prints the stack trace text of the original exception.
+ */
+final class StackTrace extends Throwable {
+
+    private final String trace;
+
+    /**
+     * @param trace the stack trace as printed by the original exception - NOT NULL
+     */
+    StackTrace(final String trace) {
+        super(null, null, false, false);
+        this.trace = trace;
+    }
+
+    @Override
+    public String toString() {
+        final int nl = trace.indexOf('\n');
+        return ((nl < 0) ? trace : trace.substring(0, nl)).strip();
+    }
+
+    @Override
+    public void printStackTrace(final PrintWriter s) {
+        s.print(trace);
+    }
+
+    @Override
+    public void printStackTrace(final PrintStream s) {
+        s.print(trace);
+    }
+}
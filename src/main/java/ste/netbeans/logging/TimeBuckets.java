@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+
+/**
+ * Counts entries by level in time buckets of a fixed width, remembering the
+ * first entry of each bucket so that a time can be mapped to a sequence
+ * number.
+ * <p>
+ * Buckets are kept in a ring, in the order entries are appended, and only
+ * for the times that have entries. Entries are expected in time order, as
+ * they are appended to the {@link LogStore}; an entry older than the newest
+ * bucket (for example received late from another process) is counted in
+ * the newest bucket, so that buckets stay sorted by both time and sequence
+ * number. Counting an entry is then constant time and looking up a time is
+ * a binary search over the buckets. When the ring is full, the oldest bucket
+ * is dropped.
+ * </p>
+ * <p>
+ * It is not thread safe: it is used on the thread appending to the store.
+ * </p>
+ */
+final class TimeBuckets {
+
+    //
+    // level groups
+    //
+    static final int SEVERE = 0;
+    static final int WARNING = 1;
+    static final int OTHER = 2;
+    static final int GROUPS = 3;
+
+    private final long width;
+    private final long[] times;
+    private final long[] firstSeqs;
+    private final int[] counts;
+
+    private int head = 0;
+    private int size = 0;
+
+    /**
+     * @param width the width of a bucket in milliseconds - must be {@literal > 0}
+     * @param capacity the maximum number of buckets - must be {@literal > 0}
+     */
+    TimeBuckets(final long width, final int capacity) {
+        this.width = width;
+        this.times = new long[capacity];
+        this.firstSeqs = new long[capacity];
+        this.counts = new int[capacity * GROUPS];
+    }
+
+    long getWidth() {
+        return width;
+    }
+
+    /**
+     * @return the group an entry of the given level is counted in
+     */
+    static int groupOf(final Level level) {
+        final int value = level.intValue();
+        return (value >= Level.SEVERE.intValue()) ? SEVERE
+             : (value >= Level.WARNING.intValue()) ? WARNING
+             : OTHER;
+    }
+
+    /**
+     * Counts an entry.
+     *
+     * @param millis the time of the entry
+     * @param seq the sequence number of the entry
+     * @param group the level group of the entry
+     */
+    void add(final long millis, final long seq, final int group) {
+        final long time = Math.floorDiv(millis, width) * width;
+        int last = slot(size - 1);
+        if (size == 0 || time > times[last]) {
+            if (size == times.length) {
+                head = slot(1);
+                --size;
+            }
+            last = slot(size++);
+            times[last] = time;
+            firstSeqs[last] = seq;
+            Arrays.fill(counts, last * GROUPS, last * GROUPS + GROUPS, 0);
+        }
+        ++counts[last * GROUPS + group];
+    }
+
+    /**
+     * Drops the buckets whose entries all come before the given sequence
+     * number.
+     *
+     * @param seq the sequence number of the oldest retained entry
+     */
+    void evictTo(final long seq) {
+        while (size > 1 && firstSeqs[slot(1)] <= seq) {
+            head = slot(1);
+            --size;
+        }
+        if (size == 1 && firstSeqs[head] < seq) {
+            firstSeqs[head] = seq;
+        }
+    }
+
+    void clear() {
+        head = size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param i the bucket index, from 0 (the oldest) to size - 1
+     *
+     * @return the start time of the bucket
+     */
+    long time(final int i) {
+        return times[slot(i)];
+    }
+
+    /**
+     * @param i the bucket index
+     *
+     * @return the sequence number of the first entry of the bucket
+     */
+    long firstSeq(final int i) {
+        return firstSeqs[slot(i)];
+    }
+
+    /**
+     * @param i the bucket index
+     * @param group a level group
+     *
+     * @return the entries of the given group in the bucket
+     */
+    int count(final int i, final int group) {
+        return counts[slot(i) * GROUPS + group];
+    }
+
+    /**
+     * @param i the bucket index
+     *
+     * @return all the entries in the bucket
+     */
+    int total(final int i) {
+        final int s = slot(i) * GROUPS;
+        return counts[s + SEVERE] + counts[s + WARNING] + counts[s + OTHER];
+    }
+
+    /**
+     * @param millis a time
+     *
+     * @return the index of the last bucket starting at or before the given
+     *         time, 0 if the time is before the first bucket, -1 if there
+     *         are no buckets
+     */
+    int indexOf(final long millis) {
+        int low = 0, high = size - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            if (time(mid) <= millis) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return (size == 0) ? -1 : Math.max(0, high);
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private int slot(final int i) {
+        return (head + i) % times.length;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The entries of a {@link LogStore} counted in per-second and per-minute
+ * {@link TimeBuckets}, shared by all the {@link LogTimeline}s of the store:
+ * the entries in memory are counted once, when the counts are first needed,
+ * then the store is followed as a {@link LogStore.Listener}; entries only in
+ * the history at that time are not counted.
+ * <p>
+ * It is not thread safe: it is used on the thread appending to the store,
+ * which is also where its listeners are notified.
+ * </p>
+ */
+final class TimeCounts implements LogStore.Listener {
+
+    final TimeBuckets seconds = new TimeBuckets(TimeUnit.SECONDS.toMillis(1), LogTimeline.SECONDS);
+    final TimeBuckets minutes = new TimeBuckets(TimeUnit.MINUTES.toMillis(1), LogTimeline.MINUTES);
+
+    private final LogStore store;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Counts the entries in memory and follows the store.
+     *
+     * @param store the store - NOT NULL
+     */
+    TimeCounts(final LogStore store) {
+        this.store = store;
+        count(store.firstInMemory(), store.end());
+        store.addListener(this);
+    }
+
+    /**
+     * @param l run after the counts change - NOT NULL
+     */
+    void addListener(final Runnable l) {
+        listeners.add(l);
+    }
+
+    void removeListener(final Runnable l) {
+        listeners.remove(l);
+    }
+
+    @Override
+    public void evicted(final long first, final long end) {
+        seconds.evictTo(end);
+        minutes.evictTo(end);
+        changed();
+    }
+
+    @Override
+    public void appended(final long first, final long end) {
+        count(Math.max(first, store.firstInMemory()), end);
+        changed();
+    }
+
+    @Override
+    public void cleared(final long first, final long end) {
+        seconds.clear();
+        minutes.clear();
+        changed();
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private void count(final long from, final long to) {
+        for (long seq = from; seq < to; ++seq) {
+            final LogEntry entry = store.get(seq);
+            if (entry != null) {
+                final int group = TimeBuckets.groupOf(entry.level);
+                seconds.add(entry.millis, seq, group);
+                minutes.add(entry.millis, seq, group);
+            }
+        }
+    }
+
+    private void changed() {
+        for (Runnable l: listeners) {
+            l.run();
+        }
+    }
+}
@@ -0,0 +1,415 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.openide.util.RequestProcessor;
+
+/**
+ * What the viewer is doing, as rates and sizes: records ingested, filtered
+ * out by level, suppressed by the rate limits, dropped, folded and rendered
+ * (delivered as rows to the view), the depth of the handler queue, the time
+ * the Event Dispatch Thread spends on each batch, the retained entries, their
+ * estimated memory and the loggers producing the most records.
+ * <p>
+ * The handler and the logger registry only update striped counters; every
+ * {@link #INTERVAL} milliseconds a background task reads them and computes
+ * the rates of the last interval, so reading the metrics never touches the
+ * logging path. Sampling goes on only while a viewer is attached to the
+ * handler, see {@link #resume()}. The default instance is registered in the platform MBean
+ * server as {@link #OBJECT_NAME}, by its first sample so that starting the
+ * module does not pay for the MBean server, and shown in the status strip
+ * of the {@link LogViewerPanel}.
+ * </p>
+ */
+public final class ViewerMetrics implements ViewerMetricsMBean {
+
+    public static final String OBJECT_NAME = "ste.netbeans.logging:type=LogViewer";
+
+    /**
+     * Sampling interval in milliseconds
+     */
+    public static final int INTERVAL = 1000;
+
+    /**
+     * Number of loggers listed in {@link #getTopTalkers()}
+     */
+    public static final int TOP_TALKERS = 5;
+
+    /**
+     * Number of retained entries measured to estimate the memory they take
+     */
+    static final int SIZE_SAMPLES = 64;
+
+    private static final Logger LOG = Logger.getLogger(ViewerMetrics.class.getName());
+    private static final RequestProcessor RP = new RequestProcessor(ViewerMetrics.class);
+
+    private static ViewerMetrics running = null;
+
+    private final LogViewerHandler handler;
+    private final LogStore store;
+    private final LoggerRegistry registry;
+
+    private final RequestProcessor.Task sampler = RP.create(this::run);
+    private volatile boolean stopped = false;
+    private boolean registered = false; // guarded by ViewerMetrics.class
+
+    //
+    // counters at the previous sample, only used by the sampling thread
+    //
+    private long sampled = -1;
+    private long ingested, filtered, suppressed, dropped, folded, delivered;
+    private long batches, batchTime;
+    private long[] loggers = new long[0];
+
+    private volatile Rates rates = new Rates();
+
+    /**
+     * The values computed at each sample
+     */
+    private static final class Rates {
+        double ingested, filtered, suppressed, dropped, folded, delivered;
+        double averageBatch;
+        long estimatedMemory;
+        String[] topTalkers = new String[0];
+    }
+
+    /**
+     * @param handler the handler whose counters are read - NOT NULL
+     * @param store the store the handler delivers to - NOT NULL
+     * @param registry the registry counting the records of each logger - NOT NULL
+     */
+    public ViewerMetrics(
+        final LogViewerHandler handler, final LogStore store, final LoggerRegistry registry
+    ) {
+        this.handler = handler;
+        this.store = store;
+        this.registry = registry;
+    }
+
+    /**
+     * Starts sampling the given handler, replacing the metrics started
+     * before, if any. Sampling, and the registration in the platform MBean
+     * server, begin once a viewer is attached.
+     *
+     * @param handler the handler - NOT NULL
+     */
+    public static synchronized void startDefault(final LogViewerHandler handler) {
+        stopDefault();
+        running = new ViewerMetrics(handler, LogStore.getDefault(), LoggerRegistry.getDefault());
+        if (handler.isAttached()) {
+            running.sampler.schedule(0);
+        }
+    }
+
+    public static synchronized void stopDefault() {
+        if (running != null) {
+            running.stopped = true;
+            running.sampler.cancel();
+            if (!running.registered) {
+                running = null;
+                return;
+            }
+            try {
+                final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                final ObjectName name = new ObjectName(OBJECT_NAME);
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            } catch (JMException x) {
+                LOG.log(Level.FINE, "log viewer metrics not unregistered: {0}", x.getMessage());
+            }
+            running = null;
+        }
+    }
+
+    /**
+     * @return the metrics started with {@link #startDefault(LogViewerHandler)},
+     *         null if not started
+     */
+    public static synchronized ViewerMetrics getDefault() {
+        return running;
+    }
+
+    /**
+     * Starts sampling again, for example because a viewer has been attached
+     * to the handler; sampling stops by itself when none is attached.
+     */
+    public void resume() {
+        if (!stopped) {
+            sampler.schedule(0);
+        }
+    }
+
+    @Override
+    public double getIngestedRate() {
+        return rates.ingested;
+    }
+
+    @Override
+    public double getFilteredRate() {
+        return rates.filtered;
+    }
+
+    @Override
+    public double getSuppressedRate() {
+        return rates.suppressed;
+    }
+
+    @Override
+    public double getDroppedRate() {
+        return rates.dropped;
+    }
+
+    @Override
+    public double getFoldedRate() {
+        return rates.folded;
+    }
+
+    @Override
+    public double getRenderedRate() {
+        return rates.delivered;
+    }
+
+    @Override
+    public long getIngestedCount() {
+        return handler.getIngestedCount();
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return handler.getDroppedCount();
+    }
+
+    @Override
+    public int getQueueSize() {
+        return handler.getQueueSize();
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        return handler.getQueueCapacity();
+    }
+
+    @Override
+    public double getLastBatchMillis() {
+        return handler.getLastBatchTime() / 1e6;
+    }
+
+    @Override
+    public double getMaxBatchMillis() {
+        return handler.getMaxBatchTime() / 1e6;
+    }
+
+    @Override
+    public double getAverageBatchMillis() {
+        return rates.averageBatch;
+    }
+
+    @Override
+    public int getRetainedCount() {
+        return store.size();
+    }
+
+    @Override
+    public int getInMemoryCount() {
+        return (int) (store.end() - store.firstInMemory());
+    }
+
+    @Override
+    public long getEstimatedMemory() {
+        return rates.estimatedMemory;
+    }
+
+    @Override
+    public long getSpilledBytes() {
+        final SpillStore history = store.getHistory();
+        return (history == null) ? 0 : history.getDiskSize();
+    }
+
+    /**
+     * @return the loggers that produced the most records in the last
+     *         interval, as {@code name (records/s)}, the busiest first
+     */
+    @Override
+    public String[] getTopTalkers() {
+        return rates.topTalkers.clone();
+    }
+
+    /**
+     * Reads the counters and computes the rates since the previous call; the
+     * first call only takes the baseline.
+     *
+     * @param now the current time, in nanoseconds
+     */
+    synchronized void sample(final long now) {
+        final long ingestedNow = handler.getIngestedCount(),
+                   filteredNow = handler.getFilteredCount(),
+                   suppressedNow = handler.getSuppressedCount(),
+                   droppedNow = handler.getDroppedCount(),
+                   foldedNow = handler.getFoldedCount(),
+                   deliveredNow = handler.getDeliveredCount(),
+                   batchesNow = handler.getBatchCount(),
+                   batchTimeNow = handler.getBatchTime();
+
+        final int n = registry.size();
+        final long[] loggersNow = new long[n];
+        for (int id = 0; id < n; ++id) {
+            loggersNow[id] = registry.count(id);
+        }
+
+        if (sampled >= 0 && now > sampled) {
+            final double seconds = (double) (now - sampled) / TimeUnit.SECONDS.toNanos(1);
+            final Rates r = new Rates();
+            r.ingested = (ingestedNow - ingested) / seconds;
+            r.filtered = (filteredNow - filtered) / seconds;
+            r.suppressed = (suppressedNow - suppressed) / seconds;
+            r.dropped = (droppedNow - dropped) / seconds;
+            r.folded = (foldedNow - folded) / seconds;
+            r.delivered = (deliveredNow - delivered) / seconds;
+            r.averageBatch = (batchesNow > batches)
+                           ? (batchTimeNow - batchTime) / 1e6 / (batchesNow - batches)
+                           : 0;
+            r.estimatedMemory = estimateMemory();
+            r.topTalkers = topTalkers(loggersNow, seconds);
+            rates = r;
+        }
+
+        sampled = now;
+        ingested = ingestedNow;
+        filtered = filteredNow;
+        suppressed = suppressedNow;
+        dropped = droppedNow;
+        folded = foldedNow;
+        delivered = deliveredNow;
+        batches = batchesNow;
+        batchTime = batchTimeNow;
+        loggers = loggersNow;
+    }
+
+    /**
+     * Estimates the heap taken by an entry: the entry itself, its message
+     * and parameters and, roughly, its exception; occurrences folded into it
+     * are not counted.
+     *
+     * @param entry the entry - NOT NULL
+     *
+     * @return the estimated size in bytes
+     */
+    static long estimateSize(final LogEntry entry) {
+        long size = 72;
+        if (entry.message != null) {
+            size += 40 + entry.message.length();
+        }
+        if (entry.parameters != null) {
+            size += 16 + 4 * entry.parameters.length;
+            for (Object p: entry.parameters) {
+                size += (p instanceof String) ? 40 + ((String) p).length() : 24;
+            }
+        }
+        if (entry.thrown instanceof StackTrace) {
+            size += 40 + entry.thrown.toString().length();
+        } else if (entry.thrown != null) {
+            size += 64 + 32 * entry.thrown.getStackTrace().length;
+        }
+        return size;
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private void run() {
+        if (stopped) {
+            return;
+        }
+        register(this);
+        sample(System.nanoTime());
+        if (!stopped && handler.isAttached()) {
+            sampler.schedule(INTERVAL);
+        }
+    }
+
+    /**
+     * Registers the given metrics in the platform MBean server, replacing
+     * any registered before, if they are still the default ones.
+     */
+    private static synchronized void register(final ViewerMetrics metrics) {
+        if (metrics != running || metrics.registered) {
+            return;
+        }
+        metrics.registered = true;
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(metrics, name);
+        } catch (JMException x) {
+            LOG.log(Level.INFO, "log viewer metrics not registered: {0}", x.getMessage());
+        }
+    }
+
+    /**
+     * Measures up to {@link #SIZE_SAMPLES} entries spread over the ones in
+     * memory and scales their average size to all of them.
+     */
+    private long estimateMemory() {
+        final long from = store.firstInMemory(), to = store.end();
+        final long count = to - from;
+        if (count <= 0) {
+            return 0;
+        }
+
+        final long step = Math.max(1, count / SIZE_SAMPLES);
+        long size = 0;
+        int measured = 0;
+        for (long seq = from; seq < to && measured < SIZE_SAMPLES; seq += step) {
+            final LogEntry entry = store.get(seq);
+            if (entry != null) {
+                size += estimateSize(entry);
+                ++measured;
+            }
+        }
+
+        return (measured == 0) ? 0 : size / measured * count;
+    }
+
+    private String[] topTalkers(final long[] counts, final double seconds) {
+        final List<long[]> deltas = new ArrayList<>();
+        for (int id = 0; id < counts.length; ++id) {
+            final long delta = counts[id] - ((id < loggers.length) ? loggers[id] : 0);
+            if (delta > 0) {
+                deltas.add(new long[] {id, delta});
+            }
+        }
+        deltas.sort((a, b) -> Long.compare(b[1], a[1]));
+
+        final String[] top = new String[Math.min(TOP_TALKERS, deltas.size())];
+        for (int i = 0; i < top.length; ++i) {
+            top[i] = registry.nameOf((int) deltas.get(i)[0])
+                   + " (" + Math.round(deltas.get(i)[1] / seconds) + "/s)";
+        }
+        return top;
+    }
+}
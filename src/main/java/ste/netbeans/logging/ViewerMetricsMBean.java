@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+/**
+ * The management interface of {@link ViewerMetrics}; rates are in records per
+ * second over the last sampling interval.
+ */
+public interface ViewerMetricsMBean {
+
+    double getIngestedRate();
+
+    double getFilteredRate();
+
+    double getSuppressedRate();
+
+    double getDroppedRate();
+
+    double getFoldedRate();
+
+    double getRenderedRate();
+
+    long getIngestedCount();
+
+    long getDroppedCount();
+
+    int getQueueSize();
+
+    int getQueueCapacity();
+
+    double getLastBatchMillis();
+
+    double getMaxBatchMillis();
+
+    double getAverageBatchMillis();
+
+    int getRetainedCount();
+
+    int getInMemoryCount();
+
+    long getEstimatedMemory();
+
+    long getSpilledBytes();
+
+    String[] getTopTalkers();
+}
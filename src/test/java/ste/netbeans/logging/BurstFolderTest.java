@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.logging.Level;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+public class BurstFolderTest {
+
+    @Test
+    public void fold_repetitions_of_the_same_message() {
+        final BurstFolder folder = new BurstFolder(1000);
+
+        final LogEntry first = entry(Level.WARNING, "retry {0}", 0, null, 1000);
+        then(folder.fold(first)).isFalse();
+        for (int i = 1; i < 500; ++i) {
+            then(folder.fold(entry(Level.WARNING, "retry {0}", i, null, 1000 + i))).isTrue();
+        }
+
+        then(first.getCount()).isEqualTo(500);
+        then(first.getLastMillis()).isEqualTo(1499);
+        then(first.getOccurrences()).hasSize(LogEntry.MAX_OCCURRENCES);
+        then(LogEntryFormatter.formatMessage(first.getOccurrences().get(0))).isEqualTo("retry 400");
+        then(LogEntryFormatter.formatMessage(first.getOccurrences().get(99))).isEqualTo("retry 499");
+    }
+
+    @Test
+    public void fold_interleaved_messages_separately() {
+        final BurstFolder folder = new BurstFolder(1000);
+
+        final LogEntry warning = entry(Level.WARNING, "retrying", 0, null, 0);
+        final LogEntry error = entry(Level.SEVERE, "failed", 0, new IOException("a"), 0);
+        then(folder.fold(warning)).isFalse();
+        then(folder.fold(error)).isFalse();
+        for (int i = 1; i < 10; ++i) {
+            then(folder.fold(entry(Level.WARNING, "retrying", 0, null, i))).isTrue();
+            then(folder.fold(entry(Level.SEVERE, "failed", 0, new IOException("b"), i))).isTrue();
+        }
+        then(warning.getCount()).isEqualTo(10);
+        then(error.getCount()).isEqualTo(10);
+
+        //
+        // a different level, exception type or a pause start a new row
+        //
+        then(folder.fold(entry(Level.INFO, "retrying", 0, null, 10))).isFalse();
+        then(folder.fold(entry(Level.SEVERE, "failed", 0, new IllegalStateException(), 10))).isFalse();
+        then(folder.fold(entry(Level.WARNING, "retrying", 0, null, 2000))).isFalse();
+        then(folder.fold(entry(Level.WARNING, "retrying", 0, null, 2001))).isTrue();
+        then(warning.getCount()).isEqualTo(10);
+    }
+
+    @Test
+    public void do_not_fold_when_disabled_or_cleared() {
+        final BurstFolder folder = new BurstFolder(0);
+
+        then(folder.fold(entry(Level.INFO, "same", 0, null, 0))).isFalse();
+        then(folder.fold(entry(Level.INFO, "same", 0, null, 0))).isFalse();
+
+        folder.setWindow(1000);
+        then(folder.fold(entry(Level.INFO, "same", 0, null, 0))).isFalse();
+        folder.clear();
+        then(folder.fold(entry(Level.INFO, "same", 0, null, 0))).isFalse();
+        then(folder.fold(entry(Level.INFO, "same", 0, null, 0))).isTrue();
+    }
+
+    @Test
+    public void do_not_fold_into_entries_out_of_memory() {
+        final LogStore store = new LogStore(2);
+        final BurstFolder folder = new BurstFolder(1000, store);
+
+        final LogEntry head = entry(Level.INFO, "same", 0, null, 0);
+        then(folder.fold(head)).isFalse();
+        then(folder.fold(entry(Level.INFO, "same", 0, null, 1))).isTrue();
+        store.addAll(List.of(head));
+        then(folder.fold(entry(Level.INFO, "same", 0, null, 2))).isTrue();
+        then(head.getCount()).isEqualTo(3);
+
+        //
+        // once evicted the row can not change, the next repeat starts a new one
+        //
+        store.addAll(List.of(
+            entry(Level.INFO, "other", 0, null, 3), entry(Level.INFO, "other", 0, null, 3)
+        ));
+        final LogEntry next = entry(Level.INFO, "same", 0, null, 4);
+        then(folder.fold(next)).isFalse();
+        then(folder.fold(entry(Level.INFO, "same", 0, null, 5))).isTrue();
+        then(head.getCount()).isEqualTo(3);
+        then(next.getCount()).isEqualTo(2);
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private static LogEntry entry(
+        final Level level, final String message, final int parameter,
+        final Throwable thrown, final long millis
+    ) {
+        return new LogEntry(
+            level, millis, LoggerRegistry.getDefault().idOf("ste.netbeans.logging.burst"),
+            1, message, new Object[] {parameter}, null, thrown
+        );
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2025 Stefano Fornari.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ste.netbeans.logging;
+
+import java.util.logging.Level;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+public class DisplayLevelsTest {
+
+    private final LoggerRegistry registry = new LoggerRegistry();
+    private final DisplayLevels levels = new DisplayLevels(registry);
+
+    @Test
+    public void show_everything_by_default() {
+        then(levels.rejects(registry.idOf("org.a"), Level.FINEST)).isFalse();
+        then(levels.rejects(registry.idOf(""), Level.ALL)).isFalse();
+    }
+
+    @Test
+    public void levels_apply_to_subtrees() {
+        final int a = registry.idOf("org.a"), ax = registry.idOf("org.a.x"),
+                  ab = registry.idOf("org.ab"), b = registry.idOf("org.b");
+
+        levels.setLevel("org.a", Level.WARNING);
+
+        then(levels.rejects(a, Level.INFO)).isTrue();
+        then(levels.rejects(a, Level.WARNING)).isFalse();
+        then(levels.rejects(ax, Level.INFO)).isTrue();
+        then(levels.rejects(ab, Level.INFO)).isFalse();
+        then(levels.rejects(b, Level.FINEST)).isFalse();
+
+        levels.setLevel("org.a.x", Level.FINE);
+        then(levels.rejects(ax, Level.FINE)).isFalse();
+        then(levels.rejects(a, Level.INFO)).isTrue();
+
+        levels.setLevel("", Level.OFF);
+        then(levels.rejects(b, Level.SEVERE)).isTrue();
+    }
+
+    @Test
+    public void changing_a_level_invalidates_the_cache() {
+        final int a = registry.idOf("org.a");
+
+        then(levels.rejects(a, Level.INFO)).isFalse();
+        levels.setLevel("org", Level.SEVERE);
+        then(levels.rejects(a, Level.INFO)).isTrue();
+        levels.setLevel("org", null);
+        then(levels.rejects(a, Level.INFO)).isFalse();
+    }
+
+    @Test
+    public void loggers_registered_after_a_change_are_resolved() {
+        levels.setLevel("org", Level.WARNING);
+        then(levels.rejects(registry.idOf("org.first"), Level.INFO)).isTrue();
+
+        for (int i = 0; i < 200; ++i) {
+            registry.idOf("net." + i);
+        }
+        then(levels.rejects(registry.idOf("org.last"), Level.INFO)).isTrue();
+        then(levels.rejects(registry.idOf("net.199"), Level.INFO)).isFalse();
+    }
+}
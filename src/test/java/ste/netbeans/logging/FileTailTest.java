@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ */
+public class FileTailTest {
+
+    @TempDir
+    Path dir;
+
+    private final List<String> events = new ArrayList<>();
+
+    private final FileTail.Listener listener = new FileTail.Listener() {
+        @Override
+        public synchronized void linesAdded(int from, int to) {
+            events.add("+" + from + "-" + to);
+        }
+
+        @Override
+        public synchronized void reset() {
+            events.add("reset");
+        }
+    };
+
+    @Test
+    public void read_complete_lines_only() throws Exception {
+        final Path file = dir.resolve("messages.log");
+        Files.writeString(file, "one\r\ntwo\nthr");
+
+        try (FileTail tail = new FileTail(file, listener)) {
+            tail.scan();
+            then(tail.getLineCount()).isEqualTo(2);
+            then(tail.line(0)).isEqualTo("one");
+            then(tail.line(1)).isEqualTo("two");
+            then(tail.line(2)).isNull();
+
+            Files.writeString(file, "ee\nfour\n", StandardOpenOption.APPEND);
+            tail.scan();
+            then(tail.getLineCount()).isEqualTo(4);
+            then(tail.line(2)).isEqualTo("three");
+            then(tail.line(3)).isEqualTo("four");
+            then(events).containsExactly("+0-2", "+2-4");
+        }
+    }
+
+    @Test
+    public void index_large_files_in_chunks() throws Exception {
+        final Path file = dir.resolve("big.log");
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < 200_000; ++i) {
+                out.write("line number " + i + "\n");
+            }
+        }
+
+        try (FileTail tail = new FileTail(file, listener)) {
+            tail.scan();
+            then(tail.getLineCount()).isEqualTo(200_000);
+            then(events.size()).isGreaterThan(1);
+            for (int i: new int[] {0, 63, 64, 65, 12345, 199_999}) {
+                then(tail.line(i)).isEqualTo("line number " + i);
+            }
+        }
+    }
+
+    @Test
+    public void scan_again_when_truncated() throws Exception {
+        final Path file = dir.resolve("messages.log");
+        Files.writeString(file, "one\ntwo\n");
+
+        try (FileTail tail = new FileTail(file, listener)) {
+            tail.scan();
+            Files.writeString(file, "new\n");
+            tail.scan();
+
+            then(tail.getLineCount()).isEqualTo(1);
+            then(tail.line(0)).isEqualTo("new");
+            then(events).containsExactly("+0-2", "reset", "+0-1");
+        }
+    }
+
+    @Test
+    public void scan_again_when_rotated_by_renaming() throws Exception {
+        final Path file = dir.resolve("messages.log");
+        Files.writeString(file, "one\ntwo\n");
+
+        try (FileTail tail = new FileTail(file, listener)) {
+            tail.scan();
+            Files.move(file, dir.resolve("messages.log.1"));
+            Files.writeString(file, "three\nfour\nfive\n");
+            tail.scan();
+
+            then(tail.getLineCount()).isEqualTo(3);
+            then(tail.line(0)).isEqualTo("three");
+            then(events).containsExactly("+0-2", "reset", "+0-3");
+        }
+    }
+
+    @Test
+    public void follow_more_files_than_threads() throws Exception {
+        final List<FileTail> tails = new ArrayList<>();
+        try {
+            for (int i = 0; i < 32; ++i) {
+                final Path file = dir.resolve("app" + i + ".log");
+                Files.writeString(file, "line " + i + "\n");
+                final FileTail tail = new FileTail(file, listener);
+                tails.add(tail);
+                tail.start();
+            }
+
+            final long timeout = System.currentTimeMillis() + 10_000;
+            for (int i = 0; i < tails.size(); ++i) {
+                while (tails.get(i).getLineCount() < 1 && System.currentTimeMillis() < timeout) {
+                    Thread.sleep(10);
+                }
+                then(tails.get(i).line(0)).isEqualTo("line " + i);
+            }
+        } finally {
+            tails.forEach(FileTail::close);
+        }
+    }
+
+    @Test
+    public void follow_appended_lines() throws Exception {
+        final Path file = dir.resolve("messages.log");
+        Files.writeString(file, "one\n");
+
+        try (FileTail tail = new FileTail(file, listener)) {
+            tail.start();
+            Files.writeString(file, "two\n", StandardOpenOption.APPEND);
+
+            final long timeout = System.currentTimeMillis() + 10_000;
+            while (tail.getLineCount() < 2 && System.currentTimeMillis() < timeout) {
+                Thread.sleep(50);
+            }
+            then(tail.line(1)).isEqualTo("two");
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2025 Stefano Fornari.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ste.netbeans.logging;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ListResourceBundle;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+public class LogEntryFormatterTest {
+
+    private static final int TEST_LOGGER = LoggerRegistry.getDefault().idOf("ste.test");
+
+    @Test
+    public void snapshot_does_not_format() {
+        final Object[] params = new Object[] { "world" };
+        final LogRecord record = new LogRecord(Level.FINE, "hello {0}");
+        record.setLoggerName("ste.test");
+        record.setParameters(params);
+
+        final LogEntry entry = LogEntry.of(record);
+
+        then(entry.message).isEqualTo("hello {0}");
+        then(entry.parameters).isSameAs(params);
+        then(entry.level).isSameAs(Level.FINE);
+        then(entry.loggerName()).isEqualTo("ste.test");
+        then(entry.millis).isEqualTo(record.getMillis());
+    }
+
+    @Test
+    public void format_message_expands_parameters() {
+        then(LogEntryFormatter.formatMessage(entry("hello {0}", "world"))).isEqualTo("hello world");
+        then(LogEntryFormatter.formatMessage(entry("hello {world}", "world"))).isEqualTo("hello {world}");
+        then(LogEntryFormatter.formatMessage(entry("hello", "world"))).isEqualTo("hello");
+        then(LogEntryFormatter.formatMessage(entry(null))).isEmpty();
+    }
+
+    @Test
+    public void locate_the_columns_of_a_row() {
+        final LogEntry entry = new LogEntry(
+            Level.WARNING, 0, TEST_LOGGER, 42, "failed", null, null,
+            new IOException("boom"), "Worker"
+        );
+        final String row = LogEntryFormatter.formatRow(entry);
+        final int[] columns = LogEntryFormatter.columns(entry, row);
+
+        then(row.substring(columns[LogEntryFormatter.LEVEL], columns[LogEntryFormatter.LEVEL + 1]))
+            .isEqualTo("WARNING");
+        then(row.substring(columns[LogEntryFormatter.THREAD], columns[LogEntryFormatter.THREAD + 1]))
+            .isEqualTo("[Worker:42]");
+        then(row.substring(columns[LogEntryFormatter.LOGGER], columns[LogEntryFormatter.LOGGER + 1]))
+            .isEqualTo("ste.test");
+        then(row.substring(columns[LogEntryFormatter.THROWN]))
+            .isEqualTo(" [java.io.IOException: boom]");
+
+        final LogEntry plain = entry("hello");
+        then(LogEntryFormatter.columns(plain, LogEntryFormatter.formatRow(plain))[LogEntryFormatter.THROWN])
+            .isEqualTo(LogEntryFormatter.formatRow(plain).length());
+    }
+
+    @Test
+    public void format_timestamps_to_the_millisecond() {
+        final DateTimeFormatter format =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+        for (long millis: new long[] {0, 7, 1_000, 1_099, 1_750_000_000_123L, 1_750_000_000_999L, -1}) {
+            final LogEntry entry = new LogEntry(Level.INFO, millis, TEST_LOGGER, 1, "m", null, null, null);
+            then(LogEntryFormatter.formatRow(entry)).startsWith(format.format(Instant.ofEpochMilli(millis)) + " INFO");
+        }
+    }
+
+    @Test
+    public void format_message_localizes() {
+        final LogEntry entry = new LogEntry(
+            Level.INFO, 0, TEST_LOGGER, 1, "KEY", new Object[] { 10 },
+            new ListResourceBundle() {
+                @Override
+                protected Object[][] getContents() {
+                    return new Object[][] { { "KEY", "value is {0}" } };
+                }
+            }, null
+        );
+
+        then(LogEntryFormatter.formatMessage(entry)).isEqualTo("value is 10");
+    }
+
+    @Test
+    public void format_row_is_a_single_line() {
+        final LogEntry entry = new LogEntry(
+            Level.WARNING, 0, TEST_LOGGER, 7, "first\nsecond", null, null,
+            new IOException("boom")
+        );
+
+        final String row = LogEntryFormatter.formatRow(entry);
+        then(row).doesNotContain("\n")
+            .contains(" WARNING [7] ste.test - first …")
+            .endsWith("[java.io.IOException: boom]");
+    }
+
+    @Test
+    public void format_full_includes_message_and_stack_trace() {
+        final LogEntry entry = new LogEntry(
+            Level.SEVERE, 0, TEST_LOGGER, 7, "first\nsecond", null, null,
+            new IOException("boom")
+        );
+
+        then(LogEntryFormatter.formatFull(entry))
+            .contains("ste.test - first\nsecond\njava.io.IOException: boom")
+            .contains("at ste.netbeans.logging.LogEntryFormatterTest");
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private LogEntry entry(final String message, final Object... params) {
+        return new LogEntry(Level.INFO, 0, TEST_LOGGER, 1, message, params, null, null);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.zip.GZIPInputStream;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static ste.netbeans.logging.LogStoreTest.entries;
+
+/**
+ *
+ */
+public class LogExporterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void export_plain_text() throws Exception {
+        final LogStore store = new LogStore(10);
+        store.addAll(entries("one", "two\nlines"));
+        final Path file = dir.resolve("log.log");
+
+        final long n = LogExporter.export(
+            store, LogFilter.ALL, store.first(), store.end(),
+            file, LogExporter.Format.TEXT, () -> false, (done) -> {}
+        );
+
+        then(n).isEqualTo(2);
+        then(Files.readString(file)).isEqualTo(
+            LogEntryFormatter.formatFull(store.get(0)) + "\n" + LogEntryFormatter.formatFull(store.get(1)) + "\n"
+        );
+    }
+
+    @Test
+    public void export_filtered_entries_gzip_compressed() throws Exception {
+        final LogStore store = new LogStore(100000);
+        final List<LogEntry> batch = new ArrayList<>();
+        for (int i = 0; i < 50000; ++i) {
+            batch.add(LogEntry.of((i % 2 == 0) ? Level.WARNING : Level.INFO, "message " + i));
+        }
+        store.addAll(batch);
+        final Path file = dir.resolve("log.log.gz");
+        final List<Long> progress = new ArrayList<>();
+
+        final long n = LogExporter.export(
+            store, new LogFilter(null, Level.WARNING, LogFilter.ANY_THREAD, null),
+            store.first(), store.end(), file, LogExporter.Format.GZIP, () -> false, progress::add
+        );
+
+        then(n).isEqualTo(25000);
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            final String[] lines = new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n");
+            then(lines).hasSize(25000);
+            then(lines[1]).endsWith("message 2");
+        }
+        then(progress).startsWith(0L, (long) LogExporter.PROGRESS_STEP).endsWith(50000L);
+    }
+
+    @Test
+    public void export_json_lines() throws Exception {
+        final LogStore store = new LogStore(10);
+        store.addAll(List.of(new LogEntry(
+            Level.SEVERE, 0, LoggerRegistry.getDefault().idOf("a.b"), 7,
+            "say \"hi\"\n\tbye", null, null, null
+        )));
+        final Path file = dir.resolve("log.jsonl");
+
+        LogExporter.export(
+            store, LogFilter.ALL, store.first(), store.end(),
+            file, LogExporter.Format.JSON_LINES, () -> false, (done) -> {}
+        );
+
+        then(Files.readString(file)).isEqualTo(
+            "{\"time\":\"1970-01-01T00:00:00Z\",\"level\":\"SEVERE\",\"logger\":\"a.b\",\"thread\":7,\"message\":\"say \\\"hi\\\"\\n\\tbye\"}\n"
+        );
+    }
+
+    @Test
+    public void delete_the_file_when_cancelled() throws Exception {
+        final LogStore store = new LogStore(10);
+        store.addAll(entries("one"));
+        final Path file = dir.resolve("log.log");
+
+        LogExporter.export(
+            store, LogFilter.ALL, store.first(), store.end(),
+            file, LogExporter.Format.TEXT, () -> true, (done) -> {}
+        );
+
+        then(file).doesNotExist();
+    }
+
+    @Test
+    public void choose_the_format_by_extension() {
+        then(LogExporter.Format.of("x.log")).isEqualTo(LogExporter.Format.TEXT);
+        then(LogExporter.Format.of("x.txt")).isEqualTo(LogExporter.Format.TEXT);
+        then(LogExporter.Format.of("x.log.gz")).isEqualTo(LogExporter.Format.GZIP);
+        then(LogExporter.Format.of("x.jsonl")).isEqualTo(LogExporter.Format.JSON_LINES);
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2025 Stefano Fornari.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ste.netbeans.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.regex.Pattern;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+import static ste.netbeans.logging.LogStoreTest.entries;
+
+/**
+ *
+ */
+public class LogListModelTest {
+
+    private final LinkedBlockingQueue<Runnable> edt = new LinkedBlockingQueue<>();
+
+    @Test
+    public void show_all_entries_without_filter() {
+        final LogStore store = new LogStore(3);
+        final LogListModel model = new LogListModel(store, edt::add);
+
+        store.addAll(entries("1", "2"));
+        store.addAll(entries("3", "4"));
+
+        then(contents(model)).containsExactly("2", "3", "4");
+        then(model.indexOf(2)).isEqualTo(1);
+        then(model.indexOf(0)).isNegative();
+    }
+
+    @Test
+    public void fire_one_removal_and_one_addition_per_batch() {
+        final LogStore store = new LogStore(4);
+        final LogListModel model = new LogListModel(store, edt::add);
+        final List<String> events = listen(model);
+
+        store.addAll(entries("1", "2", "3"));
+        store.addAll(entries("4", "5", "6"));
+        store.clear();
+
+        then(events).containsExactly("+0-2", "-0-1", "+1-3", "-0-3");
+    }
+
+    @Test
+    public void filter_retained_entries_and_new_ones() throws Exception {
+        final LogStore store = new LogStore(100000);
+        final LogListModel model = new LogListModel(store, edt::add);
+
+        final List<LogEntry> batch = new ArrayList<>();
+        for (int i = 0; i < 50000; ++i) {
+            batch.add(LogEntry.of((i % 10 == 0) ? Level.WARNING : Level.INFO, "message " + i));
+        }
+        store.addAll(batch);
+
+        model.setFilter(new LogFilter(null, Level.WARNING, LogFilter.ANY_THREAD, null));
+        then(model.isFiltering()).isTrue();
+
+        //
+        // entries appended while filtering come after the retained ones
+        //
+        store.addAll(List.of(LogEntry.of(Level.SEVERE, "late")));
+        waitFiltering(model);
+
+        then(model.getSize()).isEqualTo(5001);
+        then(model.getElementAt(0).message).isEqualTo("message 0");
+        then(model.getElementAt(4999).message).isEqualTo("message 49990");
+        then(model.getElementAt(5000).message).isEqualTo("late");
+
+        store.addAll(entries("info", "more info"));
+        store.addAll(List.of(LogEntry.of(Level.WARNING, "new")));
+        then(model.getSize()).isEqualTo(5002);
+        then(model.getElementAt(5001).message).isEqualTo("new");
+    }
+
+    @Test
+    public void filter_by_message_logger_and_thread() throws Exception {
+        final LogStore store = new LogStore(100);
+        final LogListModel model = new LogListModel(store, edt::add);
+        final LoggerRegistry registry = LoggerRegistry.getDefault();
+
+        store.addAll(List.of(
+            new LogEntry(Level.INFO, 0, registry.idOf("org.a"), 1, "hello {0}", new Object[] {"world"}, null, null),
+            new LogEntry(Level.INFO, 0, registry.idOf("org.a.x"), 2, "hello", null, null, null),
+            new LogEntry(Level.INFO, 0, registry.idOf("org.b"), 1, "world", null, null, null)
+        ));
+
+        model.setFilter(new LogFilter(null, null, LogFilter.ANY_THREAD, Pattern.compile("wor.d")));
+        waitFiltering(model);
+        then(contents(model)).containsExactly("hello {0}", "world");
+
+        model.setFilter(new LogFilter("org.a", null, LogFilter.ANY_THREAD, null));
+        waitFiltering(model);
+        then(contents(model)).containsExactly("hello {0}", "hello");
+
+        model.setFilter(new LogFilter("org.a", null, 1, null));
+        waitFiltering(model);
+        then(contents(model)).containsExactly("hello {0}");
+
+        model.setFilter(LogFilter.ALL);
+        then(model.isFiltering()).isFalse();
+        then(model.getSize()).isEqualTo(3);
+    }
+
+    @Test
+    public void evict_filtered_rows() throws Exception {
+        final LogStore store = new LogStore(4);
+        final LogListModel model = new LogListModel(store, edt::add);
+
+        model.setFilter(new LogFilter(null, Level.WARNING, LogFilter.ANY_THREAD, null));
+        waitFiltering(model);
+
+        store.addAll(List.of(
+            LogEntry.of(Level.WARNING, "1"), LogEntry.of(Level.INFO, "2"),
+            LogEntry.of(Level.WARNING, "3"), LogEntry.of(Level.INFO, "4")
+        ));
+        then(contents(model)).containsExactly("1", "3");
+
+        store.addAll(entries("5", "6", "7"));
+        then(contents(model)).isEmpty();
+    }
+
+    @Test
+    public void changing_filter_cancels_the_running_one() throws Exception {
+        final LogStore store = new LogStore(100000);
+        final LogListModel model = new LogListModel(store, edt::add);
+
+        final List<LogEntry> batch = new ArrayList<>();
+        for (int i = 0; i < 100000; ++i) {
+            batch.add(LogEntry.of((i % 2 == 0) ? Level.WARNING : Level.INFO, "message " + i));
+        }
+        store.addAll(batch);
+
+        model.setFilter(new LogFilter(null, Level.WARNING, LogFilter.ANY_THREAD, null));
+        model.setFilter(new LogFilter(null, Level.SEVERE, LogFilter.ANY_THREAD, null));
+        waitFiltering(model);
+
+        then(model.getSize()).isZero();
+    }
+
+    @Test
+    public void catch_up_when_resumed() throws Exception {
+        final LogStore store = new LogStore(4);
+        final LogListModel all = new LogListModel(store, edt::add);
+        final LogListModel warnings = new LogListModel(store, edt::add);
+
+        warnings.setFilter(new LogFilter(null, Level.WARNING, LogFilter.ANY_THREAD, null));
+        waitFiltering(warnings);
+        store.addAll(List.of(
+            LogEntry.of(Level.WARNING, "1"), LogEntry.of(Level.INFO, "2"),
+            LogEntry.of(Level.WARNING, "3")
+        ));
+        final List<String> events = listen(all);
+
+        //
+        // suspended models do not change while the store does
+        //
+        all.suspend();
+        warnings.suspend();
+        store.addAll(List.of(
+            LogEntry.of(Level.INFO, "4"), LogEntry.of(Level.WARNING, "5"),
+            LogEntry.of(Level.WARNING, "6")
+        ));
+        then(all.isSuspended()).isTrue();
+        then(all.getSize()).isEqualTo(3);
+        then(warnings.getSize()).isEqualTo(2);
+        then(events).isEmpty();
+
+        all.resume();
+        warnings.resume();
+        then(events).containsExactly("-0-1", "+1-3");
+        then(contents(all)).containsExactly("3", "4", "5", "6");
+        then(contents(warnings)).containsExactly("3", "5", "6");
+
+        store.addAll(entries("7"));
+        then(contents(all)).containsExactly("4", "5", "6", "7");
+        then(contents(warnings)).containsExactly("5", "6");
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private void waitFiltering(final LogListModel model) throws InterruptedException {
+        while (model.isFiltering()) {
+            final Runnable r = edt.poll(5, TimeUnit.SECONDS);
+            then(r).as("filtering timed out").isNotNull();
+            r.run();
+        }
+        //
+        // run late deliveries of cancelled tasks too
+        //
+        Runnable r;
+        while ((r = edt.poll(50, TimeUnit.MILLISECONDS)) != null) {
+            r.run();
+        }
+    }
+
+    private List<String> listen(final LogListModel model) {
+        final List<String> events = new ArrayList<>();
+        model.addListDataListener(new ListDataListener() {
+            @Override
+            public void intervalAdded(ListDataEvent e) {
+                events.add("+" + e.getIndex0() + "-" + e.getIndex1());
+            }
+
+            @Override
+            public void intervalRemoved(ListDataEvent e) {
+                events.add("-" + e.getIndex0() + "-" + e.getIndex1());
+            }
+
+            @Override
+            public void contentsChanged(ListDataEvent e) {
+                events.add("*");
+            }
+        });
+        return events;
+    }
+
+    private List<String> contents(final LogListModel model) {
+        final List<String> ret = new ArrayList<>();
+        for (int i = 0; i < model.getSize(); ++i) {
+            ret.add(model.getElementAt(i).message);
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2025 Stefano Fornari.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ste.netbeans.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+public class LogStoreTest {
+
+    @Test
+    public void assign_increasing_sequence_numbers() {
+        final LogStore store = new LogStore(10);
+
+        store.addAll(entries("one", "two"));
+        store.addAll(entries("three"));
+
+        then(store.first()).isZero();
+        then(store.end()).isEqualTo(3);
+        then(store.get(0).message).isEqualTo("one");
+        then(store.get(2).message).isEqualTo("three");
+        then(store.get(3)).isNull();
+    }
+
+    @Test
+    public void evict_oldest_entries_when_full() {
+        final LogStore store = new LogStore(3);
+
+        store.addAll(entries("1", "2"));
+        store.addAll(entries("3", "4"));
+        then(store.first()).isEqualTo(1);
+        then(store.get(0)).isNull();
+        then(store.get(1).message).isEqualTo("2");
+
+        store.addAll(entries("5", "6", "7", "8", "9"));
+        then(store.first()).isEqualTo(6);
+        then(store.end()).isEqualTo(9);
+        then(store.get(6).message).isEqualTo("7");
+        then(store.get(8).message).isEqualTo("9");
+    }
+
+    @Test
+    public void notify_one_eviction_and_one_append_per_batch() {
+        final LogStore store = new LogStore(4);
+        final List<String> events = new ArrayList<>();
+        store.addListener(new LogStore.Listener() {
+            @Override
+            public void evicted(long first, long end) {
+                events.add("-" + first + "-" + end);
+            }
+
+            @Override
+            public void appended(long first, long end) {
+                events.add("+" + first + "-" + end);
+            }
+
+            @Override
+            public void cleared(long first, long end) {
+                events.add("*" + first + "-" + end);
+            }
+        });
+
+        store.addAll(entries("1", "2", "3"));
+        store.addAll(entries("4", "5", "6"));
+        store.addAll(entries("7", "8", "9", "10", "11", "12"));
+        store.clear();
+
+        then(events).containsExactly(
+            "+0-3", "-0-2", "+3-6", "-2-6", "+8-12", "*8-12"
+        );
+    }
+
+    @Test
+    public void clear_does_not_reuse_sequence_numbers() {
+        final LogStore store = new LogStore(4);
+
+        store.addAll(entries("1", "2", "3"));
+        store.clear();
+
+        then(store.size()).isZero();
+        then(store.get(1)).isNull();
+        store.addAll(entries("4"));
+        then(store.first()).isEqualTo(3);
+        then(store.get(3).message).isEqualTo("4");
+    }
+
+    // --------------------------------------------------------- private methods
+
+    static List<LogEntry> entries(final String... messages) {
+        final List<LogEntry> ret = new ArrayList<>();
+        for (String message: messages) {
+            ret.add(LogEntry.of(Level.INFO, message));
+        }
+        return ret;
+    }
+}
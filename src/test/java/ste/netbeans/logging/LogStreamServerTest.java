@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+public class LogStreamServerTest {
+
+    private final Queue<LogEntry> received = new ConcurrentLinkedQueue<>();
+    private volatile boolean busy = false;
+
+    private final LogStreamServer.Sink sink = new LogStreamServer.Sink() {
+        @Override
+        public void publish(LogEntry entry) {
+            received.add(entry);
+        }
+
+        @Override
+        public boolean isBusy() {
+            return busy;
+        }
+    };
+
+    @Test
+    public void receive_records_tagged_by_source() throws Exception {
+        try (LogStreamServer server = new LogStreamServer(sink)) {
+            server.start(0, null);
+            final InetSocketAddress address = new InetSocketAddress("127.0.0.1", server.getPort());
+
+            final LogStreamHandler a = new LogStreamHandler(address, "a");
+            final LogStreamHandler b = new LogStreamHandler(address, "b");
+            final Thread ta = new Thread(() -> send(a, "one", 50_000));
+            final Thread tb = new Thread(() -> send(b, "two", 50_000));
+            ta.start(); tb.start();
+            ta.join(); tb.join();
+
+            final LogRecord error = new LogRecord(Level.SEVERE, "failed");
+            error.setLoggerName("three");
+            error.setThrown(new IllegalStateException("boom"));
+            a.publish(error);
+
+            a.close(); b.close();
+            waitFor(100_001);
+
+            then(a.getDroppedCount()).isZero();
+            then(b.getDroppedCount()).isZero();
+
+            final Map<String, Integer> counts = new HashMap<>();
+            LogEntry last = null;
+            for (LogEntry e: received) {
+                counts.merge(e.source + ":" + LoggerRegistry.getDefault().nameOf(e.loggerId), 1, Integer::sum);
+                if (e.thrown != null) {
+                    last = e;
+                }
+            }
+            then(counts).containsEntry("a:one", 50_000).containsEntry("b:two", 50_000).containsEntry("a:three", 1);
+
+            then(received.peek().message).isIn("message 0 from one", "message 0 from two");
+            then(last.level).isEqualTo(Level.SEVERE);
+            then(last.thrown.toString()).isEqualTo("java.lang.IllegalStateException: boom");
+        }
+    }
+
+    @Test
+    public void stop_reading_while_the_sink_is_busy() throws Exception {
+        try (LogStreamServer server = new LogStreamServer(sink)) {
+            busy = true;
+            server.start(0, null);
+
+            final LogStreamHandler h = new LogStreamHandler(
+                new InetSocketAddress("127.0.0.1", server.getPort()), "slow"
+            );
+            send(h, "busy", 10);
+            h.flush();
+            Thread.sleep(100);
+            then(received).isEmpty();
+
+            busy = false;
+            waitFor(10);
+            then(List.copyOf(received)).extracting(e -> e.source).containsOnly("slow");
+            h.close();
+        }
+    }
+
+    @Test
+    public void keep_the_order_of_records_formatted_in_parallel() throws Exception {
+        try (LogStreamServer server = new LogStreamServer(sink)) {
+            server.start(0, null);
+
+            final LogStreamHandler h = new LogStreamHandler(
+                new InetSocketAddress("127.0.0.1", server.getPort()), "parallel", 4
+            );
+            send(h, "ordered", 20_000);
+            h.close();
+            waitFor(20_000);
+
+            int i = 0;
+            for (LogEntry e: received) {
+                then(e.message).isEqualTo(MessageFormat.format("message {0} from {1}", i++, "ordered"));
+            }
+        }
+    }
+
+    @Test
+    public void close_connections_sending_invalid_logger_ids() throws Exception {
+        try (LogStreamServer server = new LogStreamServer(sink)) {
+            server.start(0, null);
+            final InetSocketAddress address = new InetSocketAddress("127.0.0.1", server.getPort());
+
+            for (int id: new int[] {Integer.MAX_VALUE, -1, 1}) {
+                try (SocketChannel channel = SocketChannel.open(address)) {
+                    final ByteBuffer out = ByteBuffer.allocate(64);
+                    out.putInt(1 + 4 + 1 + 4 + 1).put(LogStreamHandler.HELLO)
+                       .putInt(LogStreamHandler.MAGIC).put(LogStreamHandler.VERSION)
+                       .putInt(1).put((byte) 'x');
+                    out.putInt(1 + 4 + 4 + 1).put(LogStreamHandler.LOGGER).putInt(id)
+                       .putInt(1).put((byte) 'l');
+                    channel.write(out.flip());
+
+                    channel.socket().setSoTimeout(5000);
+                    then(channel.socket().getInputStream().read()).isEqualTo(-1);
+                }
+            }
+
+            //
+            // the server is still serving
+            //
+            final LogStreamHandler h = new LogStreamHandler(address, "good");
+            send(h, "after", 10);
+            h.close();
+            waitFor(10);
+        }
+    }
+
+    @Test
+    public void close_connections_sending_texts_longer_than_their_frame() throws Exception {
+        try (LogStreamServer server = new LogStreamServer(sink)) {
+            server.start(0, null);
+            final InetSocketAddress address = new InetSocketAddress("127.0.0.1", server.getPort());
+
+            //
+            // a hello with a huge source name...
+            //
+            try (SocketChannel channel = SocketChannel.open(address)) {
+                final ByteBuffer out = ByteBuffer.allocate(64);
+                out.putInt(1 + 4 + 1 + 4).put(LogStreamHandler.HELLO)
+                   .putInt(LogStreamHandler.MAGIC).put(LogStreamHandler.VERSION)
+                   .putInt(Integer.MAX_VALUE - 8);
+                channel.write(out.flip());
+                then(channel.socket().getInputStream().read()).isEqualTo(-1);
+            }
+
+            //
+            // ... or a record with a huge message
+            //
+            try (SocketChannel channel = SocketChannel.open(address)) {
+                final ByteBuffer out = ByteBuffer.allocate(128);
+                out.putInt(1 + 4 + 1 + 4 + 1).put(LogStreamHandler.HELLO)
+                   .putInt(LogStreamHandler.MAGIC).put(LogStreamHandler.VERSION)
+                   .putInt(1).put((byte) 'x');
+                out.putInt(1 + 4 + 4 + 1).put(LogStreamHandler.LOGGER).putInt(0)
+                   .putInt(1).put((byte) 'l');
+                out.putInt(1 + 4 + 4 + 8 + 4 + 8 + 4).put(LogStreamHandler.RECORD)
+                   .putInt(800).putInt(-1).putLong(0).putInt(0).putLong(1)
+                   .putInt(Integer.MAX_VALUE - 8);
+                channel.write(out.flip());
+                then(channel.socket().getInputStream().read()).isEqualTo(-1);
+            }
+
+            final LogStreamHandler h = new LogStreamHandler(address, "good");
+            send(h, "after", 10);
+            h.close();
+            waitFor(10);
+        }
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private static void send(final LogStreamHandler handler, final String logger, final int n) {
+        for (int i = 0; i < n; ++i) {
+            final LogRecord r = new LogRecord(Level.INFO, "message {0} from {1}");
+            r.setLoggerName(logger);
+            r.setParameters(new Object[] {i, logger});
+            handler.publish(r);
+        }
+    }
+
+    private void waitFor(final int n) throws InterruptedException {
+        final long timeout = System.currentTimeMillis() + 10_000;
+        while (received.size() < n && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        then(received).hasSize(n);
+    }
+}
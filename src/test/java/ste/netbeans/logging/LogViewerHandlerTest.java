@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+public class LogViewerHandlerTest {
+
+    private final List<List<LogEntry>> batches = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void before() {
+        RateLimits.getDefault().setLimit("ste.netbeans.logging.test", 0, 0, 1);
+    }
+
+    @AfterEach
+    public void after() {
+        RateLimits.getDefault().removeLimit("ste.netbeans.logging.test");
+    }
+
+    @Test
+    public void buffer_records_until_attached_and_replay_them_in_one_batch() throws Exception {
+        final LogViewerHandler handler = new LogViewerHandler(Runnable::run);
+        handler.setOverflowPolicy(RecordQueue.OverflowPolicy.BLOCK);
+        handler.setMaxBatchSize(10);
+
+        publish(handler, 100);
+        Thread.sleep(100);
+        then(handler.isAttached()).isFalse();
+        then(handler.getQueueSize()).isEqualTo(100);
+
+        handler.attach(batches::add);
+        waitFor(1);
+        then(batches).hasSize(1);
+        then(batches.get(0)).hasSize(100);
+        then(batches.get(0).get(0).message).isEqualTo("record 0");
+
+        //
+        // then the configured policy and batch size apply
+        //
+        then(handler.getOverflowPolicy()).isEqualTo(RecordQueue.OverflowPolicy.BLOCK);
+        publish(handler, 15);
+        handler.flush();
+        waitFor(3);
+        then(batches.get(1)).hasSize(10);
+        then(batches.get(2)).hasSize(5);
+
+        handler.close();
+    }
+
+    @Test
+    public void keep_the_most_recent_records_before_attached() throws Exception {
+        final LogViewerHandler handler = new LogViewerHandler(Runnable::run);
+        handler.setOverflowPolicy(RecordQueue.OverflowPolicy.BLOCK);
+
+        final int n = handler.getQueueCapacity() + 10;
+        publish(handler, n);
+        then(handler.getDroppedCount()).isEqualTo(10);
+
+        handler.attach(batches::add);
+        waitFor(1);
+        final List<LogEntry> batch = batches.get(0);
+        then(batch.get(0).message).isEqualTo("10 log records dropped before the viewer was opened");
+        then(batch.get(1).message).isEqualTo("record 10");
+        then(batch.get(batch.size() - 1).message).isEqualTo("record " + (n - 1));
+
+        handler.close();
+    }
+
+    @Test
+    public void fold_a_storm_into_one_row() throws Exception {
+        final LogViewerHandler handler = new LogViewerHandler(Runnable::run);
+
+        for (int i = 0; i < 10_000; ++i) {
+            final LogRecord r = new LogRecord(Level.WARNING, "connection lost, retry {0}");
+            r.setLoggerName("ste.netbeans.logging.test");
+            r.setParameters(new Object[] {i});
+            handler.publish(r);
+        }
+        handler.attach(batches::add);
+        waitFor(1);
+
+        then(batches.get(0)).hasSize(1);
+        final LogEntry row = batches.get(0).get(0);
+        then(row.getCount()).isEqualTo(10_000);
+        then(LogEntryFormatter.formatFull(row)).contains("(x10000, last ");
+
+        handler.setFoldWindow(0);
+        publish(handler, 2);
+        handler.flush();
+        waitFor(2);
+        then(batches.get(1)).hasSize(2);
+
+        handler.close();
+    }
+
+    @Test
+    public void suppress_records_above_the_rate_limit_and_report_them() throws Exception {
+        RateLimits.getDefault().setLimit("ste.netbeans.logging.test", 1, 10, 1);
+        final LogViewerHandler handler = new LogViewerHandler(Runnable::run);
+
+        publish(handler, 100);
+        handler.attach(batches::add);
+        waitFor(1);
+
+        final List<LogEntry> batch = batches.get(0);
+        then(batch).hasSize(11);
+        then(batch.get(0).message).isEqualTo("90 records suppressed by rate limits: ste.netbeans.logging.test (90)");
+        then(batch.get(1).message).isEqualTo("record 0");
+        then(batch.get(10).message).isEqualTo("record 9");
+
+        handler.close();
+    }
+
+    @Test
+    public void split_the_buffer_in_batches_of_the_maximum_size() throws Exception {
+        final BlockingQueue<Runnable> edt = new LinkedBlockingQueue<>();
+        final LogViewerHandler handler = new LogViewerHandler(edt::add);
+        handler.setBatchLatency(0);
+        handler.setMaxBatchSize(10);
+        handler.setFoldWindow(0);
+        handler.attach(batches::add);
+
+        //
+        // the next records pile up while the first delivery waits for the EDT
+        //
+        publish(handler, 1);
+        final Runnable replay = edt.poll(5, TimeUnit.SECONDS);
+        publish(handler, 25);
+        replay.run();
+        then(batches).hasSize(1);
+
+        runNext(edt); runNext(edt); runNext(edt);
+        then(batches).hasSize(4);
+        then(batches.get(1)).hasSize(10);
+        then(batches.get(1).get(0).message).isEqualTo("record 0");
+        then(batches.get(2)).hasSize(10);
+        then(batches.get(2).get(0).message).isEqualTo("record 10");
+        then(batches.get(3)).hasSize(5);
+        then(batches.get(3).get(4).message).isEqualTo("record 24");
+
+        Thread.sleep(100);
+        then(edt).isEmpty();
+        then(handler.getQueueSize()).isZero();
+
+        handler.close();
+    }
+
+    @Test
+    public void do_not_replay_when_attached_with_nothing_buffered() throws Exception {
+        final BlockingQueue<Runnable> edt = new LinkedBlockingQueue<>();
+        final LogViewerHandler handler = new LogViewerHandler(edt::add);
+        handler.setBatchLatency(200);
+        handler.setMaxBatchSize(10);
+        handler.setFoldWindow(0);
+        handler.attach(batches::add);
+
+        publish(handler, 25);
+        runNext(edt);
+        then(batches.get(0)).hasSize(10);
+
+        handler.close();
+    }
+
+    @Test
+    public void deliver_after_the_batch_latency_or_when_flushed() throws Exception {
+        final BlockingQueue<Runnable> edt = new LinkedBlockingQueue<>();
+        final LogViewerHandler handler = new LogViewerHandler(edt::add);
+        handler.setBatchLatency(300);
+        handler.setFoldWindow(0);
+        handler.attach(batches::add);
+
+        final long start = System.nanoTime();
+        publish(handler, 1);
+        then(edt.poll(100, TimeUnit.MILLISECONDS)).isNull();
+        runNext(edt);
+        then(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(300));
+        then(batches).hasSize(1);
+
+        //
+        // flush brings forward a drain waiting for the latency
+        //
+        handler.setBatchLatency(60_000);
+        publish(handler, 1);
+        handler.flush();
+        runNext(edt);
+        then(batches).hasSize(2);
+
+        handler.close();
+    }
+
+    @Test
+    public void queue_one_drain_at_a_time() throws Exception {
+        final BlockingQueue<Runnable> edt = new LinkedBlockingQueue<>();
+        final LogViewerHandler handler = new LogViewerHandler(edt::add);
+        handler.setBatchLatency(0);
+        handler.setMaxBatchSize(10);
+        handler.setFoldWindow(0);
+        handler.attach(batches::add);
+
+        publish(handler, 1);
+        final Runnable first = edt.poll(5, TimeUnit.SECONDS);
+        then(first).isNotNull();
+
+        //
+        // while a batch waits for the EDT, new records only fill the buffer
+        //
+        publish(handler, 100);
+        handler.flush();
+        Thread.sleep(200);
+        then(edt).isEmpty();
+        then(handler.getQueueSize()).isEqualTo(100);
+
+        first.run();
+        for (int i = 0; i < 10; ++i) {
+            runNext(edt);
+            Thread.sleep(20);
+            then(edt).hasSizeLessThanOrEqualTo(1);
+        }
+        then(batches).hasSize(11);
+        then(handler.getQueueSize()).isZero();
+
+        handler.close();
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private static void publish(final LogViewerHandler handler, final int n) {
+        for (int i = 0; i < n; ++i) {
+            final LogRecord r = new LogRecord(Level.INFO, "record " + i);
+            r.setLoggerName("ste.netbeans.logging.test");
+            handler.publish(r);
+        }
+    }
+
+    private static void runNext(final BlockingQueue<Runnable> edt) throws InterruptedException {
+        final Runnable delivery = edt.poll(5, TimeUnit.SECONDS);
+        then(delivery).isNotNull();
+        delivery.run();
+    }
+
+    private void waitFor(final int n) throws InterruptedException {
+        final long timeout = System.currentTimeMillis() + 5000;
+        while (batches.size() < n && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+    }
+}
@@ -18,6 +18,7 @@ package ste.netbeans.logging;
 
 import com.github.caciocavallosilano.cacio.ctc.junit.CacioTest;
 import javax.swing.JFrame;
+import static org.assertj.core.api.BDDAssertions.then;
 import org.assertj.swing.edt.FailOnThreadViolationRepaintManager;
 import org.assertj.swing.edt.GuiActionRunner;
 import org.assertj.swing.fixture.FrameFixture;
@@ -68,10 +69,13 @@ public class LogViewerPanelTest {
 
     @Test
     public void clear_deletes_all_text() throws Exception {
-        viewer.logTextArea.setText("some text");
+        GuiActionRunner.execute(() -> viewer.appendLog("some text"));
+        GuiActionRunner.execute(() -> viewer.appendLog("some more text"));
+        then(window.list("logList").contents()).hasSize(2);
+        then(window.list("logList").contents()[1]).endsWith("some more text");
 
         window.button("clearButton").click();
-        window.textBox("logText").requireText("");
+        then(window.list("logList").contents()).isEmpty();
     }
 
 }
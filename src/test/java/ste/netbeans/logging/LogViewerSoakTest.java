@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.awt.EventQueue;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestFactory;
+
+/**
+ * Soak test of the whole pipeline, from {@link LogViewerOnStart} through
+ * {@link LogViewerHandler} to an open {@link LogViewerTopComponent}, under a
+ * sustained log load.
+ * <p>
+ * For each rate, many threads log through JUL for the configured duration
+ * while a probe measures how late the Event Dispatch Thread runs the events
+ * posted every few milliseconds. The run fails if the 99th percentile of
+ * that lag or the heap growth between the middle and the end of the run
+ * exceed the thresholds; the dropped and suppressed records are reported.
+ * It is tagged {@code soak} and excluded from the normal build; run it with
+ * {@code mvn -Psoak test}, configured with the system properties
+ * {@code ste.netbeans.logging.soak.*}: {@code rates} (records per second,
+ * comma separated), {@code threads}, {@code loggers}, {@code duration}
+ * (seconds per rate), {@code lag} (maximum p99 lag in milliseconds) and
+ * {@code heap} (maximum heap growth in MB).
+ * </p>
+ */
+@Tag("soak")
+public class LogViewerSoakTest {
+
+    private static final String PREFIX = "ste.netbeans.logging.soak.";
+
+    private static final int THREADS = Integer.getInteger(PREFIX + "threads", 16);
+    private static final int LOGGERS = Integer.getInteger(PREFIX + "loggers", 1000);
+    private static final int DURATION = Integer.getInteger(PREFIX + "duration", 60);
+    private static final long MAX_LAG = Long.getLong(PREFIX + "lag", 100);
+    private static final long MAX_HEAP_GROWTH = Long.getLong(PREFIX + "heap", 128);
+
+    private static final long PROBE_INTERVAL = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private static LogViewerTopComponent window;
+    private static LogViewerHandler handler;
+
+    @BeforeAll
+    public static void before_all() throws Exception {
+        new LogViewerOnStart().run();
+        for (Handler h: LogManager.getLogManager().getLogger("").getHandlers()) {
+            if (h instanceof LogViewerHandler) {
+                handler = (LogViewerHandler) h;
+            }
+        }
+        EventQueue.invokeAndWait(() -> {
+            window = new LogViewerTopComponent();
+            window.open();
+        });
+        then(handler.isAttached()).isTrue();
+    }
+
+    @AfterAll
+    public static void after_all() throws Exception {
+        EventQueue.invokeAndWait(() -> window.close());
+        new LogViewerOnStop().run();
+    }
+
+    @TestFactory
+    public Stream<DynamicTest> sustain_log_load() {
+        return Arrays.stream(System.getProperty(PREFIX + "rates", "10000,100000,1000000").split(","))
+            .map(String::trim)
+            .map(Integer::parseInt)
+            .map(rate -> DynamicTest.dynamicTest(rate + " records/s", () -> soak(rate)));
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private void soak(final int rate) throws Exception {
+        final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        final long droppedBefore = handler.getDroppedCount();
+        final long suppressedBefore = RateLimits.getDefault().getSuppressedCount();
+        final AtomicLong sent = new AtomicLong();
+        final long start = System.nanoTime();
+        final long end = start + TimeUnit.SECONDS.toNanos(DURATION);
+
+        final List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < THREADS; ++t) {
+            final int id = t;
+            final Thread producer = new Thread(() -> produce(id, (double) rate / THREADS, start, end, sent));
+            producer.setDaemon(true);
+            producer.start();
+            producers.add(producer);
+        }
+
+        //
+        // probe the EDT; the heap is measured once the store is filled
+        // (half way) and at the end
+        //
+        final long[] lags = new long[(int) (TimeUnit.SECONDS.toNanos(DURATION) / PROBE_INTERVAL) + 1];
+        int probes = 0;
+        long heapMiddle = -1;
+        while (System.nanoTime() < end && probes < lags.length) {
+            final long posted = System.nanoTime();
+            final long[] ran = new long[1];
+            EventQueue.invokeAndWait(() -> ran[0] = System.nanoTime());
+            lags[probes++] = ran[0] - posted;
+            if (heapMiddle < 0 && System.nanoTime() - start > (end - start) / 2) {
+                heapMiddle = usedHeap(memory);
+            }
+            LockSupport.parkNanos(PROBE_INTERVAL);
+        }
+        for (Thread producer: producers) {
+            producer.join();
+        }
+        final long heapEnd = usedHeap(memory);
+        if (heapMiddle < 0) {
+            heapMiddle = heapEnd;
+        }
+
+        Arrays.sort(lags, 0, probes);
+        final long p50 = TimeUnit.NANOSECONDS.toMillis(lags[probes / 2]);
+        final long p99 = TimeUnit.NANOSECONDS.toMillis(lags[Math.min(probes - 1, probes * 99 / 100)]);
+        final long max = TimeUnit.NANOSECONDS.toMillis(lags[probes - 1]);
+        final long growth = (heapEnd - heapMiddle) / (1024 * 1024);
+
+        System.out.printf(
+            "soak %d records/s: sent %d, dropped %d, suppressed %d, EDT lag p50 %d ms, p99 %d ms, max %d ms, heap growth %d MB%n",
+            rate, sent.get(), handler.getDroppedCount() - droppedBefore,
+            RateLimits.getDefault().getSuppressedCount() - suppressedBefore,
+            p50, p99, max, growth
+        );
+
+        then(p99).as("EDT p99 lag in ms").isLessThanOrEqualTo(MAX_LAG);
+        then(growth).as("heap growth in MB").isLessThanOrEqualTo(MAX_HEAP_GROWTH);
+    }
+
+    /**
+     * Logs at the given rate until the end, catching up after pauses so
+     * that the average rate is kept.
+     */
+    private static void produce(
+        final int id, final double rate, final long start, final long end, final AtomicLong sent
+    ) {
+        final Logger[] loggers = new Logger[Math.max(1, LOGGERS / THREADS)];
+        for (int i = 0; i < loggers.length; ++i) {
+            loggers[i] = Logger.getLogger(PREFIX + id + "." + i);
+        }
+
+        long n = 0;
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            final long due = (long) ((now - start) * rate / TimeUnit.SECONDS.toNanos(1));
+            for (; n < due; ++n) {
+                loggers[(int) (n % loggers.length)].log(Level.INFO, "soak record {0} from {1}", new Object[] {n, id});
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        sent.addAndGet(n);
+    }
+
+    private static long usedHeap(final MemoryMXBean memory) {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2025 Stefano Fornari.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ste.netbeans.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+public class LoggerRegistryTest {
+
+    @Test
+    public void intern_names_to_sequential_ids() {
+        final LoggerRegistry registry = new LoggerRegistry();
+
+        final int a = registry.idOf("a.b");
+        final int b = registry.idOf("a.c");
+
+        then(registry.idOf("a.b")).isEqualTo(a);
+        then(b).isEqualTo(a + 1);
+        then(registry.nameOf(b)).isEqualTo("a.c");
+        then(registry.idOf(null)).isEqualTo(registry.idOf(""));
+        then(registry.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void count_records_per_logger_and_level() {
+        final LoggerRegistry registry = new LoggerRegistry();
+        final int id = registry.idOf("a");
+
+        registry.count(id, Level.INFO);
+        registry.count(id, Level.INFO);
+        registry.count(id, Level.SEVERE);
+        registry.count(id, Level.ALL);
+
+        then(registry.count(id)).isEqualTo(4);
+        then(registry.count(id, LoggerRegistry.levelIndex(Level.INFO))).isEqualTo(2);
+        then(registry.count(id, LoggerRegistry.levelIndex(Level.SEVERE))).isEqualTo(1);
+        then(registry.count(id, LoggerRegistry.levelIndex(Level.FINEST))).isEqualTo(1);
+    }
+
+    @Test
+    public void sorted_snapshots() {
+        final LoggerRegistry registry = new LoggerRegistry();
+        registry.idOf("org.b");
+        registry.idOf("org.a.x");
+        registry.idOf("com.c");
+        registry.idOf("org.a");
+
+        then(registry.sortedNames()).containsExactly("com.c", "org.a", "org.a.x", "org.b");
+        then(registry.namesStartingWith("org.a")).containsExactly("org.a", "org.a.x");
+        then(registry.namesStartingWith("net")).isEmpty();
+
+        registry.idOf("net");
+        then(registry.namesStartingWith("net")).containsExactly("net");
+    }
+
+    @Test
+    public void hierarchy_with_subtree_counts() {
+        final LoggerRegistry registry = new LoggerRegistry();
+        registry.count(registry.idOf("org.a"), Level.INFO);
+        registry.count(registry.idOf("org.a.x"), Level.INFO);
+        registry.count(registry.idOf("org.a.x"), Level.INFO);
+        registry.count(registry.idOf("org-b"), Level.INFO);
+
+        final LoggerRegistry.Node root = registry.hierarchy();
+        then(root.getTotalCount()).isEqualTo(4);
+        then(root.getChildren()).extracting((n) -> n.name).containsExactly("org", "org-b");
+
+        final LoggerRegistry.Node a = root.getChildren().get(0).getChildren().get(0);
+        then(a.name).isEqualTo("org.a");
+        then(a.getCount()).isEqualTo(1);
+        then(a.getTotalCount()).isEqualTo(3);
+        then(a.getChildren().get(0).segment).isEqualTo("x");
+    }
+
+    @Test
+    public void concurrent_registration_gives_one_id_per_name() throws Exception {
+        final LoggerRegistry registry = new LoggerRegistry();
+        final ConcurrentHashMap<String, Integer> seen = new ConcurrentHashMap<>();
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; ++t) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 1000; ++i) {
+                    final String name = "logger." + i;
+                    final int id = registry.idOf(name);
+                    registry.count(id, Level.FINE);
+                    then(seen.computeIfAbsent(name, (n) -> id)).isEqualTo(id);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread t: threads) {
+            t.join();
+        }
+
+        then(registry.size()).isEqualTo(1000);
+        for (int i = 0; i < 1000; ++i) {
+            then(registry.count(registry.idOf("logger." + i))).isEqualTo(8);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.util.logging.Level;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenThrownBy;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+public class RateLimitsTest {
+
+    private final LoggerRegistry registry = new LoggerRegistry();
+    private final RateLimits limits = new RateLimits(registry);
+
+    @Test
+    public void no_limits_by_default() {
+        final int id = registry.idOf("org.foo");
+        for (int i = 0; i < 100_000; ++i) {
+            then(limits.allows(id, Level.FINEST)).isTrue();
+        }
+        then(limits.getSuppressedCount()).isZero();
+        then(limits.summary(5)).isNull();
+    }
+
+    @Test
+    public void take_a_burst_then_the_rate() throws Exception {
+        limits.setLimit("org.foo", 10, 5, 1);
+        final int foo = registry.idOf("org.foo.bar");
+        final int other = registry.idOf("org.other");
+
+        int taken = 0;
+        for (int i = 0; i < 100; ++i) {
+            if (limits.allows(foo, Level.FINE)) {
+                ++taken;
+            }
+        }
+        then(taken).isEqualTo(5);
+        then(limits.allows(other, Level.FINE)).isTrue();
+        then(limits.allows(foo, Level.WARNING)).isTrue(); // never suppressed
+
+        Thread.sleep(250); // two more tokens
+        taken = 0;
+        for (int i = 0; i < 100; ++i) {
+            if (limits.allows(foo, Level.FINE)) {
+                ++taken;
+            }
+        }
+        then(taken).isBetween(2, 4);
+        then(limits.getSuppressedCount()).isEqualTo(200 - 5 - taken);
+    }
+
+    @Test
+    public void sample_one_record_every_n() {
+        limits.setLimit("", 0, 0, 10);
+        final int id = registry.idOf("org.foo");
+
+        int taken = 0;
+        for (int i = 0; i < 1000; ++i) {
+            if (limits.allows(id, Level.INFO)) {
+                ++taken;
+            }
+        }
+        then(taken).isEqualTo(100);
+    }
+
+    @Test
+    public void summarize_suppressed_records_once() {
+        limits.setLimit("", 0, 0, 2);
+        final int a = registry.idOf("a"), b = registry.idOf("b");
+        for (int i = 0; i < 10; ++i) {
+            limits.allows(a, Level.INFO);
+        }
+        for (int i = 0; i < 40; ++i) {
+            limits.allows(b, Level.INFO);
+        }
+
+        then(limits.summary(1)).isEqualTo("25 records suppressed by rate limits: b (20), ...");
+        then(limits.summary(5)).isNull();
+        limits.allows(a, Level.INFO);
+        limits.allows(a, Level.INFO);
+        then(limits.summary(5)).isEqualTo("1 records suppressed by rate limits: a (1)");
+    }
+
+    @Test
+    public void keep_counts_and_buckets_when_limits_change() {
+        limits.setLimit("a", 0, 0, 2);
+        limits.setLimit("b", 1, 5, 1);
+        final int a = registry.idOf("a"), b = registry.idOf("b");
+        for (int i = 0; i < 10; ++i) {
+            limits.allows(a, Level.INFO);
+            limits.allows(b, Level.INFO);
+        }
+
+        //
+        // the limit of a changes, the one of b does not
+        //
+        limits.setLimit("a", 0, 0, 1);
+        limits.setLimit("c", 0, 0, 3);
+        then(limits.allows(a, Level.INFO)).isTrue();
+        then(limits.allows(b, Level.INFO)).isFalse();
+        then(limits.summary(5)).isEqualTo("11 records suppressed by rate limits: b (6), a (5)");
+    }
+
+    @Test
+    public void reject_invalid_limits() {
+        thenThrownBy(() -> limits.setLimit("", -1, 1, 1)).isInstanceOf(IllegalArgumentException.class);
+        thenThrownBy(() -> limits.setLimit("", 1, 0, 1)).isInstanceOf(IllegalArgumentException.class);
+        thenThrownBy(() -> limits.setLimit("", 0, 0, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
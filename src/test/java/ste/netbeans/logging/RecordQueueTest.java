@@ -0,0 +1,138 @@
+/*
+ * Copyright 2025 Stefano Fornari.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ste.netbeans.logging;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+import static ste.netbeans.logging.RecordQueue.OverflowPolicy.BLOCK;
+import static ste.netbeans.logging.RecordQueue.OverflowPolicy.DROP_NEWEST;
+import static ste.netbeans.logging.RecordQueue.OverflowPolicy.DROP_OLDEST;
+
+/**
+ *
+ */
+public class RecordQueueTest {
+
+    @Test
+    public void capacity_is_rounded_to_power_of_two() {
+        then(new RecordQueue<String>(1, DROP_NEWEST, 0).capacity()).isEqualTo(2);
+        then(new RecordQueue<String>(5, DROP_NEWEST, 0).capacity()).isEqualTo(8);
+        then(new RecordQueue<String>(64, DROP_NEWEST, 0).capacity()).isEqualTo(64);
+    }
+
+    @Test
+    public void poll_returns_elements_in_insertion_order() {
+        final RecordQueue<String> q = new RecordQueue<>(4, DROP_NEWEST, 0);
+
+        then(q.poll()).isNull();
+        then(q.isEmpty()).isTrue();
+
+        for (int round = 0; round < 3; ++round) {
+            q.put("one"); q.put("two"); q.put("three");
+            then(q.size()).isEqualTo(3);
+            then(q.poll()).isEqualTo("one");
+            then(q.poll()).isEqualTo("two");
+            then(q.poll()).isEqualTo("three");
+            then(q.poll()).isNull();
+        }
+    }
+
+    @Test
+    public void drop_newest_discards_new_elements_and_counts_them() {
+        final RecordQueue<String> q = new RecordQueue<>(2, DROP_NEWEST, 0);
+
+        then(q.put("1")).isTrue();
+        then(q.put("2")).isTrue();
+        then(q.put("3")).isFalse();
+        then(q.put("4")).isFalse();
+
+        then(q.getDroppedCount()).isEqualTo(2);
+        then(q.poll()).isEqualTo("1");
+        then(q.poll()).isEqualTo("2");
+        then(q.poll()).isNull();
+    }
+
+    @Test
+    public void drop_oldest_evicts_old_elements_and_counts_them() {
+        final RecordQueue<String> q = new RecordQueue<>(2, DROP_OLDEST, 0);
+
+        q.put("1"); q.put("2"); q.put("3"); q.put("4");
+
+        then(q.getDroppedCount()).isEqualTo(2);
+        then(q.poll()).isEqualTo("3");
+        then(q.poll()).isEqualTo("4");
+        then(q.poll()).isNull();
+    }
+
+    @Test
+    public void block_gives_up_after_timeout() {
+        final RecordQueue<String> q = new RecordQueue<>(2, BLOCK, 500);
+
+        then(q.put("1")).isTrue();
+        then(q.put("2")).isTrue();
+
+        final long start = System.nanoTime();
+        then(q.put("3")).isFalse();
+        then(System.nanoTime() - start).isGreaterThanOrEqualTo(500_000);
+        then(q.getDroppedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void clear_does_not_count_drops() {
+        final RecordQueue<String> q = new RecordQueue<>(4, DROP_NEWEST, 0);
+
+        q.put("1"); q.put("2"); q.clear();
+
+        then(q.isEmpty()).isTrue();
+        then(q.getDroppedCount()).isZero();
+    }
+
+    @Test
+    public void concurrent_producers_do_not_lose_elements() throws Exception {
+        final int PRODUCERS = 8, ELEMENTS = 20000;
+        final RecordQueue<Integer> q = new RecordQueue<>(1024, BLOCK, 1_000_000);
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; ++p) {
+            final int base = p * ELEMENTS;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < ELEMENTS; ++i) {
+                    q.put(base + i);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+
+        final Set<Integer> received = new HashSet<>();
+        while (received.size() < PRODUCERS * ELEMENTS) {
+            final Integer e = q.poll();
+            if (e != null) {
+                then(received.add(e)).isTrue();
+            }
+        }
+        for (Thread t: threads) {
+            t.join();
+        }
+
+        then(q.getDroppedCount()).isZero();
+        then(q.poll()).isNull();
+    }
+}
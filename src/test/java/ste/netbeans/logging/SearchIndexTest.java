@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+import static ste.netbeans.logging.LogStoreTest.entries;
+
+/**
+ *
+ */
+public class SearchIndexTest {
+
+    private final LinkedBlockingQueue<Runnable> edt = new LinkedBlockingQueue<>();
+
+    @Test
+    public void find_text_ignoring_case_in_indexed_and_unindexed_blocks() throws Exception {
+        final LogStore store = new LogStore(10 * SearchIndex.BLOCK_SIZE);
+        final SearchIndex index = new SearchIndex(store);
+
+        final List<LogEntry> batch = new ArrayList<>();
+        for (int i = 0; i < 3 * SearchIndex.BLOCK_SIZE + 10; ++i) {
+            batch.add(LogEntry.of(Level.INFO, (i % 1000 == 7) ? "Connection REFUSED " + i : "message " + i));
+        }
+        store.addAll(batch);
+        Thread.sleep(200); // let the indexer catch up
+
+        then(index.find("refused", store.first(), store.end(), () -> false).toArray())
+            .containsExactly(7, 1007, 2007, 3007);
+        then(index.find("REF", 1000, 3000, () -> false).toArray())
+            .containsExactly(1007, 2007);
+        then(index.find("nowhere", store.first(), store.end(), () -> false).isEmpty()).isTrue();
+    }
+
+    @Test
+    public void find_logger_names_too() {
+        final LogStore store = new LogStore(10);
+        final SearchIndex index = new SearchIndex(store);
+
+        store.addAll(entries("one", "two"));
+
+        then(index.find("netbeans.log", store.first(), store.end(), () -> false).toArray())
+            .containsExactly(0, 1);
+    }
+
+    @Test
+    public void follow_appends_and_evictions() throws Exception {
+        final LogStore store = new LogStore(4);
+        final LogSearch search = new LogSearch(new SearchIndex(store), edt::add);
+
+        store.addAll(entries("error 1", "ok", "error 2"));
+        search.setQuery("ERROR");
+        then(search.isSearching()).isTrue();
+
+        store.addAll(entries("error 3"));
+        waitSearching(search);
+        then(search.getHitCount()).isEqualTo(3);
+        then(search.isHit(0)).isTrue();
+        then(search.isHit(1)).isFalse();
+
+        store.addAll(entries("ok", "error 4"));
+        then(search.getHitCount()).isEqualTo(3);
+        then(search.isHit(0)).isFalse();
+        then(search.isHit(2)).isTrue();
+        then(search.isHit(5)).isTrue();
+        then(search.positionOf(5)).isEqualTo(3);
+
+        store.clear();
+        then(search.getHitCount()).isZero();
+    }
+
+    @Test
+    public void move_to_visible_hits_wrapping_around() throws Exception {
+        final LogStore store = new LogStore(10);
+        final LogSearch search = new LogSearch(new SearchIndex(store), edt::add);
+
+        store.addAll(entries("hit", "ok", "hit", "ok", "hit"));
+        search.setQuery("hit");
+        waitSearching(search);
+
+        then(search.next(-1, true, (seq) -> true)).isEqualTo(0);
+        then(search.next(0, true, (seq) -> true)).isEqualTo(2);
+        then(search.next(3, true, (seq) -> true)).isEqualTo(4);
+        then(search.next(4, true, (seq) -> true)).isEqualTo(0);
+        then(search.next(-1, false, (seq) -> true)).isEqualTo(4);
+        then(search.next(2, false, (seq) -> true)).isEqualTo(0);
+        then(search.next(0, false, (seq) -> true)).isEqualTo(4);
+        then(search.next(0, true, (seq) -> seq != 2)).isEqualTo(4);
+        then(search.next(0, true, (seq) -> false)).isEqualTo(-1);
+
+        search.setQuery("");
+        then(search.getHitCount()).isZero();
+        then(search.next(-1, true, (seq) -> true)).isEqualTo(-1);
+    }
+
+    @Test
+    public void catch_up_when_resumed() throws Exception {
+        final LogStore store = new LogStore(4);
+        final LogSearch search = new LogSearch(new SearchIndex(store), edt::add);
+
+        store.addAll(entries("error 1", "ok", "error 2"));
+        search.setQuery("error");
+        waitSearching(search);
+        then(search.getHitCount()).isEqualTo(2);
+
+        //
+        // appended entries are not checked while suspended
+        //
+        search.suspend();
+        store.addAll(entries("error 3", "ok", "error 4"));
+        then(search.isSuspended()).isTrue();
+        then(search.getHitCount()).isEqualTo(2);
+
+        search.resume();
+        then(search.isHit(0)).isFalse();
+        waitSearching(search);
+        then(search.getHitCount()).isEqualTo(3);
+        then(search.isHit(2)).isTrue();
+        then(search.isHit(3)).isTrue();
+        then(search.isHit(5)).isTrue();
+
+        store.addAll(entries("error 5"));
+        then(search.isHit(6)).isTrue();
+    }
+
+    private void waitSearching(final LogSearch search) throws InterruptedException {
+        while (search.isSearching()) {
+            final Runnable r = edt.poll(5, TimeUnit.SECONDS);
+            then(r).isNotNull();
+            r.run();
+        }
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.logging.Level;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static ste.netbeans.logging.LogStoreTest.entries;
+
+/**
+ *
+ */
+public class SpillStoreTest {
+
+    @TempDir
+    File dir;
+
+    @Test
+    public void read_back_written_entries() {
+        final SpillStore spill = new SpillStore(dir, 4096, Long.MAX_VALUE, Long.MAX_VALUE);
+
+        final int loggerId = LoggerRegistry.getDefault().idOf("spill.test");
+        final LogEntry entry = new LogEntry(
+            Level.WARNING, 1234L, loggerId, 56L, "hello {0}",
+            new Object[] {"world"}, null, new IllegalStateException("boom")
+        );
+        spill.append(10, List.of(entry));
+        then(LogEntryFormatter.formatFull(spill.get(10))).isEqualTo(LogEntryFormatter.formatFull(entry)); // written or not
+
+        spill.flush();
+        final LogEntry read = spill.get(10);
+        then(read).isNotSameAs(entry);
+        then(read.level).isEqualTo(Level.WARNING);
+        then(read.millis).isEqualTo(1234L);
+        then(read.loggerName()).isEqualTo("spill.test");
+        then(read.threadId).isEqualTo(56L);
+        then(LogEntryFormatter.formatRow(read)).isEqualTo(LogEntryFormatter.formatRow(entry));
+        then(LogEntryFormatter.formatFull(read)).isEqualTo(LogEntryFormatter.formatFull(entry));
+
+        then(spill.get(9)).isNull();
+        then(spill.get(11)).isNull();
+    }
+
+    @Test
+    public void format_parameters_read_back_as_in_memory() {
+        final SpillStore spill = new SpillStore(dir, 4096, Long.MAX_VALUE, Long.MAX_VALUE);
+
+        final List<LogEntry> batch = List.of(
+            new LogEntry(Level.INFO, 0, 0, 1, "{0} of {1} in {2} at {3,time,HH:mm}", new Object[] {
+                12345, 1234567890123L, 1.5f, new Date(0)
+            }, null, null),
+            new LogEntry(Level.INFO, 0, 0, 1, "{0} {1}", new Object[] {
+                null, new BigDecimal("1.23456789")
+            }, null, null),
+            new LogEntry(Level.parse("850"), 0, 0, 1, "custom level", null, null, null)
+        );
+        spill.append(0, batch);
+        spill.flush();
+
+        for (int i = 0; i < batch.size(); ++i) {
+            then(LogEntryFormatter.formatFull(spill.get(i))).isEqualTo(LogEntryFormatter.formatFull(batch.get(i)));
+        }
+        then(spill.get(0).parameters).hasSize(4);
+        then(spill.get(1).parameters).isNull();
+    }
+
+    @Test
+    public void read_entries_across_segments() {
+        final SpillStore spill = new SpillStore(dir, 4096, Long.MAX_VALUE, Long.MAX_VALUE);
+
+        final List<LogEntry> batch = new ArrayList<>();
+        for (int i = 0; i < 1000; ++i) {
+            batch.add(LogEntry.of(Level.INFO, "message " + i));
+        }
+        spill.append(0, batch.subList(0, 500));
+        spill.append(500, batch.subList(500, 1000));
+        spill.flush();
+
+        then(dir.list()).hasSizeGreaterThan(1);
+        for (int i = 0; i < 1000; ++i) {
+            then(spill.get(i).message).isEqualTo("message " + i);
+        }
+    }
+
+    @Test
+    public void delete_oldest_segments_beyond_the_size_limit() {
+        final SpillStore spill = new SpillStore(dir, 4096, 3 * 4096, Long.MAX_VALUE);
+
+        for (int i = 0; i < 20; ++i) {
+            final List<LogEntry> batch = new ArrayList<>();
+            for (int j = 0; j < 50; ++j) {
+                batch.add(LogEntry.of(Level.INFO, "message " + (i * 50 + j)));
+            }
+            spill.append(i * 50, batch);
+            spill.flush();
+        }
+
+        then(spill.getDiskSize()).isLessThanOrEqualTo(4 * 4096);
+        then(spill.first()).isPositive();
+        then(spill.end()).isEqualTo(1000);
+        then(spill.get(spill.first() - 1)).isNull();
+        then(spill.get(spill.first()).message).isEqualTo("message " + spill.first());
+        then(spill.get(999).message).isEqualTo("message 999");
+    }
+
+    @Test
+    public void delete_segments_older_than_the_age_limit() {
+        final SpillStore spill = new SpillStore(dir, 4096, Long.MAX_VALUE, 60_000);
+
+        final List<LogEntry> old = new ArrayList<>();
+        for (int i = 0; i < 200; ++i) {
+            old.add(new LogEntry(Level.INFO, 0, 0, 0, "old " + i, null, null, null));
+        }
+        spill.append(0, old);
+        spill.flush();
+
+        spill.append(200, entries("new"));
+        then(spill.first()).isPositive();
+        then(spill.get(200).message).isEqualTo("new");
+    }
+
+    @Test
+    public void restart_history_after_a_gap() {
+        final SpillStore spill = new SpillStore(dir, 4096, Long.MAX_VALUE, Long.MAX_VALUE);
+
+        spill.append(0, entries("1", "2"));
+        spill.flush();
+        spill.append(5, entries("6"));
+
+        then(spill.first()).isEqualTo(5);
+        then(spill.get(0)).isNull();
+        then(spill.get(5).message).isEqualTo("6");
+
+        spill.clear();
+        then(spill.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void store_reads_through_the_history() {
+        final LogStore store = new LogStore(2);
+        store.setHistory(new SpillStore(dir, 4096, Long.MAX_VALUE, Long.MAX_VALUE));
+        final List<String> events = new ArrayList<>();
+        store.addListener(new LogStore.Listener() {
+            @Override
+            public void evicted(long first, long end) {
+                events.add("-" + first + "-" + end);
+            }
+
+            @Override
+            public void appended(long first, long end) {
+                events.add("+" + first + "-" + end);
+            }
+
+            @Override
+            public void cleared(long first, long end) {
+                events.add("x" + first + "-" + end);
+            }
+        });
+
+        store.addAll(entries("1", "2"));
+        store.addAll(entries("3", "4", "5"));
+        store.getHistory().flush();
+
+        then(store.first()).isZero();
+        then(store.firstInMemory()).isEqualTo(3);
+        then(store.size()).isEqualTo(5);
+        for (int i = 0; i < 5; ++i) {
+            then(store.get(i).message).isEqualTo(String.valueOf(i + 1));
+        }
+
+        store.clear();
+        then(store.get(4)).isNull();
+        then(events).containsExactly("+0-2", "+2-5", "x0-5");
+    }
+
+    @Test
+    public void save_and_restore_the_session() {
+        final LogStore store = new LogStore(100);
+        store.setHistory(new SpillStore(dir, 4096, Long.MAX_VALUE, Long.MAX_VALUE));
+        final List<LogEntry> batch = new ArrayList<>();
+        for (int i = 0; i < 250; ++i) {
+            batch.add(new LogEntry(
+                Level.INFO, i, LoggerRegistry.getDefault().idOf("spill.session." + (i % 3)),
+                1, "message " + i, null, null, null
+            ));
+        }
+        store.addAll(batch);
+
+        then(store.save(10_000)).isEqualTo(250);
+        then(new File(dir, "session")).exists();
+
+        //
+        // the next session starts after the saved entries and reads them
+        // from the segments
+        //
+        final LogStore next = new LogStore(100);
+        next.setHistory(new SpillStore(dir, 4096, Long.MAX_VALUE, Long.MAX_VALUE));
+        then(new File(dir, "session")).doesNotExist();
+        then(next.first()).isZero();
+        then(next.end()).isEqualTo(250);
+        for (int i = 0; i < 250; ++i) {
+            final LogEntry entry = next.get(i);
+            then(entry.message).isEqualTo("message " + i);
+            then(entry.loggerName()).isEqualTo("spill.session." + (i % 3));
+        }
+
+        next.addAll(entries("new"));
+        then(next.get(250).message).isEqualTo("new");
+        then(next.first()).isZero();
+
+        //
+        // without a saved session, segments are deleted
+        //
+        next.getHistory().close();
+        final LogStore last = new LogStore(100);
+        last.setHistory(new SpillStore(dir, 4096, Long.MAX_VALUE, Long.MAX_VALUE));
+        then(last.size()).isZero();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.util.List;
+import java.util.logging.Level;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+public class TimeBucketsTest {
+
+    @Test
+    public void count_entries_by_level_in_buckets() {
+        final TimeBuckets buckets = new TimeBuckets(1000, 10);
+
+        buckets.add(1000, 0, TimeBuckets.groupOf(Level.INFO));
+        buckets.add(1500, 1, TimeBuckets.groupOf(Level.SEVERE));
+        buckets.add(1999, 2, TimeBuckets.groupOf(Level.WARNING));
+        buckets.add(5000, 3, TimeBuckets.groupOf(Level.FINE));
+        buckets.add(4000, 4, TimeBuckets.groupOf(Level.SEVERE)); // late, counted in the newest
+
+        then(buckets.size()).isEqualTo(2);
+        then(buckets.time(0)).isEqualTo(1000);
+        then(buckets.firstSeq(0)).isZero();
+        then(buckets.total(0)).isEqualTo(3);
+        then(buckets.count(0, TimeBuckets.SEVERE)).isEqualTo(1);
+        then(buckets.count(0, TimeBuckets.WARNING)).isEqualTo(1);
+        then(buckets.count(0, TimeBuckets.OTHER)).isEqualTo(1);
+        then(buckets.time(1)).isEqualTo(5000);
+        then(buckets.firstSeq(1)).isEqualTo(3);
+        then(buckets.count(1, TimeBuckets.SEVERE)).isEqualTo(1);
+    }
+
+    @Test
+    public void look_up_times() {
+        final TimeBuckets buckets = new TimeBuckets(1000, 10);
+        then(buckets.indexOf(0)).isEqualTo(-1);
+
+        buckets.add(1000, 0, TimeBuckets.OTHER);
+        buckets.add(3000, 10, TimeBuckets.OTHER);
+        buckets.add(7000, 20, TimeBuckets.OTHER);
+
+        then(buckets.indexOf(0)).isZero();
+        then(buckets.indexOf(1000)).isZero();
+        then(buckets.indexOf(2999)).isZero();
+        then(buckets.indexOf(3000)).isEqualTo(1);
+        then(buckets.indexOf(6000)).isEqualTo(1);
+        then(buckets.indexOf(100000)).isEqualTo(2);
+    }
+
+    @Test
+    public void drop_oldest_and_evicted_buckets() {
+        final TimeBuckets buckets = new TimeBuckets(1000, 3);
+        for (int i = 0; i < 5; ++i) {
+            buckets.add(i * 1000, i * 10, TimeBuckets.OTHER);
+        }
+        then(buckets.size()).isEqualTo(3);
+        then(buckets.time(0)).isEqualTo(2000);
+        then(buckets.total(0)).isEqualTo(1);
+
+        buckets.evictTo(35);
+        then(buckets.size()).isEqualTo(2);
+        then(buckets.firstSeq(0)).isEqualTo(30);
+
+        buckets.evictTo(45);
+        then(buckets.size()).isEqualTo(1);
+        then(buckets.firstSeq(0)).isEqualTo(45);
+
+        buckets.clear();
+        then(buckets.size()).isZero();
+    }
+
+    @Test
+    public void count_a_store_once_for_all_its_timelines() {
+        final LogStore store = new LogStore(3);
+        store.addAll(List.of(entry(Level.INFO, 1000), entry(Level.SEVERE, 1500)));
+
+        final TimeCounts counts = store.timeCounts();
+        then(store.timeCounts()).isSameAs(counts);
+        then(counts.seconds.size()).isEqualTo(1);
+        then(counts.seconds.total(0)).isEqualTo(2);
+
+        final int[] changes = new int[1];
+        counts.addListener(() -> ++changes[0]);
+        store.addAll(List.of(entry(Level.WARNING, 2000), entry(Level.INFO, 3000)));
+        then(changes[0]).isEqualTo(2); // evicted, then appended
+        then(counts.seconds.size()).isEqualTo(3);
+        then(counts.seconds.firstSeq(0)).isEqualTo(1);
+        then(counts.minutes.total(0)).isEqualTo(4); // buckets are dropped whole
+
+        store.clear();
+        then(counts.seconds.size()).isZero();
+        then(changes[0]).isEqualTo(3);
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private static LogEntry entry(final Level level, final long millis) {
+        return new LogEntry(level, millis, 0, 1, "message", null, null, null);
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2025 Stefano Fornari
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ste.netbeans.logging;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import javax.management.ObjectName;
+import static org.assertj.core.api.BDDAssertions.then;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+public class ViewerMetricsTest {
+
+    private static final String LOGGER = "ste.netbeans.logging.metrics";
+
+    @BeforeEach
+    public void before() {
+        RateLimits.getDefault().setLimit(LOGGER, 0, 0, 1);
+        RateLimits.getDefault().setLimit(LOGGER + ".limited", 1, 1, 1);
+        DisplayLevels.getDefault().setLevel(LOGGER + ".quiet", Level.WARNING);
+    }
+
+    @AfterEach
+    public void after() {
+        RateLimits.getDefault().removeLimit(LOGGER);
+        RateLimits.getDefault().removeLimit(LOGGER + ".limited");
+        DisplayLevels.getDefault().setLevel(LOGGER + ".quiet", null);
+    }
+
+    @Test
+    public void compute_rates_sizes_and_top_talkers() throws Exception {
+        final LogStore store = new LogStore(1000);
+        final LogViewerHandler handler = new LogViewerHandler(Runnable::run);
+        final ViewerMetrics metrics = new ViewerMetrics(handler, store, LoggerRegistry.getDefault());
+        handler.attach(store::addAll);
+
+        metrics.sample(0);
+        then(metrics.getIngestedRate()).isZero();
+        then(metrics.getTopTalkers()).isEmpty();
+
+        publish(handler, "busy", 100);
+        publish(handler, "quiet", 10);
+        publish(handler, "limited", 10);
+        handler.flush();
+        final long timeout = System.currentTimeMillis() + 5000;
+        while (handler.getDeliveredCount() < 101 && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+
+        metrics.sample(TimeUnit.SECONDS.toNanos(2));
+        then(metrics.getIngestedRate()).isEqualTo(60.0);
+        then(metrics.getFilteredRate()).isEqualTo(5.0);
+        then(metrics.getSuppressedRate()).isEqualTo(4.5);
+        then(metrics.getDroppedRate()).isZero();
+        then(metrics.getRenderedRate()).isGreaterThanOrEqualTo(50.5);
+        then(metrics.getQueueSize()).isZero();
+        then(metrics.getMaxBatchMillis()).isGreaterThan(0.0);
+        then(metrics.getRetainedCount()).isEqualTo(store.size()).isGreaterThanOrEqualTo(101);
+        then(metrics.getInMemoryCount()).isEqualTo(metrics.getRetainedCount());
+        then(metrics.getEstimatedMemory()).isGreaterThan(101L * 72);
+        then(metrics.getTopTalkers()).startsWith(
+            LOGGER + ".busy (50/s)", LOGGER + ".quiet (5/s)", LOGGER + ".limited (5/s)"
+        );
+
+        //
+        // rates are of the last interval only
+        //
+        metrics.sample(TimeUnit.SECONDS.toNanos(3));
+        then(metrics.getIngestedRate()).isZero();
+        then(metrics.getTopTalkers()).isEmpty();
+
+        handler.close();
+    }
+
+    @Test
+    public void register_the_default_metrics() throws Exception {
+        final LogViewerHandler handler = new LogViewerHandler(Runnable::run);
+        final ObjectName name = new ObjectName(ViewerMetrics.OBJECT_NAME);
+
+        ViewerMetrics.startDefault(handler);
+        then(ViewerMetrics.getDefault()).isNotNull();
+        Thread.sleep(100);
+        then(ManagementFactory.getPlatformMBeanServer().isRegistered(name)).isFalse();
+
+        //
+        // registered by the first sample, once a viewer is attached
+        //
+        handler.attach((batch) -> {});
+        ViewerMetrics.getDefault().resume();
+        final long timeout = System.currentTimeMillis() + 5000;
+        while (!ManagementFactory.getPlatformMBeanServer().isRegistered(name) && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        then(ManagementFactory.getPlatformMBeanServer().isRegistered(name)).isTrue();
+        then(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "QueueCapacity"))
+            .isEqualTo(handler.getQueueCapacity());
+
+        ViewerMetrics.stopDefault();
+        then(ViewerMetrics.getDefault()).isNull();
+        then(ManagementFactory.getPlatformMBeanServer().isRegistered(name)).isFalse();
+
+        handler.close();
+    }
+
+    // --------------------------------------------------------- private methods
+
+    private static void publish(final LogViewerHandler handler, final String logger, final int n) {
+        for (int i = 0; i < n; ++i) {
+            final LogRecord r = new LogRecord(Level.INFO, "record " + i);
+            r.setLoggerName(LOGGER + "." + logger);
+            handler.publish(r);
+        }
+    }
+}